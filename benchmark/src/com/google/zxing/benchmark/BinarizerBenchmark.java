@@ -0,0 +1,99 @@
+/*
+ * Copyright 2009 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.benchmark;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.GlobalHistogramBinarizer;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.common.IntegralHybridBinarizer;
+import com.google.zxing.common.ParallelHybridBinarizer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of binarizing a whole frame with each {@link com.google.zxing.Binarizer}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BinarizerBenchmark {
+
+  @Param({"640x480", "1920x1080"})
+  public String resolution;
+
+  @Param({"NONE", "NOISE", "COMBINED"})
+  public Corpus.Distortion distortion;
+
+  private LuminanceSource source;
+  private IntegralHybridBinarizer.Pool pool;
+
+  @Setup
+  public void setUp() {
+    int separator = resolution.indexOf('x');
+    int width = Integer.parseInt(resolution.substring(0, separator));
+    int height = Integer.parseInt(resolution.substring(separator + 1));
+    source = Corpus.create(BarcodeFormat.QR_CODE, distortion, width, height).createLuminanceSource();
+    pool = new IntegralHybridBinarizer.Pool();
+  }
+
+  @Benchmark
+  public BitMatrix hybrid() throws NotFoundException {
+    return new HybridBinarizer(source).getBlackMatrix();
+  }
+
+  @Benchmark
+  public BitMatrix globalHistogram() throws NotFoundException {
+    return new GlobalHistogramBinarizer(source).getBlackMatrix();
+  }
+
+  @Benchmark
+  public BitMatrix integralHybrid() throws NotFoundException {
+    return new IntegralHybridBinarizer(source).getBlackMatrix();
+  }
+
+  @Benchmark
+  public BitMatrix integralHybridPooled() throws NotFoundException {
+    IntegralHybridBinarizer binarizer = pool.acquire(source);
+    BitMatrix matrix = binarizer.getBlackMatrix();
+    binarizer.release();
+    return matrix;
+  }
+
+  @Benchmark
+  public BitMatrix parallelHybrid() throws NotFoundException {
+    return new ParallelHybridBinarizer(source).getBlackMatrix();
+  }
+
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2009 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.benchmark;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.MultiFormatWriter;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.PerspectiveTransform;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates the benchmark images. Each symbol is encoded with the library's own writers, drawn
+ * into a greyscale frame through a perspective mapping and then optionally blurred and made noisy.
+ * Everything is derived from fixed seeds, so a given format, distortion and resolution always
+ * produces the same pixels and runs stay comparable over time.
+ */
+public final class Corpus {
+
+  /**
+   * Degradations applied to a frame. The amounts are fixed so results stay comparable.
+   */
+  public enum Distortion {
+    /** Sharp, axis-aligned, noise-free. */
+    NONE,
+    /** 3x3 box blur, roughly an out-of-focus camera. */
+    BLUR,
+    /** Gaussian sensor noise with a standard deviation of 12 levels. */
+    NOISE,
+    /** Symbol rotated by 7 degrees. */
+    ROTATION,
+    /** One side of the symbol shortened by 15%, as if seen at an angle. */
+    PERSPECTIVE,
+    /** All of the above at once. */
+    COMBINED
+  }
+
+  private static final long SEED = 0x5eed2019L;
+  private static final int DARK = 40;
+  private static final int LIGHT = 215;
+  private static final float ROTATION_DEGREES = 7.0f;
+  private static final float PERSPECTIVE_SHRINK = 0.15f;
+  private static final double NOISE_SIGMA = 12.0;
+
+  private static final Map<BarcodeFormat,String> CONTENTS = new EnumMap<>(BarcodeFormat.class);
+  static {
+    CONTENTS.put(BarcodeFormat.QR_CODE, "http://www.example.com/benchmark?frame=0123456789");
+    CONTENTS.put(BarcodeFormat.DATA_MATRIX, "BENCHMARK 0123456789 DATA MATRIX");
+    CONTENTS.put(BarcodeFormat.AZTEC, "Benchmark 0123456789 Aztec");
+    CONTENTS.put(BarcodeFormat.PDF_417, "Benchmark 0123456789 PDF417");
+    CONTENTS.put(BarcodeFormat.CODE_128, "BENCH-0123456789");
+    CONTENTS.put(BarcodeFormat.CODE_39, "BENCH39");
+    CONTENTS.put(BarcodeFormat.CODE_93, "BENCH93");
+    CONTENTS.put(BarcodeFormat.CODABAR, "A40156B");
+    CONTENTS.put(BarcodeFormat.ITF, "00123456789012");
+    CONTENTS.put(BarcodeFormat.EAN_13, "5901234123457");
+    CONTENTS.put(BarcodeFormat.EAN_8, "96385074");
+    CONTENTS.put(BarcodeFormat.UPC_A, "036000291452");
+    CONTENTS.put(BarcodeFormat.UPC_E, "01234565");
+  }
+
+  private Corpus() {
+  }
+
+  /**
+   * @return the text encoded in the symbols of this format
+   */
+  public static String getContents(BarcodeFormat format) {
+    String contents = CONTENTS.get(format);
+    if (contents == null) {
+      throw new IllegalArgumentException("No writer for format " + format);
+    }
+    return contents;
+  }
+
+  /**
+   * @return the symbol at one matrix cell per module, without quiet zone for 2D formats
+   */
+  public static BitMatrix encodeModules(BarcodeFormat format) {
+    Map<EncodeHintType,Object> hints = new EnumMap<>(EncodeHintType.class);
+    hints.put(EncodeHintType.MARGIN, 0);
+    BitMatrix matrix;
+    try {
+      matrix = new MultiFormatWriter().encode(getContents(format), format, 0, 0, hints);
+    } catch (WriterException we) {
+      throw new IllegalStateException(we);
+    }
+    if (matrix.getHeight() == 1) {
+      return matrix;
+    }
+    // Some writers add a quiet zone regardless; cut the symbol out
+    int[] rectangle = matrix.getEnclosingRectangle();
+    BitMatrix modules = new BitMatrix(rectangle[2], rectangle[3]);
+    for (int y = 0; y < rectangle[3]; y++) {
+      for (int x = 0; x < rectangle[2]; x++) {
+        if (matrix.get(rectangle[0] + x, rectangle[1] + y)) {
+          modules.set(x, y);
+        }
+      }
+    }
+    return modules;
+  }
+
+  /**
+   * @param format symbology to draw
+   * @param distortion degradation to apply
+   * @param width frame width
+   * @param height frame height
+   * @return the frame
+   */
+  public static Sample create(BarcodeFormat format, Distortion distortion, int width, int height) {
+    BitMatrix modules = encodeModules(format);
+    int moduleWidth = modules.getWidth();
+    int moduleHeight = modules.getHeight();
+
+    // A 2D symbol fills 60% of the shorter side; a 1D one 80% of the width and 30% of the height
+    float symbolWidth;
+    float symbolHeight;
+    if (moduleHeight == 1) {
+      symbolWidth = 0.8f * width;
+      symbolHeight = 0.3f * height;
+    } else {
+      float cell = Math.min(0.6f * width / moduleWidth, 0.6f * height / moduleHeight);
+      symbolWidth = cell * moduleWidth;
+      symbolHeight = cell * moduleHeight;
+    }
+
+    // Corners clockwise from top left, centred on the origin
+    float[] corners = {
+        -symbolWidth / 2, -symbolHeight / 2,
+        symbolWidth / 2, -symbolHeight / 2,
+        symbolWidth / 2, symbolHeight / 2,
+        -symbolWidth / 2, symbolHeight / 2,
+    };
+    if (distortion == Distortion.PERSPECTIVE || distortion == Distortion.COMBINED) {
+      float shrink = PERSPECTIVE_SHRINK * symbolHeight / 2;
+      corners[3] += shrink;
+      corners[5] -= shrink;
+    }
+    double angle = distortion == Distortion.ROTATION || distortion == Distortion.COMBINED ?
+        Math.toRadians(ROTATION_DEGREES) : 0.0;
+    float cos = (float) Math.cos(angle);
+    float sin = (float) Math.sin(angle);
+    for (int i = 0; i < corners.length; i += 2) {
+      float x = corners[i];
+      float y = corners[i + 1];
+      corners[i] = x * cos - y * sin + width / 2.0f;
+      corners[i + 1] = x * sin + y * cos + height / 2.0f;
+    }
+
+    int[] pixels = draw(modules, corners, width, height);
+    if (distortion == Distortion.BLUR || distortion == Distortion.COMBINED) {
+      pixels = blur(pixels, width, height);
+    }
+    Random random = new Random(SEED + 31 * format.ordinal() + distortion.ordinal());
+    if (distortion == Distortion.NOISE || distortion == Distortion.COMBINED) {
+      for (int i = 0; i < pixels.length; i++) {
+        pixels[i] += (int) Math.round(random.nextGaussian() * NOISE_SIGMA);
+      }
+    }
+    byte[] luminance = new byte[width * height];
+    for (int i = 0; i < pixels.length; i++) {
+      int value = pixels[i];
+      luminance[i] = (byte) (value < 0 ? 0 : value > 0xFF ? 0xFF : value);
+    }
+    return new Sample(format, getContents(format), modules, luminance, width, height, corners);
+  }
+
+  private static int[] draw(BitMatrix modules, float[] corners, int width, int height) {
+    int moduleWidth = modules.getWidth();
+    int moduleHeight = modules.getHeight();
+    PerspectiveTransform transform = PerspectiveTransform.quadrilateralToQuadrilateral(
+        corners[0], corners[1], corners[2], corners[3], corners[4], corners[5], corners[6], corners[7],
+        0, 0, moduleWidth, 0, moduleWidth, moduleHeight, 0, moduleHeight);
+    int[] pixels = new int[width * height];
+    float[] points = new float[2 * width];
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        points[2 * x] = x + 0.5f;
+        points[2 * x + 1] = y + 0.5f;
+      }
+      transform.transformPoints(points);
+      for (int x = 0; x < width; x++) {
+        float mx = points[2 * x];
+        float my = points[2 * x + 1];
+        boolean dark = mx >= 0 && my >= 0 && mx < moduleWidth && my < moduleHeight && modules.get((int) mx, (int) my);
+        pixels[y * width + x] = dark ? DARK : LIGHT;
+      }
+    }
+    return pixels;
+  }
+
+  private static int[] blur(int[] pixels, int width, int height) {
+    int[] horizontal = new int[pixels.length];
+    for (int y = 0; y < height; y++) {
+      int offset = y * width;
+      for (int x = 0; x < width; x++) {
+        int left = pixels[offset + Math.max(0, x - 1)];
+        int right = pixels[offset + Math.min(width - 1, x + 1)];
+        horizontal[offset + x] = left + pixels[offset + x] + right;
+      }
+    }
+    int[] blurred = new int[pixels.length];
+    for (int y = 0; y < height; y++) {
+      int above = Math.max(0, y - 1) * width;
+      int below = Math.min(height - 1, y + 1) * width;
+      int offset = y * width;
+      for (int x = 0; x < width; x++) {
+        blurred[offset + x] = (horizontal[above + x] + horizontal[offset + x] + horizontal[below + x] + 4) / 9;
+      }
+    }
+    return blurred;
+  }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2009 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.benchmark;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.ReaderException;
+import com.google.zxing.ResultPoint;
+import com.google.zxing.aztec.AztecDetectorResult;
+import com.google.zxing.aztec.encoder.AztecCode;
+import com.google.zxing.aztec.encoder.Encoder;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.DecoderResult;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning a sampled module grid into text: reading codewords, Reed-Solomon correction and
+ * bit-stream parsing. The grid is the writer's own output, so nothing needs correcting.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DecoderBenchmark {
+
+  private static final ResultPoint[] NO_POINTS = new ResultPoint[0];
+
+  @Param({"QR_CODE", "DATA_MATRIX", "AZTEC"})
+  public BarcodeFormat format;
+
+  private final com.google.zxing.qrcode.decoder.Decoder qrDecoder = new com.google.zxing.qrcode.decoder.Decoder();
+  private final com.google.zxing.datamatrix.decoder.Decoder dataMatrixDecoder =
+      new com.google.zxing.datamatrix.decoder.Decoder();
+  private final com.google.zxing.aztec.decoder.Decoder aztecDecoder = new com.google.zxing.aztec.decoder.Decoder();
+  private BitMatrix modules;
+  private AztecCode aztecCode;
+
+  @Setup
+  public void setUp() {
+    if (format == BarcodeFormat.AZTEC) {
+      // The Aztec decoder needs the layer count, which only the encoder knows
+      aztecCode = Encoder.encode(Corpus.getContents(format).getBytes(StandardCharsets.ISO_8859_1));
+    } else {
+      modules = Corpus.encodeModules(format);
+    }
+  }
+
+  @Benchmark
+  public DecoderResult decode() throws ReaderException {
+    switch (format) {
+      case QR_CODE:
+        // The QR decoder may mirror the matrix in place, so give it its own copy
+        return qrDecoder.decode(modules.clone());
+      case DATA_MATRIX:
+        return dataMatrixDecoder.decode(modules);
+      case AZTEC:
+        return aztecDecoder.decode(new AztecDetectorResult(aztecCode.getMatrix(), NO_POINTS, aztecCode.isCompact(),
+            aztecCode.getCodeWords(), aztecCode.getLayers()));
+      default:
+        throw new IllegalArgumentException("No decoder for format " + format);
+    }
+  }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2009 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.benchmark;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.ReaderException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.HybridBinarizer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of locating a 2D symbol in an already binarized frame, up to and including sampling its
+ * modules. Frames where detection fails are measured too: a miss costs as much as a hit in a
+ * scanning loop.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DetectorBenchmark {
+
+  @Param({"QR_CODE", "DATA_MATRIX", "AZTEC", "PDF_417"})
+  public BarcodeFormat format;
+
+  @Param({"NONE", "BLUR", "NOISE", "ROTATION", "PERSPECTIVE", "COMBINED"})
+  public Corpus.Distortion distortion;
+
+  private BinaryBitmap bitmap;
+  private BitMatrix matrix;
+
+  @Setup
+  public void setUp() throws ReaderException {
+    Sample sample = Corpus.create(format, distortion, 640, 480);
+    bitmap = new BinaryBitmap(new HybridBinarizer(sample.createLuminanceSource()));
+    // Binarize once; BinaryBitmap keeps the matrix
+    matrix = bitmap.getBlackMatrix();
+  }
+
+  @Benchmark
+  public Object detect() {
+    try {
+      switch (format) {
+        case QR_CODE:
+          return new com.google.zxing.qrcode.detector.Detector(matrix).detect();
+        case DATA_MATRIX:
+          return new com.google.zxing.datamatrix.detector.Detector(matrix).detect();
+        case AZTEC:
+          return new com.google.zxing.aztec.detector.Detector(matrix).detect();
+        case PDF_417:
+          return com.google.zxing.pdf417.detector.Detector.detect(bitmap, null, false);
+        default:
+          throw new IllegalArgumentException("No detector for format " + format);
+      }
+    } catch (ReaderException re) {
+      return re;
+    }
+  }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2009 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.benchmark;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.MultiFormatReader;
+import com.google.zxing.ReaderException;
+import com.google.zxing.common.HybridBinarizer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a whole {@link MultiFormatReader#decodeWithState(BinaryBitmap)} call, binarization
+ * included, with the reader restricted to the symbology in the frame. Frames that fail to decode
+ * are measured too.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EndToEndBenchmark {
+
+  @Param({"QR_CODE", "DATA_MATRIX", "AZTEC", "PDF_417", "CODE_128", "CODE_39", "CODE_93", "CODABAR", "ITF",
+          "EAN_13", "EAN_8", "UPC_A", "UPC_E"})
+  public BarcodeFormat format;
+
+  @Param({"NONE", "BLUR", "NOISE", "ROTATION", "PERSPECTIVE", "COMBINED"})
+  public Corpus.Distortion distortion;
+
+  private final MultiFormatReader reader = new MultiFormatReader();
+  private LuminanceSource source;
+
+  @Setup
+  public void setUp() {
+    source = Corpus.create(format, distortion, 640, 480).createLuminanceSource();
+    Map<DecodeHintType,Object> hints = new EnumMap<>(DecodeHintType.class);
+    hints.put(DecodeHintType.POSSIBLE_FORMATS, Collections.singletonList(format));
+    reader.setHints(hints);
+  }
+
+  @Benchmark
+  public Object decode() {
+    try {
+      return reader.decodeWithState(new BinaryBitmap(new HybridBinarizer(source)));
+    } catch (ReaderException re) {
+      return re;
+    }
+  }
+
+}
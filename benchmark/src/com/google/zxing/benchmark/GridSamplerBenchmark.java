@@ -0,0 +1,85 @@
+/*
+ * Copyright 2009 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.benchmark;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.DecodeContext;
+import com.google.zxing.common.DefaultGridSampler;
+import com.google.zxing.common.GridSampler;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.common.PerspectiveTransform;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of sampling a symbol's modules from a binarized frame, given a perfect detection.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GridSamplerBenchmark {
+
+  @Param({"QR_CODE", "DATA_MATRIX", "AZTEC"})
+  public BarcodeFormat format;
+
+  @Param({"NONE", "PERSPECTIVE"})
+  public Corpus.Distortion distortion;
+
+  private final GridSampler sampler = new DefaultGridSampler();
+  private final DecodeContext context = new DecodeContext();
+  private BitMatrix image;
+  private PerspectiveTransform transform;
+  private int dimensionX;
+  private int dimensionY;
+
+  @Setup
+  public void setUp() throws NotFoundException {
+    Sample sample = Corpus.create(format, distortion, 640, 480);
+    image = new HybridBinarizer(sample.createLuminanceSource()).getBlackMatrix();
+    transform = sample.getModuleToImageTransform();
+    dimensionX = sample.getModules().getWidth();
+    dimensionY = sample.getModules().getHeight();
+  }
+
+  @Benchmark
+  public BitMatrix sampleGrid() throws NotFoundException {
+    return sampler.sampleGrid(image, dimensionX, dimensionY, transform);
+  }
+
+  @Benchmark
+  public BitMatrix sampleGridWithContext() throws NotFoundException {
+    return sampler.sampleGrid(image, dimensionX, dimensionY, transform, context);
+  }
+
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2009 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.benchmark;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.PixelBufferLuminanceSource;
+import com.google.zxing.PlanarYUVLuminanceSource;
+import com.google.zxing.RGBLuminanceSource;
+import com.google.zxing.StridedYUVLuminanceSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning a frame into luminance data that a binarizer can read, for the pixel layouts
+ * frames usually arrive in.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LuminanceBenchmark {
+
+  @Param({"640x480", "1280x720", "1920x1080"})
+  public String resolution;
+
+  private int width;
+  private int height;
+  private int[] argb;
+  private byte[] rgba;
+  private byte[] yuv;
+  private byte[] matrixBuffer;
+
+  @Setup
+  public void setUp() {
+    int separator = resolution.indexOf('x');
+    width = Integer.parseInt(resolution.substring(0, separator));
+    height = Integer.parseInt(resolution.substring(separator + 1));
+    Sample sample = Corpus.create(BarcodeFormat.QR_CODE, Corpus.Distortion.NONE, width, height);
+    argb = sample.toARGB();
+    rgba = sample.toRGBA();
+    yuv = sample.getLuminance();
+    matrixBuffer = new byte[width * height];
+  }
+
+  @Benchmark
+  public byte[] rgbLuminanceSource() {
+    return new RGBLuminanceSource(width, height, argb).getMatrix();
+  }
+
+  @Benchmark
+  public byte[] pixelBufferRGBA() {
+    return new PixelBufferLuminanceSource(rgba, width, height, PixelBufferLuminanceSource.Format.RGBA8888)
+        .getMatrix();
+  }
+
+  @Benchmark
+  public byte[] pixelBufferRGBAReusingBuffer() {
+    return new PixelBufferLuminanceSource(rgba, width, height, 4 * width,
+        PixelBufferLuminanceSource.Format.RGBA8888, false, matrixBuffer).getMatrix();
+  }
+
+  @Benchmark
+  public byte[] planarYUV() {
+    return new PlanarYUVLuminanceSource(yuv, width, height, 0, 0, width, height, false).getMatrix();
+  }
+
+  @Benchmark
+  public byte[] planarYUVCropped() {
+    return new PlanarYUVLuminanceSource(yuv, width, height, width / 8, height / 8, 3 * width / 4, 3 * height / 4,
+        false).getMatrix();
+  }
+
+  @Benchmark
+  public byte[] stridedYUVCropped() {
+    return new StridedYUVLuminanceSource(yuv, 0, width, 1, width, height, width / 8, height / 8, 3 * width / 4,
+        3 * height / 4, matrixBuffer).getMatrix();
+  }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2009 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.benchmark;
+
+import com.google.zxing.common.reedsolomon.GenericGF;
+import com.google.zxing.common.reedsolomon.ReedSolomonDecoder;
+import com.google.zxing.common.reedsolomon.ReedSolomonEncoder;
+import com.google.zxing.common.reedsolomon.ReedSolomonException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of correcting one Reed-Solomon block, from clean to nearly uncorrectable.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReedSolomonBenchmark {
+
+  private static final int DATA_WORDS = 100;
+  private static final int EC_WORDS = 30;
+
+  @Param({"QR_CODE_FIELD_256", "DATA_MATRIX_FIELD_256", "AZTEC_DATA_12"})
+  public String field;
+
+  @Param({"0", "5", "15"})
+  public int errors;
+
+  private ReedSolomonDecoder decoder;
+  private int[] received;
+  private int[] work;
+
+  @Setup
+  public void setUp() {
+    GenericGF gf;
+    switch (field) {
+      case "QR_CODE_FIELD_256":
+        gf = GenericGF.QR_CODE_FIELD_256;
+        break;
+      case "DATA_MATRIX_FIELD_256":
+        gf = GenericGF.DATA_MATRIX_FIELD_256;
+        break;
+      case "AZTEC_DATA_12":
+        gf = GenericGF.AZTEC_DATA_12;
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown field " + field);
+    }
+    Random random = new Random(field.hashCode());
+    received = new int[DATA_WORDS + EC_WORDS];
+    for (int i = 0; i < DATA_WORDS; i++) {
+      received[i] = random.nextInt(gf.getSize());
+    }
+    new ReedSolomonEncoder(gf).encode(received, EC_WORDS);
+    // Corrupt distinct positions spread over the block
+    for (int i = 0; i < errors; i++) {
+      int position = i * received.length / errors;
+      received[position] ^= 1 + random.nextInt(gf.getSize() - 1);
+    }
+    decoder = new ReedSolomonDecoder(gf);
+    work = new int[received.length];
+  }
+
+  @Benchmark
+  public int[] decode() throws ReedSolomonException {
+    System.arraycopy(received, 0, work, 0, received.length);
+    decoder.decode(work, EC_WORDS);
+    return work;
+  }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2009 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.benchmark;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.PlanarYUVLuminanceSource;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.PerspectiveTransform;
+
+/**
+ * One generated frame, with what it is known to contain.
+ *
+ * @see Corpus
+ */
+public final class Sample {
+
+  private final BarcodeFormat format;
+  private final String contents;
+  private final BitMatrix modules;
+  private final byte[] luminance;
+  private final int width;
+  private final int height;
+  private final float[] corners;
+
+  Sample(BarcodeFormat format,
+         String contents,
+         BitMatrix modules,
+         byte[] luminance,
+         int width,
+         int height,
+         float[] corners) {
+    this.format = format;
+    this.contents = contents;
+    this.modules = modules;
+    this.luminance = luminance;
+    this.width = width;
+    this.height = height;
+    this.corners = corners;
+  }
+
+  public BarcodeFormat getFormat() {
+    return format;
+  }
+
+  public String getContents() {
+    return contents;
+  }
+
+  /**
+   * @return the encoded symbol, one cell per module
+   */
+  public BitMatrix getModules() {
+    return modules;
+  }
+
+  /**
+   * @return greyscale pixels, row by row; shared, do not modify
+   */
+  public byte[] getLuminance() {
+    return luminance;
+  }
+
+  public int getWidth() {
+    return width;
+  }
+
+  public int getHeight() {
+    return height;
+  }
+
+  /**
+   * @return a new source over the frame's pixels
+   */
+  public LuminanceSource createLuminanceSource() {
+    return new PlanarYUVLuminanceSource(luminance, width, height, 0, 0, width, height, false);
+  }
+
+  /**
+   * @return the frame as opaque grey ARGB pixels, as a platform image would deliver it
+   */
+  public int[] toARGB() {
+    int[] pixels = new int[luminance.length];
+    for (int i = 0; i < pixels.length; i++) {
+      int value = luminance[i] & 0xFF;
+      pixels[i] = 0xFF000000 | (value * 0x010101);
+    }
+    return pixels;
+  }
+
+  /**
+   * @return the frame as grey RGBA bytes, as a camera or canvas buffer would deliver it
+   */
+  public byte[] toRGBA() {
+    byte[] pixels = new byte[4 * luminance.length];
+    for (int i = 0; i < luminance.length; i++) {
+      byte value = luminance[i];
+      pixels[4 * i] = value;
+      pixels[4 * i + 1] = value;
+      pixels[4 * i + 2] = value;
+      pixels[4 * i + 3] = (byte) 0xFF;
+    }
+    return pixels;
+  }
+
+  /**
+   * @return the transform from module coordinates to frame pixels, as a detector would compute it
+   *  for a perfect detection
+   */
+  public PerspectiveTransform getModuleToImageTransform() {
+    return PerspectiveTransform.quadrilateralToQuadrilateral(
+        0, 0, modules.getWidth(), 0, modules.getWidth(), modules.getHeight(), 0, modules.getHeight(),
+        corners[0], corners[1], corners[2], corners[3], corners[4], corners[5], corners[6], corners[7]);
+  }
+
+}
@@ -3,26 +3,110 @@ package com.wefeel.code.luminance;
 import com.codename1.ui.EncodedImage;
 import com.codename1.ui.Image;
 import com.google.zxing.LuminanceSource;
-import com.google.zxing.RGBLuminanceSource;
 
+/**
+ * A {@link LuminanceSource} backed by a CN1 {@link Image}. The luminance plane is computed once
+ * from the ARGB pixels when the source is created; {@link #crop(int, int, int, int)} and
+ * {@link #rotateCounterClockwise()} then return views sharing that plane, so no image codec is
+ * involved after construction.
+ *
+ * A view addresses the shared plane as {@code offset + x * xStride + y * yStride}, which covers
+ * any crop rectangle in any of the four quarter-turn orientations.
+ */
 public class ImageLuminanceSource extends LuminanceSource {
-	private final EncodedImage img;
-	private final LuminanceSource internal;
+	private final byte[] luminances;
+	private final int dataWidth;
+	private final int dataHeight;
+	private final int offset;
+	private final int xStride;
+	private final int yStride;
 
 	public ImageLuminanceSource(Image img) {
-		super(img.getWidth(), img.getHeight());
-		internal = new RGBLuminanceSource(img.getWidth(), img.getHeight(), img.getRGB());
-		this.img = img instanceof EncodedImage ? (EncodedImage) img : EncodedImage.createFromImage(img, true);
+		this(img.getWidth(), img.getHeight(), img.getRGB());
+	}
+
+	private ImageLuminanceSource(int width, int height, int[] pixels) {
+		super(width, height);
+		dataWidth = width;
+		dataHeight = height;
+		offset = 0;
+		xStride = 1;
+		yStride = width;
+
+		int size = width * height;
+		luminances = new byte[size];
+		for (int i = 0; i < size; i++) {
+			int pixel = pixels[i];
+			int r = (pixel >> 16) & 0xff; // red
+			int g2 = (pixel >> 7) & 0x1fe; // 2 * green
+			int b = pixel & 0xff; // blue
+			// Calculate green-favouring average cheaply, as RGBLuminanceSource does
+			luminances[i] = (byte) ((r + g2 + b) / 4);
+		}
+	}
+
+	private ImageLuminanceSource(byte[] luminances, int dataWidth, int dataHeight, int offset, int xStride,
+			int yStride, int width, int height) {
+		super(width, height);
+		this.luminances = luminances;
+		this.dataWidth = dataWidth;
+		this.dataHeight = dataHeight;
+		this.offset = offset;
+		this.xStride = xStride;
+		this.yStride = yStride;
 	}
 
 	@Override
 	public byte[] getRow(int y, byte[] row) {
-		return internal.getRow(y, row);
+		if (y < 0 || y >= getHeight()) {
+			throw new IllegalArgumentException("Requested row is outside the image: " + y);
+		}
+		int width = getWidth();
+		if (row == null || row.length < width) {
+			row = new byte[width];
+		}
+		int index = offset + y * yStride;
+		if (xStride == 1) {
+			System.arraycopy(luminances, index, row, 0, width);
+		} else {
+			for (int x = 0; x < width; x++, index += xStride) {
+				row[x] = luminances[index];
+			}
+		}
+		return row;
 	}
 
 	@Override
 	public byte[] getMatrix() {
-		return internal.getMatrix();
+		int width = getWidth();
+		int height = getHeight();
+
+		// If the view is the untouched plane, hand out the original data. The docs specifically
+		// warn that result.length must be ignored.
+		if (offset == 0 && xStride == 1 && yStride == dataWidth && width == dataWidth && height == dataHeight) {
+			return luminances;
+		}
+
+		int area = width * height;
+		byte[] matrix = new byte[area];
+
+		// Upright views with the full data width are a single contiguous block.
+		if (xStride == 1 && yStride == dataWidth && width == dataWidth) {
+			System.arraycopy(luminances, offset, matrix, 0, area);
+			return matrix;
+		}
+
+		for (int y = 0, outputOffset = 0; y < height; y++, outputOffset += width) {
+			int index = offset + y * yStride;
+			if (xStride == 1) {
+				System.arraycopy(luminances, index, matrix, outputOffset, width);
+			} else {
+				for (int x = 0; x < width; x++, index += xStride) {
+					matrix[outputOffset + x] = luminances[index];
+				}
+			}
+		}
+		return matrix;
 	}
 
 	@Override
@@ -32,8 +116,11 @@ public class ImageLuminanceSource extends LuminanceSource {
 
 	@Override
 	public ImageLuminanceSource crop(int left, int top, int width, int height) {
-		return new ImageLuminanceSource(
-				EncodedImage.createFromImage(img.subImage(left, top, width, height, true), true));
+		if (left < 0 || top < 0 || left + width > getWidth() || top + height > getHeight()) {
+			throw new IllegalArgumentException("Crop rectangle does not fit within image data.");
+		}
+		return new ImageLuminanceSource(luminances, dataWidth, dataHeight, offset + left * xStride + top * yStride,
+				xStride, yStride, width, height);
 	}
 
 	@Override
@@ -43,7 +130,10 @@ public class ImageLuminanceSource extends LuminanceSource {
 
 	@Override
 	public ImageLuminanceSource rotateCounterClockwise() {
-		return new ImageLuminanceSource(EncodedImage.createFromImage(img.rotate270Degrees(true), true));
+		// Pixel (x, y) of the rotated view is pixel (width - 1 - y, x) of this view.
+		int width = getWidth();
+		return new ImageLuminanceSource(luminances, dataWidth, dataHeight, offset + (width - 1) * xStride, yStride,
+				-xStride, getHeight(), width);
 	}
 
 	public static ImageLuminanceSource createLuminanceSourceFromJpeg(byte[] jpeg) {
@@ -52,6 +52,13 @@ public final class BinaryBitmap {
         return binarizer.getHeight();
     }
 
+    /**
+     * @return The luminance source this bitmap was binarized from.
+     */
+    public LuminanceSource getLuminanceSource() {
+        return binarizer.getLuminanceSource();
+    }
+
     /**
      * Converts one row of luminance data to 1 bit data. May actually do the
      * conversion, or return cached data. Callers should assume this method is
@@ -143,6 +150,24 @@ public final class BinaryBitmap {
         return new BinaryBitmap(binarizer.createBinarizer(newSource));
     }
 
+    /**
+     * @return Whether this bitmap supports downsampling.
+     */
+    public boolean isDownsampleSupported() {
+        return binarizer.getLuminanceSource().isDownsampleSupported();
+    }
+
+    /**
+     * Returns a new object with image data at half the width and height. Only
+     * callable if {@link #isDownsampleSupported()} is true.
+     *
+     * @return A downsampled version of this object.
+     */
+    public BinaryBitmap downsample() {
+        LuminanceSource newSource = binarizer.getLuminanceSource().downsample();
+        return new BinaryBitmap(binarizer.createBinarizer(newSource));
+    }
+
     @Override
     public String toString() {
         try {
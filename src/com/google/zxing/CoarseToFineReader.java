@@ -0,0 +1,209 @@
+/*
+ * Copyright 2009 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class decodes large images by first looking at a downsampled copy. It is meant for 2D
+ * codes whose modules are many pixels wide, where searching at full resolution wastes time.
+ *
+ * The delegate first runs on the coarse level of a {@link PyramidLuminanceSource}. If it decodes
+ * there, the result is returned with its points scaled back up. Otherwise the candidate points
+ * the detector reported through {@link DecodeHintType#NEED_RESULT_POINT_CALLBACK} (finder
+ * patterns, corners) mark a region of interest. The delegate then runs again on that region of
+ * the full-resolution image. If there were no candidates, or that also fails, the whole image is
+ * tried at full resolution, unless this reader was told not to.
+ *
+ * Images whose source cannot be downsampled and cropped go straight to the delegate.
+ *
+ * @see PyramidLuminanceSource
+ */
+public final class CoarseToFineReader implements Reader {
+
+  private static final int DEFAULT_LEVELS = 2;
+
+  private final Reader delegate;
+  private final int levels;
+  private final boolean fallBackToFullImage;
+
+  public CoarseToFineReader(Reader delegate) {
+    this(delegate, DEFAULT_LEVELS, true);
+  }
+
+  /**
+   * @param delegate reader that does the actual detection and decoding
+   * @param levels how many times to halve the image for the coarse search; 2 means 4x smaller
+   * @param fallBackToFullImage whether to search the whole full-resolution image when the coarse
+   *  search finds nothing. Continuous scanning clients may prefer to move on to the next frame.
+   */
+  public CoarseToFineReader(Reader delegate, int levels, boolean fallBackToFullImage) {
+    if (levels < 1) {
+      throw new IllegalArgumentException("Need at least one level");
+    }
+    this.delegate = delegate;
+    this.levels = levels;
+    this.fallBackToFullImage = fallBackToFullImage;
+  }
+
+  @Override
+  public Result decode(BinaryBitmap image) throws NotFoundException, ChecksumException, FormatException {
+    return decode(image, null);
+  }
+
+  @Override
+  public Result decode(BinaryBitmap image, Map<DecodeHintType,?> hints)
+      throws NotFoundException, ChecksumException, FormatException {
+    if (!image.isCropSupported()) {
+      return delegate.decode(image, hints);
+    }
+    BinaryBitmap coarse = image;
+    int scale = 1;
+    for (int i = 0; i < levels && coarse.isDownsampleSupported(); i++) {
+      coarse = coarse.downsample();
+      scale <<= 1;
+    }
+    if (scale == 1) {
+      return delegate.decode(image, hints);
+    }
+
+    ResultPointCallback callback = hints == null ? null :
+        (ResultPointCallback) hints.get(DecodeHintType.NEED_RESULT_POINT_CALLBACK);
+    CandidateCallback candidates = new CandidateCallback(callback, scale, 0, 0);
+    try {
+      Result result = delegate.decode(coarse, withCallback(hints, candidates));
+      transformPoints(result.getResultPoints(), scale, 0, 0);
+      return result;
+    } catch (ReaderException re) {
+      // continue
+    }
+
+    if (candidates.hasCandidates()) {
+      // Finder pattern centres sit inside the symbol, so grow the box by half its size each way
+      int width = image.getWidth();
+      int height = image.getHeight();
+      int margin = (int) Math.max(candidates.maxX - candidates.minX, candidates.maxY - candidates.minY) / 2 + scale;
+      int left = Math.max(0, (int) candidates.minX - margin);
+      int top = Math.max(0, (int) candidates.minY - margin);
+      int right = Math.min(width, (int) candidates.maxX + margin + 1);
+      int bottom = Math.min(height, (int) candidates.maxY + margin + 1);
+      if (right - left < width || bottom - top < height) {
+        try {
+          BinaryBitmap region = image.crop(left, top, right - left, bottom - top);
+          Result result = delegate.decode(region,
+              withCallback(hints, new CandidateCallback(callback, 1, left, top)));
+          transformPoints(result.getResultPoints(), 1, left, top);
+          return result;
+        } catch (ReaderException re) {
+          if (!fallBackToFullImage) {
+            throw re;
+          }
+        }
+      }
+    }
+
+    if (!fallBackToFullImage) {
+      throw NotFoundException.getNotFoundInstance();
+    }
+    return delegate.decode(image, hints);
+  }
+
+  @Override
+  public void reset() {
+    delegate.reset();
+  }
+
+  private static Map<DecodeHintType,?> withCallback(Map<DecodeHintType,?> hints, ResultPointCallback callback) {
+    Map<DecodeHintType,Object> newHints = new HashMap<>();
+    if (hints != null) {
+      newHints.putAll(hints);
+    }
+    newHints.put(DecodeHintType.NEED_RESULT_POINT_CALLBACK, callback);
+    return newHints;
+  }
+
+  /**
+   * Maps points from a downsampled or cropped image back into the full image, in place.
+   */
+  private static void transformPoints(ResultPoint[] points, int scale, int left, int top) {
+    if (points != null) {
+      for (int i = 0; i < points.length; i++) {
+        ResultPoint point = points[i];
+        if (point != null) {
+          points[i] = transform(point, scale, left, top);
+        }
+      }
+    }
+  }
+
+  private static ResultPoint transform(ResultPoint point, int scale, int left, int top) {
+    // Points are continuous coordinates where pixel x spans [x, x + 1), so scaling is exact
+    return new ResultPoint(point.getX() * scale + left, point.getY() * scale + top);
+  }
+
+  /**
+   * Tracks the bounding box of reported points, in full-resolution coordinates, and passes them
+   * on to the caller's own callback, if any.
+   */
+  private static final class CandidateCallback implements ResultPointCallback {
+
+    private final ResultPointCallback delegate;
+    private final int scale;
+    private final int left;
+    private final int top;
+    private float minX = Float.MAX_VALUE;
+    private float minY = Float.MAX_VALUE;
+    private float maxX = -Float.MAX_VALUE;
+    private float maxY = -Float.MAX_VALUE;
+
+    CandidateCallback(ResultPointCallback delegate, int scale, int left, int top) {
+      this.delegate = delegate;
+      this.scale = scale;
+      this.left = left;
+      this.top = top;
+    }
+
+    boolean hasCandidates() {
+      return minX <= maxX;
+    }
+
+    @Override
+    public void foundPossibleResultPoint(ResultPoint point) {
+      ResultPoint full = transform(point, scale, left, top);
+      float x = full.getX();
+      float y = full.getY();
+      if (x < minX) {
+        minX = x;
+      }
+      if (x > maxX) {
+        maxX = x;
+      }
+      if (y < minY) {
+        minY = y;
+      }
+      if (y > maxY) {
+        maxY = y;
+      }
+      if (delegate != null) {
+        delegate.foundPossibleResultPoint(full);
+      }
+    }
+
+  }
+
+}
@@ -16,6 +16,8 @@
 
 package com.google.zxing;
 
+import com.google.zxing.common.DecodeContext;
+
 import java.util.List;
 
 /**
@@ -118,6 +120,81 @@ public enum DecodeHintType {
    */
   QR_CODE_CHECK_FULL_FINDER_PATTERN(Void.class),
 
+  /**
+   * Scratch buffers to reuse instead of allocating new ones for each decode. Maps to a
+   * {@link DecodeContext}. {@link MultiFormatReader} supplies its own if this is not set.
+   */
+  DECODE_CONTEXT(DecodeContext.class),
+
+  /**
+   * The caller wants to know how long each stage of decoding took. Maps to a
+   * {@link DecodeListener}.
+   */
+  DECODE_LISTENER(DecodeListener.class),
+
+  /**
+   * When trying harder, scan the rows of an image for 1D barcodes on this many threads. The result
+   * is the same as when scanning on one thread. RSS-14 and RSS Expanded combine what they find in
+   * several rows, so they need to see every row; whenever either is among the formats looked for,
+   * rows are scanned on one thread regardless. Maps to an {@link Integer}.
+   */
+  ROW_SCAN_THREADS(Integer.class),
+
+  /**
+   * Only return a 1D result once this many scanned rows have decoded to the same contents at the
+   * same place, rather than the first row that decodes. Guards against misreads of single rows
+   * without being stricter about each row. Maps to an {@link Integer}.
+   */
+  ROW_CONSENSUS(Integer.class),
+
+  /**
+   * When a 1D barcode is not found in the rows of an image, look along lines at angles this many
+   * degrees apart instead, from near horizontal to vertical. Lines are sampled from the luminance
+   * directly, so this also finds rotated barcodes without rotating the image. The lines are tried
+   * before the image is rotated for {@link #TRY_HARDER}, which still follows if they find nothing.
+   * Steps from 1 to 179 degrees are used; other values are ignored. Maps to an {@link Integer}.
+   */
+  SCANLINE_ANGLE_STEP(Integer.class),
+
+  /**
+   * How many rows of a stacked RSS Expanded symbol to remember while waiting for the rest of the
+   * symbol. Older rows are forgotten beyond this; the default is 25. Maps to an {@link Integer}.
+   */
+  RSS_EXPANDED_MAX_ROWS(Integer.class),
+
+  /**
+   * Read 1D barcodes from the luminance of each row, placing the edges of bars to a fraction of a
+   * pixel rather than binarizing whole pixels. Reads bars down to about a pixel wide, so smaller,
+   * cheaper frames can be decoded. Unless {@link #ROW_CONSENSUS} says otherwise, two rows must
+   * agree on a result, and the result reports them as {@link ResultMetadataType#ROW_VOTES}.
+   * Doesn't matter what it maps to; use {@link Boolean#TRUE}.
+   */
+  SUBPIXEL_EDGES(Void.class),
+
+  /**
+   * Search the rows of an image for QR Code finder patterns on this many threads, each taking
+   * bands of rows in turn. Candidates are merged as they are found, so the result can differ
+   * slightly between runs when candidates are close together. Pays off for large images, such as
+   * sheets of many codes. Maps to an {@link Integer}.
+   */
+  QR_FINDER_THREADS(Integer.class),
+
+  /**
+   * The largest QR Code version expected, from 1 to 40. How many rows the finder pattern search
+   * skips depends on how small the modules of a code can be, which otherwise assumes at most
+   * version 20. Declaring a higher version finds denser codes without trying harder over the
+   * whole image, and a lower one makes the search faster. Maps to an {@link Integer}.
+   */
+  QR_MAX_VERSION(Integer.class),
+
+  /**
+   * Remember where a QR Code was decoded and look for it there first in the next image, for
+   * continuous scanning with {@link MultiFormatReader#decodeWithState(BinaryBitmap)} or the same
+   * {@link com.google.zxing.qrcode.QRCodeReader}. Full detection runs only when the code is not
+   * found where it was. Doesn't matter what it maps to; use {@link Boolean#TRUE}.
+   */
+  QR_TRACKING(Void.class),
+
   // End of enumeration values.
   ;
 
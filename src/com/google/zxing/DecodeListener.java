@@ -0,0 +1,60 @@
+/*
+ * Copyright 2009 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.zxing;
+
+/**
+ * Callback which is told where the time went while decoding an image, for diagnosing slow scans.
+ * Each method may be called several times per image, for instance once per reader that
+ * {@link MultiFormatReader} tries, and is called on the decoding thread, so implementations should
+ * be quick. Durations are in nanoseconds.
+ *
+ * When {@link MultiFormatReader} is given a listener, it also attaches the totals for the image to
+ * a successful {@link Result} under {@link ResultMetadataType#DECODE_STAGE_NANOS} and the other
+ * counters in {@link ResultMetadataType}.
+ *
+ * @see DecodeHintType#DECODE_LISTENER
+ */
+public interface DecodeListener {
+
+  void stageFinished(DecodeStage stage, long nanos);
+
+  /**
+   * Called by {@link MultiFormatReader} after each reader it tried.
+   */
+  void readerFinished(Reader reader, boolean decoded, long nanos);
+
+  /**
+   * Number of image rows a 1D reader loaded and tried to decode, including any it skipped.
+   */
+  void rowsScanned(int rows);
+
+  /**
+   * Number of the rows scanned that a 1D reader passed over without decoding, because they had
+   * too few bars and spaces for any symbol it finds.
+   */
+  void rowsSkipped(int rows);
+
+  /**
+   * Number of codewords Reed-Solomon correction fixed in a 2D symbol.
+   */
+  void errorsCorrected(int errors);
+
+  /**
+   * Number of possible QR Code finder patterns found before choosing the best three.
+   */
+  void finderPatternCandidates(int candidates);
+
+}
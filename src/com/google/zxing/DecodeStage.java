@@ -0,0 +1,52 @@
+/*
+ * Copyright 2009 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.zxing;
+
+/**
+ * A step of decoding an image whose duration is reported to a {@link DecodeListener}.
+ *
+ * @see DecodeListener#stageFinished(DecodeStage, long)
+ */
+public enum DecodeStage {
+
+  /**
+   * Converting luminance to black and white, either the whole image or, for 1D formats, one row
+   * at a time.
+   */
+  BINARIZATION,
+
+  /**
+   * Locating a symbol in the black and white image: finder patterns, corners, alignment patterns.
+   * For formats other than QR Code this includes {@link #SAMPLING}.
+   */
+  DETECTION,
+
+  /**
+   * Reading the modules of a located QR Code out of the image.
+   */
+  SAMPLING,
+
+  /**
+   * Reed-Solomon correction of the codewords read from a 2D symbol.
+   */
+  ERROR_CORRECTION,
+
+  /**
+   * Turning the corrected codewords of a 2D symbol into text.
+   */
+  BIT_STREAM_PARSING,
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2009 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.google.zxing;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sums up what readers report about one image for {@link MultiFormatReader}, passes each report
+ * on to the caller's listener, and attaches the totals to the result.
+ */
+final class DecodeStatistics implements DecodeListener {
+
+  private static final DecodeStage[] STAGES = DecodeStage.values();
+
+  private final DecodeListener delegate;
+  private final long[] stageNanos = new long[STAGES.length];
+  private int rows;
+  private int skippedRows;
+  private int errors;
+  private int candidates;
+
+  DecodeStatistics(DecodeListener delegate) {
+    this.delegate = delegate;
+  }
+
+  void reset() {
+    for (int i = 0; i < stageNanos.length; i++) {
+      stageNanos[i] = 0L;
+    }
+    rows = 0;
+    skippedRows = 0;
+    errors = 0;
+    candidates = 0;
+  }
+
+  void putMetadata(Result result, Reader reader) {
+    Map<DecodeStage,Long> stages = new HashMap<>();
+    for (DecodeStage stage : STAGES) {
+      stages.put(stage, stageNanos[stage.ordinal()]);
+    }
+    result.putMetadata(ResultMetadataType.DECODE_STAGE_NANOS, stages);
+    result.putMetadata(ResultMetadataType.DECODING_READER, reader.getClass().getName());
+    result.putMetadata(ResultMetadataType.ROWS_SCANNED, rows);
+    result.putMetadata(ResultMetadataType.ROWS_SKIPPED, skippedRows);
+    result.putMetadata(ResultMetadataType.ERRORS_CORRECTED, errors);
+    result.putMetadata(ResultMetadataType.FINDER_PATTERN_CANDIDATES, candidates);
+  }
+
+  @Override
+  public void stageFinished(DecodeStage stage, long nanos) {
+    stageNanos[stage.ordinal()] += nanos;
+    delegate.stageFinished(stage, nanos);
+  }
+
+  @Override
+  public void readerFinished(Reader reader, boolean decoded, long nanos) {
+    delegate.readerFinished(reader, decoded, nanos);
+  }
+
+  @Override
+  public void rowsScanned(int rows) {
+    this.rows += rows;
+    delegate.rowsScanned(rows);
+  }
+
+  @Override
+  public void rowsSkipped(int rows) {
+    skippedRows += rows;
+    delegate.rowsSkipped(rows);
+  }
+
+  @Override
+  public void errorsCorrected(int errors) {
+    this.errors += errors;
+    delegate.errorsCorrected(errors);
+  }
+
+  @Override
+  public void finderPatternCandidates(int candidates) {
+    this.candidates += candidates;
+    delegate.finderPatternCandidates(candidates);
+  }
+
+}
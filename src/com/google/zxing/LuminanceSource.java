@@ -129,6 +129,23 @@ public abstract class LuminanceSource {
     throw new RuntimeException("This luminance source does not support rotation by 45 degrees.");
   }
 
+  /**
+   * @return Whether this subclass supports downsampling.
+   */
+  public boolean isDownsampleSupported() {
+    return false;
+  }
+
+  /**
+   * Returns a new object with half the width and height, each value being the average of a 2x2
+   * block of this one. Only callable if {@link #isDownsampleSupported()} is true.
+   *
+   * @return A downsampled version of this object.
+   */
+  public LuminanceSource downsample() {
+    throw new RuntimeException("This luminance source does not support downsampling.");
+  }
+
   @Override
   public final String toString() {
     byte[] row = new byte[width];
@@ -17,6 +17,7 @@
 package com.google.zxing;
 
 import com.google.zxing.aztec.AztecReader;
+import com.google.zxing.common.DecodeContext;
 import com.google.zxing.datamatrix.DataMatrixReader;
 import com.google.zxing.maxicode.MaxiCodeReader;
 import com.google.zxing.oned.MultiFormatOneDReader;
@@ -25,6 +26,7 @@ import com.google.zxing.qrcode.QRCodeReader;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -39,8 +41,11 @@ public final class MultiFormatReader implements Reader {
 
   private static final Reader[] EMPTY_READER_ARRAY = new Reader[0];
 
+  private final DecodeContext context = new DecodeContext();
   private Map<DecodeHintType,?> hints;
   private Reader[] readers;
+  private DecodeStatistics statistics;
+  private boolean readsBlackMatrix;
 
   /**
    * This version of decode honors the intent of Reader.decode(BinaryBitmap) in that it
@@ -95,7 +100,25 @@ public final class MultiFormatReader implements Reader {
    * @param hints The set of hints to use for subsequent calls to decode(image)
    */
   public void setHints(Map<DecodeHintType,?> hints) {
-    this.hints = hints;
+    DecodeListener listener = hints == null ? null :
+        (DecodeListener) hints.get(DecodeHintType.DECODE_LISTENER);
+    statistics = listener == null ? null : new DecodeStatistics(listener);
+    if (hints == null || !hints.containsKey(DecodeHintType.DECODE_CONTEXT) || statistics != null) {
+      Map<DecodeHintType,Object> newHints = new HashMap<>();
+      if (hints != null) {
+        newHints.putAll(hints);
+      }
+      if (!newHints.containsKey(DecodeHintType.DECODE_CONTEXT)) {
+        newHints.put(DecodeHintType.DECODE_CONTEXT, context);
+      }
+      if (statistics != null) {
+        // Readers report to the statistics, which pass everything on to the caller's listener
+        newHints.put(DecodeHintType.DECODE_LISTENER, statistics);
+      }
+      this.hints = newHints;
+    } else {
+      this.hints = hints;
+    }
 
     boolean tryHarder = hints != null && hints.containsKey(DecodeHintType.TRY_HARDER);
     @SuppressWarnings("unchecked")
@@ -155,6 +178,22 @@ public final class MultiFormatReader implements Reader {
       }
     }
     this.readers = readers.toArray(EMPTY_READER_ARRAY);
+
+    // 1D readers binarize row by row and report that themselves
+    readsBlackMatrix = false;
+    for (Reader reader : this.readers) {
+      if (!(reader instanceof MultiFormatOneDReader)) {
+        readsBlackMatrix = true;
+      }
+    }
+  }
+
+  /**
+   * @return the scratch buffers this reader reuses across decodes. Its
+   *  {@link DecodeContext#getBinarizerPool() binarizer pool} can recycle the frames' buffers too.
+   */
+  public DecodeContext getDecodeContext() {
+    return context;
   }
 
   @Override
@@ -168,6 +207,9 @@ public final class MultiFormatReader implements Reader {
 
   private Result decodeInternal(BinaryBitmap image) throws NotFoundException {
     if (readers != null) {
+      if (statistics != null) {
+        return decodeWithStatistics(image);
+      }
       for (Reader reader : readers) {
         try {
           return reader.decode(image, hints);
@@ -179,4 +221,30 @@ public final class MultiFormatReader implements Reader {
     throw NotFoundException.getNotFoundInstance();
   }
 
+  private Result decodeWithStatistics(BinaryBitmap image) throws NotFoundException {
+    statistics.reset();
+    if (readsBlackMatrix) {
+      // Binarize up front, so that the time is not charged to whichever reader asks first
+      long start = System.nanoTime();
+      try {
+        image.getBlackMatrix();
+      } catch (NotFoundException nfe) {
+        // the readers will run into it too
+      }
+      statistics.stageFinished(DecodeStage.BINARIZATION, System.nanoTime() - start);
+    }
+    for (Reader reader : readers) {
+      long start = System.nanoTime();
+      try {
+        Result result = reader.decode(image, hints);
+        statistics.readerFinished(reader, true, System.nanoTime() - start);
+        statistics.putMetadata(result, reader);
+        return result;
+      } catch (ReaderException re) {
+        statistics.readerFinished(reader, false, System.nanoTime() - start);
+      }
+    }
+    throw NotFoundException.getNotFoundInstance();
+  }
+
 }
@@ -0,0 +1,310 @@
+/*
+ * Copyright 2009 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing;
+
+/**
+ * This class converts a byte buffer of pixels in one of several common {@link Format}s to
+ * luminance in a single pass, with the same green-favouring weights as
+ * {@link RGBLuminanceSource} but computed with integer shifts only. It can optionally halve the
+ * resolution while converting, averaging each 2x2 block, and write into a caller-supplied buffer
+ * so continuous scanning does not allocate a new plane per frame.
+ *
+ * {@link Format#GRAY8} data that is not subsampled and has no row padding is used as is.
+ */
+public final class PixelBufferLuminanceSource extends LuminanceSource {
+
+  /**
+   * Layout of one pixel in the buffer.
+   */
+  public enum Format {
+    /** One byte of luminance. */
+    GRAY8(1),
+    /** Red, green, blue, one byte each. */
+    RGB888(3),
+    /** Blue, green, red, one byte each. */
+    BGR888(3),
+    /** Red, green, blue, alpha, one byte each. */
+    RGBA8888(4),
+    /** Blue, green, red, alpha, one byte each. */
+    BGRA8888(4),
+    /** Alpha, red, green, blue, one byte each. */
+    ARGB8888(4),
+    /** 5 bits red, 6 green, 5 blue in a little-endian 16-bit value, as on Android. */
+    RGB565(2);
+
+    private final int bytesPerPixel;
+
+    Format(int bytesPerPixel) {
+      this.bytesPerPixel = bytesPerPixel;
+    }
+
+    public int getBytesPerPixel() {
+      return bytesPerPixel;
+    }
+  }
+
+  private final byte[] luminances;
+  private final int dataWidth;
+  private final int dataHeight;
+  private final int left;
+  private final int top;
+
+  /**
+   * @param pixels pixel data, row by row without padding
+   * @param width image width in pixels
+   * @param height image height in pixels
+   * @param format layout of each pixel
+   */
+  public PixelBufferLuminanceSource(byte[] pixels, int width, int height, Format format) {
+    this(pixels, width, height, width * format.getBytesPerPixel(), format, false, null);
+  }
+
+  /**
+   * @param pixels pixel data
+   * @param width image width in pixels
+   * @param height image height in pixels
+   * @param rowStride distance between the starts of two rows, in bytes
+   * @param format layout of each pixel
+   * @param subsample if true, the source is half the width and height of the image, each value
+   *  averaging a 2x2 block of pixels
+   * @param luminanceBuffer optional buffer to convert into. Reuse one across frames to avoid
+   *  allocating. If null or too small, it will be ignored.
+   */
+  public PixelBufferLuminanceSource(byte[] pixels,
+                                    int width,
+                                    int height,
+                                    int rowStride,
+                                    Format format,
+                                    boolean subsample,
+                                    byte[] luminanceBuffer) {
+    super(subsample ? width / 2 : width, subsample ? height / 2 : height);
+    if (rowStride < width * format.getBytesPerPixel() || pixels.length < (height - 1) * rowStride +
+        width * format.getBytesPerPixel()) {
+      throw new IllegalArgumentException("Pixel data does not fit the image size.");
+    }
+
+    int outWidth = getWidth();
+    int outHeight = getHeight();
+    dataWidth = outWidth;
+    dataHeight = outHeight;
+    left = 0;
+    top = 0;
+
+    if (format == Format.GRAY8 && !subsample && rowStride == width) {
+      luminances = pixels;
+      return;
+    }
+    int area = outWidth * outHeight;
+    luminances = luminanceBuffer != null && luminanceBuffer.length >= area ? luminanceBuffer : new byte[area];
+
+    switch (format) {
+      case GRAY8:
+        convertGray(pixels, rowStride, outWidth, outHeight, subsample, luminances);
+        break;
+      case RGB565:
+        convertRGB565(pixels, rowStride, outWidth, outHeight, subsample, luminances);
+        break;
+      case RGB888:
+        convertChannels(pixels, rowStride, 3, 0, 1, 2, outWidth, outHeight, subsample, luminances);
+        break;
+      case BGR888:
+        convertChannels(pixels, rowStride, 3, 2, 1, 0, outWidth, outHeight, subsample, luminances);
+        break;
+      case RGBA8888:
+        convertChannels(pixels, rowStride, 4, 0, 1, 2, outWidth, outHeight, subsample, luminances);
+        break;
+      case BGRA8888:
+        convertChannels(pixels, rowStride, 4, 2, 1, 0, outWidth, outHeight, subsample, luminances);
+        break;
+      case ARGB8888:
+        convertChannels(pixels, rowStride, 4, 1, 2, 3, outWidth, outHeight, subsample, luminances);
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported format: " + format);
+    }
+  }
+
+  private PixelBufferLuminanceSource(byte[] luminances,
+                                     int dataWidth,
+                                     int dataHeight,
+                                     int left,
+                                     int top,
+                                     int width,
+                                     int height) {
+    super(width, height);
+    if (left + width > dataWidth || top + height > dataHeight) {
+      throw new IllegalArgumentException("Crop rectangle does not fit within image data.");
+    }
+    this.luminances = luminances;
+    this.dataWidth = dataWidth;
+    this.dataHeight = dataHeight;
+    this.left = left;
+    this.top = top;
+  }
+
+  private static void convertGray(byte[] pixels,
+                                  int rowStride,
+                                  int width,
+                                  int height,
+                                  boolean subsample,
+                                  byte[] luminances) {
+    for (int y = 0, outputOffset = 0; y < height; y++, outputOffset += width) {
+      if (!subsample) {
+        System.arraycopy(pixels, y * rowStride, luminances, outputOffset, width);
+        continue;
+      }
+      int upper = 2 * y * rowStride;
+      int lower = upper + rowStride;
+      for (int x = 0; x < width; x++, upper += 2, lower += 2) {
+        int sum = (pixels[upper] & 0xFF) + (pixels[upper + 1] & 0xFF)
+            + (pixels[lower] & 0xFF) + (pixels[lower + 1] & 0xFF);
+        luminances[outputOffset + x] = (byte) (sum >> 2);
+      }
+    }
+  }
+
+  /**
+   * Byte-per-channel formats; red, green and blue are at the given offsets within each pixel.
+   */
+  private static void convertChannels(byte[] pixels,
+                                      int rowStride,
+                                      int bytesPerPixel,
+                                      int red,
+                                      int green,
+                                      int blue,
+                                      int width,
+                                      int height,
+                                      boolean subsample,
+                                      byte[] luminances) {
+    for (int y = 0, outputOffset = 0; y < height; y++, outputOffset += width) {
+      if (!subsample) {
+        for (int x = 0, p = y * rowStride; x < width; x++, p += bytesPerPixel) {
+          // r + 2g + b, scaled back to 8 bits
+          int sum = (pixels[p + red] & 0xFF) + ((pixels[p + green] & 0xFF) << 1) + (pixels[p + blue] & 0xFF);
+          luminances[outputOffset + x] = (byte) (sum >> 2);
+        }
+        continue;
+      }
+      int pixelStep = 2 * bytesPerPixel;
+      for (int x = 0, p = 2 * y * rowStride, q = p + rowStride; x < width; x++, p += pixelStep, q += pixelStep) {
+        int p2 = p + bytesPerPixel;
+        int q2 = q + bytesPerPixel;
+        int reds = (pixels[p + red] & 0xFF) + (pixels[p2 + red] & 0xFF)
+            + (pixels[q + red] & 0xFF) + (pixels[q2 + red] & 0xFF);
+        int greens = (pixels[p + green] & 0xFF) + (pixels[p2 + green] & 0xFF)
+            + (pixels[q + green] & 0xFF) + (pixels[q2 + green] & 0xFF);
+        int blues = (pixels[p + blue] & 0xFF) + (pixels[p2 + blue] & 0xFF)
+            + (pixels[q + blue] & 0xFF) + (pixels[q2 + blue] & 0xFF);
+        // Four pixels of r + 2g + b each, scaled back to 8 bits
+        luminances[outputOffset + x] = (byte) ((reds + (greens << 1) + blues) >> 4);
+      }
+    }
+  }
+
+  private static void convertRGB565(byte[] pixels,
+                                    int rowStride,
+                                    int width,
+                                    int height,
+                                    boolean subsample,
+                                    byte[] luminances) {
+    for (int y = 0, outputOffset = 0; y < height; y++, outputOffset += width) {
+      if (!subsample) {
+        for (int x = 0, p = y * rowStride; x < width; x++, p += 2) {
+          luminances[outputOffset + x] = (byte) (weightRGB565(pixels, p) >> 2);
+        }
+        continue;
+      }
+      for (int x = 0, p = 2 * y * rowStride, q = p + rowStride; x < width; x++, p += 4, q += 4) {
+        int sum = weightRGB565(pixels, p) + weightRGB565(pixels, p + 2)
+            + weightRGB565(pixels, q) + weightRGB565(pixels, q + 2);
+        luminances[outputOffset + x] = (byte) (sum >> 4);
+      }
+    }
+  }
+
+  /**
+   * @return r + 2g + b of the RGB565 pixel at the given offset, each channel widened to 8 bits
+   */
+  private static int weightRGB565(byte[] pixels, int offset) {
+    int pixel = (pixels[offset] & 0xFF) | ((pixels[offset + 1] & 0xFF) << 8);
+    int r = (pixel >> 11) & 0x1F;
+    int g = (pixel >> 5) & 0x3F;
+    int b = pixel & 0x1F;
+    return ((r << 3) | (r >> 2)) + (((g << 2) | (g >> 4)) << 1) + ((b << 3) | (b >> 2));
+  }
+
+  @Override
+  public byte[] getRow(int y, byte[] row) {
+    if (y < 0 || y >= getHeight()) {
+      throw new IllegalArgumentException("Requested row is outside the image: " + y);
+    }
+    int width = getWidth();
+    if (row == null || row.length < width) {
+      row = new byte[width];
+    }
+    int offset = (y + top) * dataWidth + left;
+    System.arraycopy(luminances, offset, row, 0, width);
+    return row;
+  }
+
+  @Override
+  public byte[] getMatrix() {
+    int width = getWidth();
+    int height = getHeight();
+
+    // If the caller asks for whole rows from the top of the data, save the copy and give them the
+    // original data. The docs specifically warn that result.length must be ignored.
+    if (width == dataWidth && top == 0) {
+      return luminances;
+    }
+
+    int area = width * height;
+    byte[] matrix = new byte[area];
+    int inputOffset = top * dataWidth + left;
+
+    // If the width matches the full width of the underlying data, perform a single copy.
+    if (width == dataWidth) {
+      System.arraycopy(luminances, inputOffset, matrix, 0, area);
+      return matrix;
+    }
+
+    // Otherwise copy one cropped row at a time.
+    for (int y = 0; y < height; y++) {
+      int outputOffset = y * width;
+      System.arraycopy(luminances, inputOffset, matrix, outputOffset, width);
+      inputOffset += dataWidth;
+    }
+    return matrix;
+  }
+
+  @Override
+  public boolean isCropSupported() {
+    return true;
+  }
+
+  @Override
+  public LuminanceSource crop(int left, int top, int width, int height) {
+    return new PixelBufferLuminanceSource(luminances,
+                                          dataWidth,
+                                          dataHeight,
+                                          this.left + left,
+                                          this.top + top,
+                                          width,
+                                          height);
+  }
+
+}
@@ -79,9 +79,9 @@ public final class PlanarYUVLuminanceSource extends LuminanceSource {
     int width = getWidth();
     int height = getHeight();
 
-    // If the caller asks for the entire underlying image, save the copy and give them the
-    // original data. The docs specifically warn that result.length must be ignored.
-    if (width == dataWidth && height == dataHeight) {
+    // If the caller asks for whole rows from the top of the underlying image, save the copy and
+    // give them the original data. The docs specifically warn that result.length must be ignored.
+    if (width == dataWidth && top == 0) {
       return yuvData;
     }
 
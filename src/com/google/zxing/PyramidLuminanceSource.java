@@ -0,0 +1,107 @@
+/*
+ * Copyright 2009 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing;
+
+/**
+ * A wrapper implementation of {@link LuminanceSource} which adds {@link #downsample()}: each call
+ * returns the next level of a 2x2 box-filtered image pyramid. A level is computed the first time it
+ * is asked for and then kept, so the 2x and 4x levels of a frame are each built at most once no
+ * matter how many readers use them.
+ *
+ * Everything else is passed to the wrapped source, so level 0 costs nothing until it is
+ * downsampled.
+ *
+ * @see CoarseToFineReader
+ */
+public final class PyramidLuminanceSource extends LuminanceSource {
+
+  private final LuminanceSource delegate;
+  private PyramidLuminanceSource next;
+
+  public PyramidLuminanceSource(LuminanceSource delegate) {
+    super(delegate.getWidth(), delegate.getHeight());
+    this.delegate = delegate;
+  }
+
+  @Override
+  public byte[] getRow(int y, byte[] row) {
+    return delegate.getRow(y, row);
+  }
+
+  @Override
+  public byte[] getMatrix() {
+    return delegate.getMatrix();
+  }
+
+  @Override
+  public boolean isCropSupported() {
+    return delegate.isCropSupported();
+  }
+
+  @Override
+  public LuminanceSource crop(int left, int top, int width, int height) {
+    return new PyramidLuminanceSource(delegate.crop(left, top, width, height));
+  }
+
+  @Override
+  public boolean isRotateSupported() {
+    return delegate.isRotateSupported();
+  }
+
+  @Override
+  public LuminanceSource rotateCounterClockwise() {
+    return new PyramidLuminanceSource(delegate.rotateCounterClockwise());
+  }
+
+  @Override
+  public LuminanceSource rotateCounterClockwise45() {
+    return new PyramidLuminanceSource(delegate.rotateCounterClockwise45());
+  }
+
+  @Override
+  public boolean isDownsampleSupported() {
+    return getWidth() >= 2 && getHeight() >= 2;
+  }
+
+  @Override
+  public synchronized PyramidLuminanceSource downsample() {
+    if (next == null) {
+      if (!isDownsampleSupported()) {
+        throw new IllegalStateException("Image is too small to downsample.");
+      }
+      int width = getWidth();
+      int height = getHeight();
+      int halfWidth = width / 2;
+      int halfHeight = height / 2;
+      byte[] matrix = delegate.getMatrix();
+      byte[] half = new byte[halfWidth * halfHeight];
+      for (int y = 0, outputOffset = 0; y < halfHeight; y++, outputOffset += halfWidth) {
+        int top = 2 * y * width;
+        int bottom = top + width;
+        for (int x = 0; x < halfWidth; x++) {
+          int sum = (matrix[top + 2 * x] & 0xFF) + (matrix[top + 2 * x + 1] & 0xFF)
+              + (matrix[bottom + 2 * x] & 0xFF) + (matrix[bottom + 2 * x + 1] & 0xFF);
+          half[outputOffset + x] = (byte) ((sum + 2) >> 2);
+        }
+      }
+      next = new PyramidLuminanceSource(
+          new PlanarYUVLuminanceSource(half, halfWidth, halfHeight, 0, 0, halfWidth, halfHeight, false));
+    }
+    return next;
+  }
+
+}
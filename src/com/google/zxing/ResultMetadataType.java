@@ -94,4 +94,45 @@ public enum ResultMetadataType {
    */
   STRUCTURED_APPEND_PARITY,
 
+  /**
+   * Time spent in each {@link DecodeStage} while decoding the image, summed over all readers
+   * tried. Maps to a {@link java.util.Map} from {@link DecodeStage} to a {@link Long} number of
+   * nanoseconds. Only present when a {@link DecodeHintType#DECODE_LISTENER} was given to
+   * {@link MultiFormatReader}, as are the counters below.
+   */
+  DECODE_STAGE_NANOS,
+
+  /**
+   * Class name of the {@link Reader} that decoded the image. Maps to a {@link String}.
+   */
+  DECODING_READER,
+
+  /**
+   * Number of image rows 1D readers loaded and tried. Maps to an {@link Integer}.
+   */
+  ROWS_SCANNED,
+
+  /**
+   * Number of the rows scanned that 1D readers skipped for having too few bars and spaces to hold
+   * a symbol. Maps to an {@link Integer}.
+   */
+  ROWS_SKIPPED,
+
+  /**
+   * Number of codewords fixed by Reed-Solomon error correction. Maps to an {@link Integer}.
+   */
+  ERRORS_CORRECTED,
+
+  /**
+   * Number of possible QR Code finder patterns found. Maps to an {@link Integer}.
+   */
+  FINDER_PATTERN_CANDIDATES,
+
+  /**
+   * Number of scanned rows that agreed on a 1D result, whenever more than one row had to agree:
+   * when {@link DecodeHintType#ROW_CONSENSUS} asked for more than one, or when
+   * {@link DecodeHintType#SUBPIXEL_EDGES} required two without it. Maps to an {@link Integer}.
+   */
+  ROW_VOTES,
+
 }
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2009 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing;
+
+/**
+ * This object extends LuminanceSource around the Y plane of a camera frame, described the way
+ * camera APIs deliver it: an offset into a buffer, a row stride that may include padding, and a
+ * pixel stride. NV21, NV12 and I420 frames all start with such a plane, so the whole frame buffer
+ * can be passed as is; the chroma planes that follow are never read.
+ *
+ * Nothing is copied unless a reader needs it. {@link #getMatrix()} returns the frame buffer itself
+ * whenever the requested area starts at the beginning of the buffer and spans whole, unpadded
+ * rows. Otherwise the area is copied once, into a caller-supplied buffer if one was given, and
+ * that copy is kept for later calls.
+ *
+ * @see PlanarYUVLuminanceSource
+ */
+public final class StridedYUVLuminanceSource extends LuminanceSource {
+
+  private final byte[] yuvData;
+  private final int dataOffset;
+  private final int rowStride;
+  private final int pixelStride;
+  private final int dataWidth;
+  private final int dataHeight;
+  private final int left;
+  private final int top;
+  private byte[] matrix;
+  private boolean matrixValid;
+
+  /**
+   * Wraps a whole NV21, NV12 or I420 frame whose Y plane has no padding.
+   *
+   * @param yuvData frame buffer, Y plane first
+   * @param dataWidth frame width
+   * @param dataHeight frame height
+   */
+  public StridedYUVLuminanceSource(byte[] yuvData, int dataWidth, int dataHeight) {
+    this(yuvData, 0, dataWidth, 1, dataWidth, dataHeight, 0, 0, dataWidth, dataHeight, null);
+  }
+
+  /**
+   * @param yuvData buffer holding the Y plane
+   * @param dataOffset index of the first Y value in yuvData
+   * @param rowStride distance between the starts of two rows, in bytes
+   * @param pixelStride distance between two Y values of a row, in bytes; 1 for planar and
+   *  semi-planar formats
+   * @param dataWidth frame width
+   * @param dataHeight frame height
+   * @param left left of the area to decode
+   * @param top top of the area to decode
+   * @param width width of the area to decode
+   * @param height height of the area to decode
+   * @param matrixBuffer optional buffer for {@link #getMatrix()} to copy into when it cannot hand
+   *  out yuvData itself. Reuse one across frames to avoid allocating. If null or too small, it is
+   *  ignored.
+   */
+  public StridedYUVLuminanceSource(byte[] yuvData,
+                                   int dataOffset,
+                                   int rowStride,
+                                   int pixelStride,
+                                   int dataWidth,
+                                   int dataHeight,
+                                   int left,
+                                   int top,
+                                   int width,
+                                   int height,
+                                   byte[] matrixBuffer) {
+    super(width, height);
+
+    if (left < 0 || top < 0 || left + width > dataWidth || top + height > dataHeight) {
+      throw new IllegalArgumentException("Crop rectangle does not fit within image data.");
+    }
+    if (pixelStride < 1 || rowStride < (dataWidth - 1) * pixelStride + 1) {
+      throw new IllegalArgumentException("Strides do not fit the image width.");
+    }
+    if (dataOffset < 0 || dataOffset + (dataHeight - 1) * rowStride + (dataWidth - 1) * pixelStride >= yuvData.length) {
+      throw new IllegalArgumentException("Image data is too short.");
+    }
+
+    this.yuvData = yuvData;
+    this.dataOffset = dataOffset;
+    this.rowStride = rowStride;
+    this.pixelStride = pixelStride;
+    this.dataWidth = dataWidth;
+    this.dataHeight = dataHeight;
+    this.left = left;
+    this.top = top;
+    this.matrix = matrixBuffer;
+  }
+
+  @Override
+  public byte[] getRow(int y, byte[] row) {
+    if (y < 0 || y >= getHeight()) {
+      throw new IllegalArgumentException("Requested row is outside the image: " + y);
+    }
+    int width = getWidth();
+    if (row == null || row.length < width) {
+      row = new byte[width];
+    }
+    int offset = dataOffset + (y + top) * rowStride + left * pixelStride;
+    if (pixelStride == 1) {
+      System.arraycopy(yuvData, offset, row, 0, width);
+    } else {
+      for (int x = 0; x < width; x++, offset += pixelStride) {
+        row[x] = yuvData[offset];
+      }
+    }
+    return row;
+  }
+
+  @Override
+  public byte[] getMatrix() {
+    // If the area starts at the beginning of the buffer and its rows are contiguous, save the copy
+    // and give out the original data. The docs specifically warn that result.length must be ignored.
+    if (pixelStride == 1 && rowStride == getWidth() && dataOffset + top * rowStride + left == 0) {
+      return yuvData;
+    }
+    if (!matrixValid) {
+      matrix = getMatrix(matrix);
+      matrixValid = true;
+    }
+    return matrix;
+  }
+
+  /**
+   * Copies the luminance data, laid out as described by {@link #getMatrix()}, into a buffer.
+   *
+   * @param matrix An optional preallocated array. If null or too small, it will be ignored.
+   *               Always use the returned object.
+   * @return An array containing the luminance data.
+   */
+  public byte[] getMatrix(byte[] matrix) {
+    int width = getWidth();
+    int height = getHeight();
+    int area = width * height;
+    if (matrix == null || matrix.length < area) {
+      matrix = new byte[area];
+    }
+    int inputOffset = dataOffset + top * rowStride + left * pixelStride;
+
+    // If rows are contiguous, perform a single copy.
+    if (pixelStride == 1 && rowStride == width) {
+      System.arraycopy(yuvData, inputOffset, matrix, 0, area);
+      return matrix;
+    }
+
+    // Otherwise copy one row at a time.
+    for (int y = 0, outputOffset = 0; y < height; y++, outputOffset += width, inputOffset += rowStride) {
+      if (pixelStride == 1) {
+        System.arraycopy(yuvData, inputOffset, matrix, outputOffset, width);
+      } else {
+        for (int x = 0, offset = inputOffset; x < width; x++, offset += pixelStride) {
+          matrix[outputOffset + x] = yuvData[offset];
+        }
+      }
+    }
+    return matrix;
+  }
+
+  @Override
+  public boolean isCropSupported() {
+    return true;
+  }
+
+  /**
+   * The cropped source does not share this one's matrix buffer, so that neither overwrites data
+   * the other has handed out.
+   */
+  @Override
+  public LuminanceSource crop(int left, int top, int width, int height) {
+    return new StridedYUVLuminanceSource(yuvData,
+                                         dataOffset,
+                                         rowStride,
+                                         pixelStride,
+                                         dataWidth,
+                                         dataHeight,
+                                         this.left + left,
+                                         this.top + top,
+                                         width,
+                                         height,
+                                         null);
+  }
+
+}
@@ -19,6 +19,8 @@ package com.google.zxing.aztec;
 import com.google.zxing.BarcodeFormat;
 import com.google.zxing.BinaryBitmap;
 import com.google.zxing.DecodeHintType;
+import com.google.zxing.DecodeListener;
+import com.google.zxing.DecodeStage;
 import com.google.zxing.FormatException;
 import com.google.zxing.NotFoundException;
 import com.google.zxing.Reader;
@@ -28,6 +30,7 @@ import com.google.zxing.ResultPoint;
 import com.google.zxing.ResultPointCallback;
 import com.google.zxing.aztec.decoder.Decoder;
 import com.google.zxing.aztec.detector.Detector;
+import com.google.zxing.common.DecodeContext;
 import com.google.zxing.common.DecoderResult;
 
 import java.util.List;
@@ -56,15 +59,20 @@ public final class AztecReader implements Reader {
   public Result decode(BinaryBitmap image, Map<DecodeHintType,?> hints)
       throws NotFoundException, FormatException {
 
+    ResultPointCallback rpcb = hints == null ? null :
+        (ResultPointCallback) hints.get(DecodeHintType.NEED_RESULT_POINT_CALLBACK);
     NotFoundException notFoundException = null;
     FormatException formatException = null;
-    Detector detector = new Detector(image.getBlackMatrix());
+    DecodeContext context = hints == null ? null : (DecodeContext) hints.get(DecodeHintType.DECODE_CONTEXT);
+    DecodeListener listener = hints == null ? null : (DecodeListener) hints.get(DecodeHintType.DECODE_LISTENER);
+    Detector detector = new Detector(image.getBlackMatrix(), context);
     ResultPoint[] points = null;
     DecoderResult decoderResult = null;
     try {
-      AztecDetectorResult detectorResult = detector.detect(false);
+      AztecDetectorResult detectorResult = detect(detector, false, listener);
       points = detectorResult.getPoints();
-      decoderResult = new Decoder().decode(detectorResult);
+      reportPoints(points, rpcb);
+      decoderResult = new Decoder().decode(detectorResult, listener);
     } catch (NotFoundException e) {
       notFoundException = e;
     } catch (FormatException e) {
@@ -72,9 +80,10 @@ public final class AztecReader implements Reader {
     }
     if (decoderResult == null) {
       try {
-        AztecDetectorResult detectorResult = detector.detect(true);
+        AztecDetectorResult detectorResult = detect(detector, true, listener);
         points = detectorResult.getPoints();
-        decoderResult = new Decoder().decode(detectorResult);
+        reportPoints(points, rpcb);
+        decoderResult = new Decoder().decode(detectorResult, listener);
       } catch (NotFoundException | FormatException e) {
         if (notFoundException != null) {
           throw notFoundException;
@@ -86,15 +95,6 @@ public final class AztecReader implements Reader {
       }
     }
 
-    if (hints != null) {
-      ResultPointCallback rpcb = (ResultPointCallback) hints.get(DecodeHintType.NEED_RESULT_POINT_CALLBACK);
-      if (rpcb != null) {
-        for (ResultPoint point : points) {
-          rpcb.foundPossibleResultPoint(point);
-        }
-      }
-    }
-
     Result result = new Result(decoderResult.getText(),
                                decoderResult.getRawBytes(),
                                decoderResult.getNumBits(),
@@ -119,4 +119,25 @@ public final class AztecReader implements Reader {
     // do nothing
   }
 
+  // Reported as soon as the symbol is located, so callers learn where it is even if decoding fails
+  private static void reportPoints(ResultPoint[] points, ResultPointCallback rpcb) {
+    if (rpcb != null) {
+      for (ResultPoint point : points) {
+        rpcb.foundPossibleResultPoint(point);
+      }
+    }
+  }
+
+  private static AztecDetectorResult detect(Detector detector, boolean isMirror, DecodeListener listener)
+      throws NotFoundException {
+    long start = listener == null ? 0L : System.nanoTime();
+    try {
+      return detector.detect(isMirror);
+    } finally {
+      if (listener != null) {
+        listener.stageFinished(DecodeStage.DETECTION, System.nanoTime() - start);
+      }
+    }
+  }
+
 }
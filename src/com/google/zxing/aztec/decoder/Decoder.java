@@ -16,6 +16,8 @@
 
 package com.google.zxing.aztec.decoder;
 
+import com.google.zxing.DecodeListener;
+import com.google.zxing.DecodeStage;
 import com.google.zxing.FormatException;
 import com.google.zxing.aztec.AztecDetectorResult;
 import com.google.zxing.common.BitMatrix;
@@ -69,16 +71,49 @@ public final class Decoder {
   };
 
   private AztecDetectorResult ddata;
+  private int errorsCorrected;
 
   public DecoderResult decode(AztecDetectorResult detectorResult) throws FormatException {
+    return decode(detectorResult, null);
+  }
+
+  /**
+   * @param detectorResult the located symbol
+   * @param listener told how long error correction and bit-stream parsing took; may be null
+   * @return text and bytes encoded within the Aztec Code
+   * @throws FormatException if the Aztec Code cannot be decoded
+   */
+  public DecoderResult decode(AztecDetectorResult detectorResult, DecodeListener listener) throws FormatException {
     ddata = detectorResult;
     BitMatrix matrix = detectorResult.getBits();
     boolean[] rawbits = extractBits(matrix);
-    boolean[] correctedBits = correctBits(rawbits);
-    byte[] rawBytes = convertBoolArrayToByteArray(correctedBits);
-    String result = getEncodedData(correctedBits);
+    long start = listener == null ? 0L : System.nanoTime();
+    boolean[] correctedBits;
+    try {
+      correctedBits = correctBits(rawbits);
+    } finally {
+      if (listener != null) {
+        long end = System.nanoTime();
+        listener.stageFinished(DecodeStage.ERROR_CORRECTION, end - start);
+        start = end;
+      }
+    }
+    if (listener != null) {
+      listener.errorsCorrected(errorsCorrected);
+    }
+    byte[] rawBytes;
+    String result;
+    try {
+      rawBytes = convertBoolArrayToByteArray(correctedBits);
+      result = getEncodedData(correctedBits);
+    } finally {
+      if (listener != null) {
+        listener.stageFinished(DecodeStage.BIT_STREAM_PARSING, System.nanoTime() - start);
+      }
+    }
     DecoderResult decoderResult = new DecoderResult(rawBytes, result, null, null);
     decoderResult.setNumBits(correctedBits.length);
+    decoderResult.setErrorsCorrected(errorsCorrected);
     return decoderResult;
   }
 
@@ -234,7 +269,7 @@ public final class Decoder {
 
     try {
       ReedSolomonDecoder rsDecoder = new ReedSolomonDecoder(gf);
-      rsDecoder.decode(dataWords, numCodewords - numDataCodewords);
+      errorsCorrected = rsDecoder.decodeWithECCount(dataWords, numCodewords - numDataCodewords);
     } catch (ReedSolomonException ex) {
       throw FormatException.getFormatInstance(ex);
     }
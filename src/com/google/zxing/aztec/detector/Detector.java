@@ -20,7 +20,9 @@ import com.google.zxing.NotFoundException;
 import com.google.zxing.ResultPoint;
 import com.google.zxing.aztec.AztecDetectorResult;
 import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.DecodeContext;
 import com.google.zxing.common.GridSampler;
+import com.google.zxing.common.PerspectiveTransform;
 import com.google.zxing.common.detector.MathUtils;
 import com.google.zxing.common.detector.WhiteRectangleDetector;
 import com.google.zxing.common.reedsolomon.GenericGF;
@@ -44,6 +46,7 @@ public final class Detector {
   };
 
   private final BitMatrix image;
+  private final DecodeContext context;
 
   private boolean compact;
   private int nbLayers;
@@ -52,7 +55,17 @@ public final class Detector {
   private int shift;
 
   public Detector(BitMatrix image) {
+    this(image, null);
+  }
+
+  /**
+   * @param image binarized image to search
+   * @param context scratch buffers to sample the symbol into, or null to allocate. The detected
+   *  bits then belong to the context and are overwritten by the next detection.
+   */
+  public Detector(BitMatrix image, DecodeContext context) {
     this.image = image;
+    this.context = context;
   }
 
   public AztecDetectorResult detect() throws NotFoundException {
@@ -376,17 +389,17 @@ public final class Detector {
     float low = dimension / 2.0f - nbCenterLayers;
     float high = dimension / 2.0f + nbCenterLayers;
 
-    return sampler.sampleGrid(image,
-                              dimension,
-                              dimension,
-                              low, low,   // topleft
-                              high, low,  // topright
-                              high, high, // bottomright
-                              low, high,  // bottomleft
-                              topLeft.getX(), topLeft.getY(),
-                              topRight.getX(), topRight.getY(),
-                              bottomRight.getX(), bottomRight.getY(),
-                              bottomLeft.getX(), bottomLeft.getY());
+    PerspectiveTransform transform = PerspectiveTransform.quadrilateralToQuadrilateral(
+        low, low,   // topleft
+        high, low,  // topright
+        high, high, // bottomright
+        low, high,  // bottomleft
+        topLeft.getX(), topLeft.getY(),
+        topRight.getX(), topRight.getY(),
+        bottomRight.getX(), bottomRight.getY(),
+        bottomLeft.getX(), bottomLeft.getY());
+
+    return sampler.sampleGrid(image, dimension, dimension, transform, context);
   }
 
   /**
@@ -190,6 +190,79 @@ public final class BitMatrix implements Cloneable {
         bits[offset] |= 1 << (x & 0x1f);
     }
 
+    /**
+     * <p>
+     * Sets the bits of one 32-bit word of a row in a single write. Bits
+     * already set are kept, as with {@link #set(int, int)}.
+     * </p>
+     *
+     * @param y The row
+     * @param wordIndex Which word of the row, covering columns
+     * {@code [32 * wordIndex, 32 * wordIndex + 31]}
+     * @param newBits Bits to set; the least-significant bit is column
+     * {@code 32 * wordIndex}
+     */
+    public void setRowBits(int y, int wordIndex, int newBits) {
+        bits[y * rowSize + wordIndex] |= newBits;
+    }
+
+    /**
+     * <p>
+     * Finds the next set bit in a row, looking at 32 bits at a time, like
+     * {@link BitArray#getNextSet(int)}.
+     * </p>
+     *
+     * @param x The column to start looking from
+     * @param y The row
+     * @return column of the next set bit at or after x, or the width if there
+     * is none
+     * @see #getNextUnset(int, int)
+     */
+    public int getNextSet(int x, int y) {
+        if (x >= width) {
+            return width;
+        }
+        int rowOffset = y * rowSize;
+        int wordIndex = x / 32;
+        int currentBits = bits[rowOffset + wordIndex];
+        // mask off lesser bits first
+        currentBits &= -(1 << (x & 0x1f));
+        while (currentBits == 0) {
+            if (++wordIndex == rowSize) {
+                return width;
+            }
+            currentBits = bits[rowOffset + wordIndex];
+        }
+        int result = (wordIndex * 32) + j2me.lang.IntegerMethods.numberOfTrailingZeros(currentBits);
+        return result > width ? width : result;
+    }
+
+    /**
+     * @param x The column to start looking from
+     * @param y The row
+     * @return column of the next unset bit at or after x, or the width if
+     * there is none
+     * @see #getNextSet(int, int)
+     */
+    public int getNextUnset(int x, int y) {
+        if (x >= width) {
+            return width;
+        }
+        int rowOffset = y * rowSize;
+        int wordIndex = x / 32;
+        int currentBits = ~bits[rowOffset + wordIndex];
+        // mask off lesser bits first
+        currentBits &= -(1 << (x & 0x1f));
+        while (currentBits == 0) {
+            if (++wordIndex == rowSize) {
+                return width;
+            }
+            currentBits = ~bits[rowOffset + wordIndex];
+        }
+        int result = (wordIndex * 32) + j2me.lang.IntegerMethods.numberOfTrailingZeros(currentBits);
+        return result > width ? width : result;
+    }
+
     public void unset(int x, int y) {
         int offset = y * rowSize + (x / 32);
         bits[offset] &= ~(1 << (x & 0x1f));
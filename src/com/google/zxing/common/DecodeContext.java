@@ -0,0 +1,113 @@
+/*
+ * Copyright 2009 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common;
+
+import com.google.zxing.ResultPoint;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scratch buffers that readers can reuse from one frame to the next instead of allocating them
+ * per decode. Each buffer is sized to the last request and only reallocated when the size
+ * changes, so a continuous scan of one symbol at one camera resolution settles into reusing the
+ * same objects.
+ *
+ * A context is passed to readers with {@link com.google.zxing.DecodeHintType#DECODE_CONTEXT}.
+ * {@link com.google.zxing.MultiFormatReader} keeps one for its whole life and adds it to the hints
+ * by itself. A buffer handed out is only valid until the next request for the same kind of
+ * buffer, so a context must not be shared by decodes running at the same time.
+ *
+ * <p>Covered are the 1D row, the grid sampler's points and sampled matrix, and the list the QR Code
+ * finder pattern search collects candidates in. Some stages are left out on purpose:</p>
+ * <ul>
+ * <li>The binarizer is chosen by whoever builds the {@link com.google.zxing.BinaryBitmap}, not by
+ * {@link com.google.zxing.MultiFormatReader}, so this context can only offer its
+ * {@link #getBinarizerPool() pool} for the caller to build an {@link IntegralHybridBinarizer}
+ * with.</li>
+ * <li>The Data Matrix and Aztec detectors keep their few points in locals and collect no lists,
+ * and a QR Code alignment pattern search keeps at most a handful of candidates.</li>
+ * <li>What the bit-stream parsers produce, such as text and byte segments, ends up in the
+ * {@link com.google.zxing.Result}, which the caller may keep.</li>
+ * </ul>
+ *
+ * @see IntegralHybridBinarizer.Pool
+ */
+public final class DecodeContext {
+
+  private final IntegralHybridBinarizer.Pool binarizerPool = new IntegralHybridBinarizer.Pool();
+  private BitArray row;
+  private float[] points;
+  private BitMatrix sampledMatrix;
+  private final List<ResultPoint> candidates = new ArrayList<>();
+
+  /**
+   * @return buffers for binarizing frames with {@link IntegralHybridBinarizer}, shared by every
+   *  frame decoded with this context
+   */
+  public IntegralHybridBinarizer.Pool getBinarizerPool() {
+    return binarizerPool;
+  }
+
+  /**
+   * @param size number of bits
+   * @return a row of exactly this size, for {@link com.google.zxing.Binarizer#getBlackRow}, which
+   *  clears it
+   */
+  public BitArray getRow(int size) {
+    if (row == null || row.getSize() != size) {
+      row = new BitArray(size);
+    }
+    return row;
+  }
+
+  /**
+   * @param length number of coordinates
+   * @return an array of exactly this length, with undefined contents
+   */
+  public float[] getPoints(int length) {
+    if (points == null || points.length != length) {
+      points = new float[length];
+    }
+    return points;
+  }
+
+  /**
+   * @param width matrix width
+   * @param height matrix height
+   * @return a cleared matrix of exactly this size, for a {@link GridSampler} to sample into
+   */
+  public BitMatrix getSampledMatrix(int width, int height) {
+    if (sampledMatrix == null || sampledMatrix.getWidth() != width || sampledMatrix.getHeight() != height) {
+      sampledMatrix = new BitMatrix(width, height);
+    } else {
+      sampledMatrix.clear();
+    }
+    return sampledMatrix;
+  }
+
+  /**
+   * @return the list for a detector to collect candidate patterns in, emptied. Only one detector
+   *  may use it at a time, and the patterns in it must all be of the type it is taken as.
+   */
+  @SuppressWarnings("unchecked")
+  public <T extends ResultPoint> List<T> getCandidates() {
+    candidates.clear();
+    return (List<T>) (List<?>) candidates;
+  }
+
+}
@@ -48,11 +48,27 @@ public final class DefaultGridSampler extends GridSampler {
                               int dimensionX,
                               int dimensionY,
                               PerspectiveTransform transform) throws NotFoundException {
+    return sampleGrid(image, dimensionX, dimensionY, transform, null);
+  }
+
+  @Override
+  public BitMatrix sampleGrid(BitMatrix image,
+                              int dimensionX,
+                              int dimensionY,
+                              PerspectiveTransform transform,
+                              DecodeContext context) throws NotFoundException {
     if (dimensionX <= 0 || dimensionY <= 0) {
       throw NotFoundException.getNotFoundInstance();
     }
-    BitMatrix bits = new BitMatrix(dimensionX, dimensionY);
-    float[] points = new float[2 * dimensionX];
+    BitMatrix bits;
+    float[] points;
+    if (context == null) {
+      bits = new BitMatrix(dimensionX, dimensionY);
+      points = new float[2 * dimensionX];
+    } else {
+      bits = context.getSampledMatrix(dimensionX, dimensionY);
+      points = context.getPoints(2 * dimensionX);
+    }
     for (int y = 0; y < dimensionY; y++) {
       int max = points.length;
       float iValue = y + 0.5f;
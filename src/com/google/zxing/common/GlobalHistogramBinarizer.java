@@ -50,17 +50,32 @@ public class GlobalHistogramBinarizer extends Binarizer {
   // Applies simple sharpening to the row data to improve performance of the 1D Readers.
   @Override
   public BitArray getBlackRow(int y, BitArray row) throws NotFoundException {
-    LuminanceSource source = getLuminanceSource();
-    int width = source.getWidth();
+    int width = getLuminanceSource().getWidth();
+    initArrays(width);
+    return getBlackRow(getLuminanceSource().getRow(y, luminances), width, row);
+  }
+
+  /**
+   * Thresholds a row of pixels that does not come from this binarizer's source, such as one
+   * sampled along a line at an angle, the same way as {@link #getBlackRow(int, BitArray)}.
+   *
+   * @param localLuminances luminance of each pixel in the row
+   * @param width number of pixels in the row
+   * @param row an optional preallocated array, used if it holds at least width bits
+   * @return the row, thresholded
+   * @throws NotFoundException if the row has too little contrast to threshold
+   */
+  public BitArray getBlackRow(byte[] localLuminances, int width, BitArray row) throws NotFoundException {
     if (row == null || row.getSize() < width) {
       row = new BitArray(width);
     } else {
       row.clear();
     }
 
-    initArrays(width);
-    byte[] localLuminances = source.getRow(y, luminances);
     int[] localBuckets = buckets;
+    for (int x = 0; x < LUMINANCE_BUCKETS; x++) {
+      localBuckets[x] = 0;
+    }
     for (int x = 0; x < width; x++) {
       localBuckets[(localLuminances[x] & 0xff) >> LUMINANCE_SHIFT]++;
     }
@@ -116,12 +131,18 @@ public class GlobalHistogramBinarizer extends Binarizer {
     // Although we end up reading four rows twice, it is consistent with our motto of
     // "fail quickly" which is necessary for continuous scanning.
     byte[] localLuminances = source.getMatrix();
+    // Build 32 pixels at a time into one word so each word of the matrix is written once.
     for (int y = 0; y < height; y++) {
       int offset = y * width;
-      for (int x = 0; x < width; x++) {
-        int pixel = localLuminances[offset + x] & 0xff;
-        if (pixel < blackPoint) {
-          matrix.set(x, y);
+      for (int x = 0, word = 0; x < width; x += 32, word++) {
+        int end = x + 32 < width ? x + 32 : width;
+        int bits = 0;
+        for (int xx = x; xx < end; xx++) {
+          // The sign bit of (pixel - blackPoint) is set exactly when pixel < blackPoint
+          bits |= (((localLuminances[offset + xx] & 0xff) - blackPoint) >>> 31) << (xx & 0x1f);
+        }
+        if (bits != 0) {
+          matrix.setRowBits(y, word, bits);
         }
       }
     }
@@ -101,6 +101,21 @@ public abstract class GridSampler {
                                        int dimensionY,
                                        PerspectiveTransform transform) throws NotFoundException;
 
+  /**
+   * Like {@link #sampleGrid(BitMatrix, int, int, PerspectiveTransform)}, but may take its buffers
+   * and the returned {@link BitMatrix} from a {@link DecodeContext}, which then owns them. This
+   * implementation ignores the context; subclasses that can reuse buffers should override it.
+   *
+   * @param context scratch buffers to use, or null to allocate
+   */
+  public BitMatrix sampleGrid(BitMatrix image,
+                              int dimensionX,
+                              int dimensionY,
+                              PerspectiveTransform transform,
+                              DecodeContext context) throws NotFoundException {
+    return sampleGrid(image, dimensionX, dimensionY, transform);
+  }
+
   /**
    * <p>Checks a set of points that have been transformed to sample points on an image against
    * the image's dimensions to see if the point are even within the image.</p>
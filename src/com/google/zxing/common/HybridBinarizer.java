@@ -108,6 +108,7 @@ public final class HybridBinarizer extends GlobalHistogramBinarizer {
 			int height, int[][] blackPoints, BitMatrix matrix) {
 		int maxYOffset = height - BLOCK_SIZE;
 		int maxXOffset = width - BLOCK_SIZE;
+		int[] thresholds = new int[width];
 		for (int y = 0; y < subHeight; y++) {
 			int yoffset = y << BLOCK_SIZE_POWER;
 			if (yoffset > maxYOffset) {
@@ -127,8 +128,9 @@ public final class HybridBinarizer extends GlobalHistogramBinarizer {
 							+ blackRow[left + 2];
 				}
 				int average = sum / 25;
-				thresholdBlock(luminances, xoffset, yoffset, average, width, matrix);
+				setBlockThreshold(thresholds, x, xoffset, average);
 			}
+			thresholdRows(luminances, yoffset, width, thresholds, matrix);
 		}
 	}
 
@@ -137,16 +139,36 @@ public final class HybridBinarizer extends GlobalHistogramBinarizer {
 	}
 
 	/**
-	 * Applies a single threshold to a block of pixels.
+	 * Records the threshold of block x for each pixel column it covers. The last
+	 * block of a row may be shifted left to fit and overlap its neighbour; a pixel
+	 * covered by both is black if either threshold says so, which is the larger
+	 * threshold.
 	 */
-	private static void thresholdBlock(byte[] luminances, int xoffset, int yoffset, int threshold, int stride,
-			BitMatrix matrix) {
-		for (int y = 0, offset = yoffset * stride + xoffset; y < BLOCK_SIZE; y++, offset += stride) {
-			for (int x = 0; x < BLOCK_SIZE; x++) {
-				// Comparison needs to be <= so that black == 0 pixels are black even if the
-				// threshold is 0.
-				if ((luminances[offset + x] & 0xFF) <= threshold) {
-					matrix.set(xoffset + x, yoffset + y);
+	static void setBlockThreshold(int[] thresholds, int x, int xoffset, int threshold) {
+		int overlapEnd = x << BLOCK_SIZE_POWER;
+		for (int i = xoffset, end = xoffset + BLOCK_SIZE; i < end; i++) {
+			thresholds[i] = i < overlapEnd && thresholds[i] > threshold ? thresholds[i] : threshold;
+		}
+	}
+
+	/**
+	 * Applies per-column thresholds to the BLOCK_SIZE pixel rows starting at
+	 * yoffset, building 32 pixels into one int and writing each word of the matrix
+	 * once. Bits are or-ed in, so rows shared by two overlapping block rows end up
+	 * black if either block row thresholds them black.
+	 */
+	static void thresholdRows(byte[] luminances, int yoffset, int width, int[] thresholds, BitMatrix matrix) {
+		for (int y = yoffset, offset = yoffset * width; y < yoffset + BLOCK_SIZE; y++, offset += width) {
+			for (int x = 0, word = 0; x < width; x += 32, word++) {
+				int end = x + 32 < width ? x + 32 : width;
+				int bits = 0;
+				for (int xx = x; xx < end; xx++) {
+					// Comparison needs to be <= so that black == 0 pixels are black even if the
+					// threshold is 0: the sign bit of (threshold - pixel) is clear exactly then.
+					bits |= (~(thresholds[xx] - (luminances[offset + xx] & 0xFF)) >>> 31) << (xx & 0x1f);
+				}
+				if (bits != 0) {
+					matrix.setRowBits(y, word, bits);
 				}
 			}
 		}
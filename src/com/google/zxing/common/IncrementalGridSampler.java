@@ -0,0 +1,219 @@
+/*
+ * Copyright 2007 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common;
+
+import com.google.zxing.NotFoundException;
+
+/**
+ * A {@link GridSampler} that transforms and samples each module in one pass, to be installed with
+ * {@link GridSampler#setGridSampler(GridSampler)}.
+ *
+ * <p>Along a row of modules, the numerators and the denominator of the perspective transform
+ * change by a constant amount per module, so they are stepped rather than computed from scratch,
+ * and no array of points is filled in between. When the transform is affine along rows, as when
+ * no alignment pattern was found, the division is done once per row instead of per module.</p>
+ *
+ * <p>Bounds are checked once for the whole grid. As long as the denominator keeps one sign over
+ * the grid, the transform maps it onto the quadrilateral between its transformed corners, so if
+ * the corners are in the image, so is every module. A transform that changes sign within the grid
+ * is the "twisted" kind that {@link DefaultGridSampler} can only catch by running off the image.
+ * Codes reaching up to a pixel past the border are sampled with coordinates clamped to the image,
+ * as {@link #checkAndNudgePoints(BitMatrix, float[])} allows.</p>
+ *
+ * <p>Optionally, each module is read as the majority of five pixels: its centre and the pixels a
+ * quarter of a module away from it on either side, horizontally and vertically. One stray pixel
+ * from noise or from binarizing near an edge then no longer flips the module. Modules less than
+ * four pixels across are read from their centre alone.</p>
+ */
+public final class IncrementalGridSampler extends GridSampler {
+
+  private final boolean majority;
+
+  public IncrementalGridSampler() {
+    this(false);
+  }
+
+  /**
+   * @param majority true to read each module as the majority of five pixels around its centre,
+   *  rather than as the one pixel at its centre
+   */
+  public IncrementalGridSampler(boolean majority) {
+    this.majority = majority;
+  }
+
+  @Override
+  public BitMatrix sampleGrid(BitMatrix image,
+                              int dimensionX,
+                              int dimensionY,
+                              float p1ToX, float p1ToY,
+                              float p2ToX, float p2ToY,
+                              float p3ToX, float p3ToY,
+                              float p4ToX, float p4ToY,
+                              float p1FromX, float p1FromY,
+                              float p2FromX, float p2FromY,
+                              float p3FromX, float p3FromY,
+                              float p4FromX, float p4FromY) throws NotFoundException {
+
+    PerspectiveTransform transform = PerspectiveTransform.quadrilateralToQuadrilateral(
+        p1ToX, p1ToY, p2ToX, p2ToY, p3ToX, p3ToY, p4ToX, p4ToY,
+        p1FromX, p1FromY, p2FromX, p2FromY, p3FromX, p3FromY, p4FromX, p4FromY);
+
+    return sampleGrid(image, dimensionX, dimensionY, transform);
+  }
+
+  @Override
+  public BitMatrix sampleGrid(BitMatrix image,
+                              int dimensionX,
+                              int dimensionY,
+                              PerspectiveTransform transform) throws NotFoundException {
+    return sampleGrid(image, dimensionX, dimensionY, transform, null);
+  }
+
+  @Override
+  public BitMatrix sampleGrid(BitMatrix image,
+                              int dimensionX,
+                              int dimensionY,
+                              PerspectiveTransform transform,
+                              DecodeContext context) throws NotFoundException {
+    if (dimensionX <= 0 || dimensionY <= 0) {
+      throw NotFoundException.getNotFoundInstance();
+    }
+    int width = image.getWidth();
+    int height = image.getHeight();
+    float a11 = transform.a11;
+    float a12 = transform.a12;
+    float a13 = transform.a13;
+    float a21 = transform.a21;
+    float a22 = transform.a22;
+    float a23 = transform.a23;
+    float a31 = transform.a31;
+    float a32 = transform.a32;
+    float a33 = transform.a33;
+
+    // Centres of the corner modules, and where they land in the image
+    float minU = 0.5f;
+    float maxU = dimensionX - 0.5f;
+    float minV = 0.5f;
+    float maxV = dimensionY - 0.5f;
+    float[] corners = {minU, minV, maxU, minV, maxU, maxV, minU, maxV};
+    float sign = a13 * minU + a23 * minV + a33;
+    for (int i = 0; i < corners.length; i += 2) {
+      float u = corners[i];
+      float v = corners[i + 1];
+      float denominator = a13 * u + a23 * v + a33;
+      if (!(denominator * sign > 0.0f)) {
+        throw NotFoundException.getNotFoundInstance();
+      }
+      corners[i] = (a11 * u + a21 * v + a31) / denominator;
+      corners[i + 1] = (a12 * u + a22 * v + a32) / denominator;
+    }
+
+    int radius = 0;
+    if (majority) {
+      // A quarter of the average distance between module centres along the edges
+      float top = distance(corners, 0, 2) / Math.max(1, dimensionX - 1);
+      float bottom = distance(corners, 6, 4) / Math.max(1, dimensionX - 1);
+      float left = distance(corners, 0, 6) / Math.max(1, dimensionY - 1);
+      float right = distance(corners, 2, 4) / Math.max(1, dimensionY - 1);
+      radius = (int) ((top + bottom + left + right) / 16.0f);
+      radius = Math.min(radius, (Math.min(width, height) - 1) / 2);
+    }
+
+    boolean clamp = false;
+    for (int i = 0; i < corners.length; i += 2) {
+      float x = corners[i];
+      float y = corners[i + 1];
+      // Like checkAndNudgePoints, allow the code to reach a pixel past the border
+      if (!(x > -2.0f && x < width + 1 && y > -2.0f && y < height + 1)) {
+        throw NotFoundException.getNotFoundInstance();
+      }
+      // Stepping rounds differently than transforming a corner, so leave a pixel to spare
+      if (x < radius + 1 || x >= width - radius - 1 || y < radius + 1 || y >= height - radius - 1) {
+        clamp = true;
+      }
+    }
+    int minX = radius;
+    int maxX = width - 1 - radius;
+    int minY = radius;
+    int maxY = height - 1 - radius;
+
+    BitMatrix bits = context == null ?
+        new BitMatrix(dimensionX, dimensionY) : context.getSampledMatrix(dimensionX, dimensionY);
+    // Affine along rows: the denominator is the same for the whole row
+    boolean affine = a13 == 0.0f;
+    for (int y = 0; y < dimensionY; y++) {
+      float v = y + 0.5f;
+      float xNumerator = a11 * minU + a21 * v + a31;
+      float yNumerator = a12 * minU + a22 * v + a32;
+      float denominator = a13 * minU + a23 * v + a33;
+      float scale = 1.0f / denominator;
+      // Modules are collected a word of the row at a time
+      int word = 0;
+      for (int x = 0; x < dimensionX; x++) {
+        if (!affine) {
+          scale = 1.0f / denominator;
+        }
+        int imageX = (int) (xNumerator * scale);
+        int imageY = (int) (yNumerator * scale);
+        if (clamp) {
+          imageX = Math.max(minX, Math.min(maxX, imageX));
+          imageY = Math.max(minY, Math.min(maxY, imageY));
+        }
+        boolean black;
+        if (radius == 0) {
+          black = image.get(imageX, imageY);
+        } else {
+          int count = 0;
+          if (image.get(imageX, imageY)) {
+            count++;
+          }
+          if (image.get(imageX - radius, imageY)) {
+            count++;
+          }
+          if (image.get(imageX + radius, imageY)) {
+            count++;
+          }
+          if (image.get(imageX, imageY - radius)) {
+            count++;
+          }
+          if (image.get(imageX, imageY + radius)) {
+            count++;
+          }
+          black = count >= 3;
+        }
+        if (black) {
+          word |= 1 << (x & 0x1f);
+        }
+        if ((x & 0x1f) == 0x1f || x == dimensionX - 1) {
+          bits.setRowBits(y, x >> 5, word);
+          word = 0;
+        }
+        xNumerator += a11;
+        yNumerator += a12;
+        denominator += a13;
+      }
+    }
+    return bits;
+  }
+
+  private static float distance(float[] points, int from, int to) {
+    float dx = points[to] - points[from];
+    float dy = points[to + 1] - points[from + 1];
+    return (float) Math.sqrt(dx * dx + dy * dy);
+  }
+
+}
@@ -0,0 +1,327 @@
+/*
+ * Copyright 2009 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common;
+
+import com.google.zxing.Binarizer;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.NotFoundException;
+
+/**
+ * A variant of {@link HybridBinarizer} for continuous scanning. It produces exactly the same
+ * {@link BitMatrix}, but the 5x5 neighbourhood average of block black points is read from a
+ * summed-area table instead of re-adding 25 blocks per block, and the block table, the summed-area
+ * table and the output matrix can be recycled between frames of the same size through a
+ * {@link Pool}.
+ *
+ * When a {@link Pool} is used, call {@link #release()} once the frame has been fully decoded. The
+ * matrix returned by {@link #getBlackMatrix()} is reused by a later frame and must not be touched
+ * after that.
+ */
+public final class IntegralHybridBinarizer extends GlobalHistogramBinarizer {
+
+  private static final int BLOCK_SIZE_POWER = 3;
+  private static final int BLOCK_SIZE = 1 << BLOCK_SIZE_POWER;
+  private static final int BLOCK_SIZE_MASK = BLOCK_SIZE - 1;
+  private static final int MINIMUM_DIMENSION = BLOCK_SIZE * 5;
+  private static final int MIN_DYNAMIC_RANGE = 24;
+
+  private final Pool pool;
+  private Buffers buffers;
+  private BitMatrix matrix;
+
+  public IntegralHybridBinarizer(LuminanceSource source) {
+    this(source, null);
+  }
+
+  /**
+   * @param source luminance data of the frame
+   * @param pool where to take buffers from and give them back to on {@link #release()}; may be null
+   */
+  public IntegralHybridBinarizer(LuminanceSource source, Pool pool) {
+    super(source);
+    this.pool = pool;
+  }
+
+  @Override
+  public BitMatrix getBlackMatrix() throws NotFoundException {
+    if (matrix != null) {
+      return matrix;
+    }
+    LuminanceSource source = getLuminanceSource();
+    int width = source.getWidth();
+    int height = source.getHeight();
+    if (width >= MINIMUM_DIMENSION && height >= MINIMUM_DIMENSION) {
+      byte[] luminances = source.getMatrix();
+      int subWidth = width >> BLOCK_SIZE_POWER;
+      if ((width & BLOCK_SIZE_MASK) != 0) {
+        subWidth++;
+      }
+      int subHeight = height >> BLOCK_SIZE_POWER;
+      if ((height & BLOCK_SIZE_MASK) != 0) {
+        subHeight++;
+      }
+      if (buffers == null) {
+        buffers = pool == null ? new Buffers(width, height) : pool.take(width, height);
+      }
+      int[] blackPoints = buffers.blackPoints;
+      int[] integral = buffers.integral;
+      calculateBlackPoints(luminances, subWidth, subHeight, width, height, blackPoints);
+      calculateIntegral(blackPoints, subWidth, subHeight, integral);
+      BitMatrix newMatrix = buffers.matrix;
+      calculateThresholdForBlock(luminances, subWidth, subHeight, width, height, integral, buffers.thresholds,
+          newMatrix);
+      matrix = newMatrix;
+    } else {
+      // If the image is too small, fall back to the global histogram approach.
+      matrix = super.getBlackMatrix();
+    }
+    return matrix;
+  }
+
+  @Override
+  public Binarizer createBinarizer(LuminanceSource source) {
+    return new IntegralHybridBinarizer(source, pool);
+  }
+
+  /**
+   * Gives this binarizer's buffers back to its {@link Pool}, if any. The binarizer recomputes from
+   * scratch if used again afterwards.
+   */
+  public void release() {
+    if (buffers != null && pool != null) {
+      pool.give(buffers);
+    }
+    buffers = null;
+    matrix = null;
+  }
+
+  /**
+   * Builds the summed-area table of the black points, with an extra leading row and column of
+   * zeros so that {@code integral[(y + 1) * (subWidth + 1) + x + 1]} is the sum of all blocks in
+   * {@code [0,x] x [0,y]}.
+   */
+  private static void calculateIntegral(int[] blackPoints, int subWidth, int subHeight, int[] integral) {
+    int stride = subWidth + 1;
+    for (int x = 0; x < stride; x++) {
+      integral[x] = 0;
+    }
+    for (int y = 0; y < subHeight; y++) {
+      int rowOffset = (y + 1) * stride;
+      int blockOffset = y * subWidth;
+      int rowSum = 0;
+      integral[rowOffset] = 0;
+      for (int x = 0; x < subWidth; x++) {
+        rowSum += blackPoints[blockOffset + x];
+        integral[rowOffset + x + 1] = integral[rowOffset - stride + x + 1] + rowSum;
+      }
+    }
+  }
+
+  /**
+   * For each block in the image, calculate the average black point using a 5x5 grid of the blocks
+   * around it, read as four lookups in the summed-area table.
+   */
+  private static void calculateThresholdForBlock(byte[] luminances,
+                                                 int subWidth,
+                                                 int subHeight,
+                                                 int width,
+                                                 int height,
+                                                 int[] integral,
+                                                 int[] thresholds,
+                                                 BitMatrix matrix) {
+    int stride = subWidth + 1;
+    int maxYOffset = height - BLOCK_SIZE;
+    int maxXOffset = width - BLOCK_SIZE;
+    for (int y = 0; y < subHeight; y++) {
+      int yoffset = y << BLOCK_SIZE_POWER;
+      if (yoffset > maxYOffset) {
+        yoffset = maxYOffset;
+      }
+      int top = cap(y, subHeight - 3);
+      int above = (top - 2) * stride;
+      int below = (top + 3) * stride;
+      for (int x = 0; x < subWidth; x++) {
+        int xoffset = x << BLOCK_SIZE_POWER;
+        if (xoffset > maxXOffset) {
+          xoffset = maxXOffset;
+        }
+        int left = cap(x, subWidth - 3);
+        int sum = integral[below + left + 3] - integral[above + left + 3]
+            - integral[below + left - 2] + integral[above + left - 2];
+        int average = sum / 25;
+        HybridBinarizer.setBlockThreshold(thresholds, x, xoffset, average);
+      }
+      HybridBinarizer.thresholdRows(luminances, yoffset, width, thresholds, matrix);
+    }
+  }
+
+  private static int cap(int value, int max) {
+    return value < 2 ? 2 : value > max ? max : value;
+  }
+
+  /**
+   * Calculates a single black point for each block of pixels, exactly as
+   * {@link HybridBinarizer} does, into a flat row-major table.
+   */
+  private static void calculateBlackPoints(byte[] luminances,
+                                           int subWidth,
+                                           int subHeight,
+                                           int width,
+                                           int height,
+                                           int[] blackPoints) {
+    int maxYOffset = height - BLOCK_SIZE;
+    int maxXOffset = width - BLOCK_SIZE;
+    for (int y = 0; y < subHeight; y++) {
+      int yoffset = y << BLOCK_SIZE_POWER;
+      if (yoffset > maxYOffset) {
+        yoffset = maxYOffset;
+      }
+      int blockOffset = y * subWidth;
+      for (int x = 0; x < subWidth; x++) {
+        int xoffset = x << BLOCK_SIZE_POWER;
+        if (xoffset > maxXOffset) {
+          xoffset = maxXOffset;
+        }
+        int sum = 0;
+        int min = 0xFF;
+        int max = 0;
+        for (int yy = 0, offset = yoffset * width + xoffset; yy < BLOCK_SIZE; yy++, offset += width) {
+          for (int xx = 0; xx < BLOCK_SIZE; xx++) {
+            int pixel = luminances[offset + xx] & 0xFF;
+            sum += pixel;
+            // still looking for good contrast
+            if (pixel < min) {
+              min = pixel;
+            }
+            if (pixel > max) {
+              max = pixel;
+            }
+          }
+          // short-circuit min/max tests once dynamic range is met
+          if (max - min > MIN_DYNAMIC_RANGE) {
+            // finish the rest of the rows quickly
+            for (yy++, offset += width; yy < BLOCK_SIZE; yy++, offset += width) {
+              for (int xx = 0; xx < BLOCK_SIZE; xx++) {
+                sum += luminances[offset + xx] & 0xFF;
+              }
+            }
+          }
+        }
+
+        // The default estimate is the average of the values in the block.
+        int average = sum >> (BLOCK_SIZE_POWER * 2);
+        if (max - min <= MIN_DYNAMIC_RANGE) {
+          // Low contrast block: assume light background, see HybridBinarizer for the reasoning.
+          average = min / 2;
+
+          if (y > 0 && x > 0) {
+            int averageNeighborBlackPoint = (blackPoints[blockOffset - subWidth + x]
+                + (2 * blackPoints[blockOffset + x - 1])
+                + blackPoints[blockOffset - subWidth + x - 1]) / 4;
+            if (min < averageNeighborBlackPoint) {
+              average = averageNeighborBlackPoint;
+            }
+          }
+        }
+        blackPoints[blockOffset + x] = average;
+      }
+    }
+  }
+
+  /**
+   * Per-frame working memory: the block table, its summed-area table, the per-column thresholds
+   * of the current block row and the output matrix.
+   */
+  private static final class Buffers {
+
+    private final int width;
+    private final int height;
+    private final int[] blackPoints;
+    private final int[] integral;
+    private final int[] thresholds;
+    private final BitMatrix matrix;
+
+    Buffers(int width, int height) {
+      this.width = width;
+      this.height = height;
+      int subWidth = (width + BLOCK_SIZE_MASK) >> BLOCK_SIZE_POWER;
+      int subHeight = (height + BLOCK_SIZE_MASK) >> BLOCK_SIZE_POWER;
+      blackPoints = new int[subWidth * subHeight];
+      integral = new int[(subWidth + 1) * (subHeight + 1)];
+      thresholds = new int[width];
+      matrix = new BitMatrix(width, height);
+    }
+
+    boolean fits(int width, int height) {
+      return this.width == width && this.height == height;
+    }
+
+  }
+
+  /**
+   * Keeps released buffers so that the next frame of the same size can reuse them. Safe to share
+   * between threads. Buffers of a different size are dropped, so a change of camera resolution
+   * simply starts a new generation.
+   */
+  public static final class Pool {
+
+    private final Buffers[] free;
+    private int size;
+
+    public Pool() {
+      this(2);
+    }
+
+    /**
+     * @param capacity how many idle buffer sets to retain
+     */
+    public Pool(int capacity) {
+      if (capacity < 1) {
+        throw new IllegalArgumentException("Capacity must be at least 1");
+      }
+      free = new Buffers[capacity];
+    }
+
+    /**
+     * @param source luminance data of the next frame
+     * @return a binarizer for the frame that recycles this pool's buffers
+     */
+    public IntegralHybridBinarizer acquire(LuminanceSource source) {
+      return new IntegralHybridBinarizer(source, this);
+    }
+
+    synchronized Buffers take(int width, int height) {
+      while (size > 0) {
+        Buffers buffers = free[--size];
+        free[size] = null;
+        if (buffers.fits(width, height)) {
+          buffers.matrix.clear();
+          return buffers;
+        }
+      }
+      return new Buffers(width, height);
+    }
+
+    synchronized void give(Buffers buffers) {
+      if (size < free.length) {
+        free[size++] = buffers;
+      }
+    }
+
+  }
+
+}
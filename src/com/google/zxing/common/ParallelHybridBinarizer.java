@@ -0,0 +1,276 @@
+/*
+ * Copyright 2009 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common;
+
+import com.google.zxing.Binarizer;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.NotFoundException;
+
+/**
+ * A {@link HybridBinarizer} that spreads the work over several threads, for high resolution
+ * images. The output is bit for bit the same as {@link HybridBinarizer}'s.
+ *
+ * The image is split into horizontal bands of whole block rows, and the work runs in three steps:
+ * <ol>
+ * <li>In parallel, each band measures its blocks. A block with enough contrast gets its final
+ * black point; a flat block only records its minimum.</li>
+ * <li>One thread resolves the flat blocks in row-major order, since their black point depends on
+ * the already resolved neighbours above and to the left.</li>
+ * <li>In parallel, each band averages the 5x5 black points around its blocks, reading up to two
+ * block rows of the neighbouring bands, and thresholds its pixel rows.</li>
+ * </ol>
+ * Step 2 touches one value per block and is cheap compared to the other two, which read every
+ * pixel. Use it in place of {@link HybridBinarizer} when creating the {@link
+ * com.google.zxing.BinaryBitmap}; nothing else changes for callers.
+ */
+public final class ParallelHybridBinarizer extends GlobalHistogramBinarizer {
+
+  private static final int BLOCK_SIZE_POWER = 3;
+  private static final int BLOCK_SIZE = 1 << BLOCK_SIZE_POWER;
+  private static final int BLOCK_SIZE_MASK = BLOCK_SIZE - 1;
+  private static final int MINIMUM_DIMENSION = BLOCK_SIZE * 5;
+  private static final int MIN_DYNAMIC_RANGE = 24;
+  // Below this many block rows per band, splitting costs more than it saves.
+  private static final int MIN_BAND_BLOCK_ROWS = 8;
+
+  private final int threads;
+  private BitMatrix matrix;
+
+  public ParallelHybridBinarizer(LuminanceSource source) {
+    this(source, ParallelTasks.DEFAULT_THREADS);
+  }
+
+  /**
+   * @param source luminance data to binarize
+   * @param threads how many threads to use at most, including the calling thread
+   */
+  public ParallelHybridBinarizer(LuminanceSource source, int threads) {
+    super(source);
+    if (threads < 1) {
+      throw new IllegalArgumentException("Need at least one thread");
+    }
+    this.threads = threads;
+  }
+
+  @Override
+  public BitMatrix getBlackMatrix() throws NotFoundException {
+    if (matrix != null) {
+      return matrix;
+    }
+    LuminanceSource source = getLuminanceSource();
+    final int width = source.getWidth();
+    final int height = source.getHeight();
+    if (width >= MINIMUM_DIMENSION && height >= MINIMUM_DIMENSION) {
+      final byte[] luminances = source.getMatrix();
+      int w = width >> BLOCK_SIZE_POWER;
+      if ((width & BLOCK_SIZE_MASK) != 0) {
+        w++;
+      }
+      int h = height >> BLOCK_SIZE_POWER;
+      if ((height & BLOCK_SIZE_MASK) != 0) {
+        h++;
+      }
+      final int subWidth = w;
+      final int subHeight = h;
+      final int[] blackPoints = new int[subWidth * subHeight];
+      final BitMatrix newMatrix = new BitMatrix(width, height);
+      int[] bandStarts = splitBands(subHeight);
+      int bands = bandStarts.length - 1;
+
+      Runnable[] measure = new Runnable[bands];
+      Runnable[] threshold = new Runnable[bands];
+      for (int i = 0; i < bands; i++) {
+        final int startRow = bandStarts[i];
+        final int endRow = bandStarts[i + 1];
+        measure[i] = new Runnable() {
+          @Override
+          public void run() {
+            measureBlocks(luminances, startRow, endRow, subWidth, width, height, blackPoints);
+          }
+        };
+        threshold[i] = new Runnable() {
+          @Override
+          public void run() {
+            calculateThresholdForBlock(luminances, startRow, endRow, subWidth, subHeight, width, height,
+                blackPoints, newMatrix);
+          }
+        };
+      }
+
+      ParallelTasks.run(measure, threads);
+      resolveFlatBlocks(subWidth, subHeight, blackPoints);
+      ParallelTasks.run(threshold, threads);
+      matrix = newMatrix;
+    } else {
+      // If the image is too small, fall back to the global histogram approach.
+      matrix = super.getBlackMatrix();
+    }
+    return matrix;
+  }
+
+  @Override
+  public Binarizer createBinarizer(LuminanceSource source) {
+    return new ParallelHybridBinarizer(source, threads);
+  }
+
+  /**
+   * Splits the block rows into bands. When the image height is not a multiple of the block size,
+   * the last block row is shifted up and shares pixel rows with the one before it, so those two
+   * always go to the same band: otherwise two threads could write the same matrix words.
+   *
+   * @return start block row of each band, followed by subHeight
+   */
+  private int[] splitBands(int subHeight) {
+    int bands = Math.min(threads, subHeight / MIN_BAND_BLOCK_ROWS);
+    if (bands < 1) {
+      bands = 1;
+    }
+    int[] starts = new int[bands + 1];
+    for (int i = 1; i < bands; i++) {
+      starts[i] = subHeight * i / bands;
+    }
+    starts[bands] = subHeight;
+    if (bands > 1 && starts[bands - 1] == subHeight - 1) {
+      starts[bands - 1]--;
+    }
+    return starts;
+  }
+
+  /**
+   * Computes the black point of every block in block rows [startRow, endRow) that has enough
+   * contrast, as {@link HybridBinarizer} does. Flat blocks are stored as {@code -1 - min} for
+   * {@link #resolveFlatBlocks(int, int, int[])}.
+   */
+  private static void measureBlocks(byte[] luminances,
+                                    int startRow,
+                                    int endRow,
+                                    int subWidth,
+                                    int width,
+                                    int height,
+                                    int[] blackPoints) {
+    int maxYOffset = height - BLOCK_SIZE;
+    int maxXOffset = width - BLOCK_SIZE;
+    for (int y = startRow; y < endRow; y++) {
+      int yoffset = y << BLOCK_SIZE_POWER;
+      if (yoffset > maxYOffset) {
+        yoffset = maxYOffset;
+      }
+      int blockOffset = y * subWidth;
+      for (int x = 0; x < subWidth; x++) {
+        int xoffset = x << BLOCK_SIZE_POWER;
+        if (xoffset > maxXOffset) {
+          xoffset = maxXOffset;
+        }
+        int sum = 0;
+        int min = 0xFF;
+        int max = 0;
+        for (int yy = 0, offset = yoffset * width + xoffset; yy < BLOCK_SIZE; yy++, offset += width) {
+          for (int xx = 0; xx < BLOCK_SIZE; xx++) {
+            int pixel = luminances[offset + xx] & 0xFF;
+            sum += pixel;
+            if (pixel < min) {
+              min = pixel;
+            }
+            if (pixel > max) {
+              max = pixel;
+            }
+          }
+          // short-circuit min/max tests once dynamic range is met
+          if (max - min > MIN_DYNAMIC_RANGE) {
+            for (yy++, offset += width; yy < BLOCK_SIZE; yy++, offset += width) {
+              for (int xx = 0; xx < BLOCK_SIZE; xx++) {
+                sum += luminances[offset + xx] & 0xFF;
+              }
+            }
+          }
+        }
+        blackPoints[blockOffset + x] = max - min > MIN_DYNAMIC_RANGE ? sum >> (BLOCK_SIZE_POWER * 2) : -1 - min;
+      }
+    }
+  }
+
+  /**
+   * Gives each flat block its black point: half its minimum, or the average of its already
+   * resolved upper and left neighbours if its minimum is below that. See {@link HybridBinarizer}.
+   */
+  private static void resolveFlatBlocks(int subWidth, int subHeight, int[] blackPoints) {
+    for (int y = 0; y < subHeight; y++) {
+      int blockOffset = y * subWidth;
+      for (int x = 0; x < subWidth; x++) {
+        int value = blackPoints[blockOffset + x];
+        if (value >= 0) {
+          continue;
+        }
+        int min = -1 - value;
+        int average = min / 2;
+        if (y > 0 && x > 0) {
+          int averageNeighborBlackPoint = (blackPoints[blockOffset - subWidth + x]
+              + (2 * blackPoints[blockOffset + x - 1])
+              + blackPoints[blockOffset - subWidth + x - 1]) / 4;
+          if (min < averageNeighborBlackPoint) {
+            average = averageNeighborBlackPoint;
+          }
+        }
+        blackPoints[blockOffset + x] = average;
+      }
+    }
+  }
+
+  /**
+   * Thresholds the pixel rows of block rows [startRow, endRow) using the 5x5 block average, as
+   * {@link HybridBinarizer} does.
+   */
+  private static void calculateThresholdForBlock(byte[] luminances,
+                                                 int startRow,
+                                                 int endRow,
+                                                 int subWidth,
+                                                 int subHeight,
+                                                 int width,
+                                                 int height,
+                                                 int[] blackPoints,
+                                                 BitMatrix matrix) {
+    int maxYOffset = height - BLOCK_SIZE;
+    int maxXOffset = width - BLOCK_SIZE;
+    int[] thresholds = new int[width];
+    for (int y = startRow; y < endRow; y++) {
+      int yoffset = y << BLOCK_SIZE_POWER;
+      if (yoffset > maxYOffset) {
+        yoffset = maxYOffset;
+      }
+      int top = cap(y, subHeight - 3);
+      for (int x = 0; x < subWidth; x++) {
+        int xoffset = x << BLOCK_SIZE_POWER;
+        if (xoffset > maxXOffset) {
+          xoffset = maxXOffset;
+        }
+        int left = cap(x, subWidth - 3);
+        int sum = 0;
+        for (int z = -2, offset = (top - 2) * subWidth + left; z <= 2; z++, offset += subWidth) {
+          sum += blackPoints[offset - 2] + blackPoints[offset - 1] + blackPoints[offset]
+              + blackPoints[offset + 1] + blackPoints[offset + 2];
+        }
+        HybridBinarizer.setBlockThreshold(thresholds, x, xoffset, sum / 25);
+      }
+      HybridBinarizer.thresholdRows(luminances, yoffset, width, thresholds, matrix);
+    }
+  }
+
+  private static int cap(int value, int max) {
+    return value < 2 ? 2 : value > max ? max : value;
+  }
+
+}
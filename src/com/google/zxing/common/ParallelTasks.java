@@ -0,0 +1,117 @@
+/*
+ * Copyright 2009 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common;
+
+/**
+ * Runs a batch of independent tasks on a few worker threads and waits for all of them. Only
+ * {@link Thread} and monitors are used, so this works on every platform the library targets.
+ * Workers are started per batch and exit when it is done; there is nothing to shut down.
+ *
+ * Tasks are claimed in array order, so earlier tasks start no later than later ones. The calling
+ * thread works on the batch too.
+ */
+public final class ParallelTasks {
+
+  /**
+   * Number of threads used when the caller does not say otherwise.
+   */
+  public static final int DEFAULT_THREADS = 4;
+
+  private final Runnable[] tasks;
+  private int next;
+  private int running;
+  private Throwable failure;
+
+  private ParallelTasks(Runnable[] tasks) {
+    this.tasks = tasks;
+  }
+
+  /**
+   * Runs all tasks and returns once every one has finished.
+   *
+   * @param tasks work to do
+   * @param threads maximum number of threads to use, including the calling thread
+   * @throws RuntimeException or Error, the first one thrown by any task, after all tasks finished
+   */
+  public static void run(Runnable[] tasks, int threads) {
+    ParallelTasks batch = new ParallelTasks(tasks);
+    int workers = Math.min(threads, tasks.length) - 1;
+    batch.running = workers + 1;
+    for (int i = 0; i < workers; i++) {
+      new Thread(new Runnable() {
+        @Override
+        public void run() {
+          batch.work();
+        }
+      }).start();
+    }
+    batch.work();
+    batch.await();
+  }
+
+  private void work() {
+    try {
+      Runnable task;
+      while ((task = claim()) != null) {
+        try {
+          task.run();
+        } catch (RuntimeException | Error e) {
+          fail(e);
+        }
+      }
+    } finally {
+      finish();
+    }
+  }
+
+  private synchronized Runnable claim() {
+    return failure == null && next < tasks.length ? tasks[next++] : null;
+  }
+
+  private synchronized void fail(Throwable t) {
+    if (failure == null) {
+      failure = t;
+    }
+  }
+
+  private synchronized void finish() {
+    if (--running == 0) {
+      notifyAll();
+    }
+  }
+
+  private synchronized void await() {
+    boolean interrupted = false;
+    while (running > 0) {
+      try {
+        wait();
+      } catch (InterruptedException ie) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    if (failure instanceof RuntimeException) {
+      throw (RuntimeException) failure;
+    }
+    if (failure instanceof Error) {
+      throw (Error) failure;
+    }
+  }
+
+}
@@ -56,6 +56,18 @@ public final class ReedSolomonDecoder {
    * @throws ReedSolomonException if decoding fails for any reason
    */
   public void decode(int[] received, int twoS) throws ReedSolomonException {
+    decodeWithECCount(received, twoS);
+  }
+
+  /**
+   * Like {@link #decode(int[], int)}, but also reports how many codewords were wrong.
+   *
+   * @param received data and error-correction codewords
+   * @param twoS number of error-correction codewords available
+   * @return the number of errors corrected
+   * @throws ReedSolomonException if decoding fails for any reason
+   */
+  public int decodeWithECCount(int[] received, int twoS) throws ReedSolomonException {
     GenericGFPoly poly = new GenericGFPoly(field, received);
     int[] syndromeCoefficients = new int[twoS];
     boolean noError = true;
@@ -67,7 +79,7 @@ public final class ReedSolomonDecoder {
       }
     }
     if (noError) {
-      return;
+      return 0;
     }
     GenericGFPoly syndrome = new GenericGFPoly(field, syndromeCoefficients);
     GenericGFPoly[] sigmaOmega =
@@ -83,6 +95,7 @@ public final class ReedSolomonDecoder {
       }
       received[position] = GenericGF.addOrSubtract(received[position], errorMagnitudes[i]);
     }
+    return errorLocations.length;
   }
 
   private GenericGFPoly[] runEuclideanAlgorithm(GenericGFPoly a, GenericGFPoly b, int R)
@@ -20,13 +20,17 @@ import com.google.zxing.BarcodeFormat;
 import com.google.zxing.BinaryBitmap;
 import com.google.zxing.ChecksumException;
 import com.google.zxing.DecodeHintType;
+import com.google.zxing.DecodeListener;
+import com.google.zxing.DecodeStage;
 import com.google.zxing.FormatException;
 import com.google.zxing.NotFoundException;
 import com.google.zxing.Reader;
 import com.google.zxing.Result;
 import com.google.zxing.ResultMetadataType;
 import com.google.zxing.ResultPoint;
+import com.google.zxing.ResultPointCallback;
 import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.DecodeContext;
 import com.google.zxing.common.DecoderResult;
 import com.google.zxing.common.DetectorResult;
 import com.google.zxing.datamatrix.decoder.Decoder;
@@ -64,14 +68,32 @@ public final class DataMatrixReader implements Reader {
       throws NotFoundException, ChecksumException, FormatException {
     DecoderResult decoderResult;
     ResultPoint[] points;
+    DecodeListener listener = hints == null ? null : (DecodeListener) hints.get(DecodeHintType.DECODE_LISTENER);
     if (hints != null && hints.containsKey(DecodeHintType.PURE_BARCODE)) {
       BitMatrix bits = extractPureBits(image.getBlackMatrix());
-      decoderResult = decoder.decode(bits);
+      decoderResult = decoder.decode(bits, listener);
       points = NO_POINTS;
     } else {
-      DetectorResult detectorResult = new Detector(image.getBlackMatrix()).detect();
-      decoderResult = decoder.decode(detectorResult.getBits());
+      DecodeContext context = hints == null ? null : (DecodeContext) hints.get(DecodeHintType.DECODE_CONTEXT);
+      long start = listener == null ? 0L : System.nanoTime();
+      DetectorResult detectorResult;
+      try {
+        detectorResult = new Detector(image.getBlackMatrix(), context).detect();
+      } finally {
+        if (listener != null) {
+          listener.stageFinished(DecodeStage.DETECTION, System.nanoTime() - start);
+        }
+      }
       points = detectorResult.getPoints();
+      // Reported before decoding, so callers learn where the symbol is even if decoding fails
+      ResultPointCallback rpcb = hints == null ? null :
+          (ResultPointCallback) hints.get(DecodeHintType.NEED_RESULT_POINT_CALLBACK);
+      if (rpcb != null) {
+        for (ResultPoint point : points) {
+          rpcb.foundPossibleResultPoint(point);
+        }
+      }
+      decoderResult = decoder.decode(detectorResult.getBits(), listener);
     }
     Result result = new Result(decoderResult.getText(), decoderResult.getRawBytes(), points,
         BarcodeFormat.DATA_MATRIX);
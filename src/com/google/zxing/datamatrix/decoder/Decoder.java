@@ -17,6 +17,8 @@
 package com.google.zxing.datamatrix.decoder;
 
 import com.google.zxing.ChecksumException;
+import com.google.zxing.DecodeListener;
+import com.google.zxing.DecodeStage;
 import com.google.zxing.FormatException;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.common.DecoderResult;
@@ -61,6 +63,20 @@ public final class Decoder {
    * @throws ChecksumException if error correction fails
    */
   public DecoderResult decode(BitMatrix bits) throws FormatException, ChecksumException {
+    return decode(bits, null);
+  }
+
+  /**
+   * <p>Decodes a Data Matrix Code represented as a {@link BitMatrix}, reporting how long error
+   * correction and bit-stream parsing took.</p>
+   *
+   * @param bits booleans representing white/black Data Matrix Code modules
+   * @param listener told about the decoding stages; may be null
+   * @return text and bytes encoded within the Data Matrix Code
+   * @throws FormatException if the Data Matrix Code cannot be decoded
+   * @throws ChecksumException if error correction fails
+   */
+  public DecoderResult decode(BitMatrix bits, DecodeListener listener) throws FormatException, ChecksumException {
 
     // Construct a parser and read version, error-correction level
     BitMatrixParser parser = new BitMatrixParser(bits);
@@ -78,21 +94,43 @@ public final class Decoder {
     }
     byte[] resultBytes = new byte[totalBytes];
 
+    long start = listener == null ? 0L : System.nanoTime();
     int dataBlocksCount = dataBlocks.length;
+    int errorsCorrected = 0;
     // Error-correct and copy data blocks together into a stream of bytes
-    for (int j = 0; j < dataBlocksCount; j++) {
-      DataBlock dataBlock = dataBlocks[j];
-      byte[] codewordBytes = dataBlock.getCodewords();
-      int numDataCodewords = dataBlock.getNumDataCodewords();
-      correctErrors(codewordBytes, numDataCodewords);
-      for (int i = 0; i < numDataCodewords; i++) {
-        // De-interlace data blocks.
-        resultBytes[i * dataBlocksCount + j] = codewordBytes[i];
+    try {
+      for (int j = 0; j < dataBlocksCount; j++) {
+        DataBlock dataBlock = dataBlocks[j];
+        byte[] codewordBytes = dataBlock.getCodewords();
+        int numDataCodewords = dataBlock.getNumDataCodewords();
+        errorsCorrected += correctErrors(codewordBytes, numDataCodewords);
+        for (int i = 0; i < numDataCodewords; i++) {
+          // De-interlace data blocks.
+          resultBytes[i * dataBlocksCount + j] = codewordBytes[i];
+        }
       }
+    } finally {
+      if (listener != null) {
+        long end = System.nanoTime();
+        listener.stageFinished(DecodeStage.ERROR_CORRECTION, end - start);
+        start = end;
+      }
+    }
+    if (listener != null) {
+      listener.errorsCorrected(errorsCorrected);
     }
 
     // Decode the contents of that stream of bytes
-    return DecodedBitStreamParser.decode(resultBytes);
+    DecoderResult result;
+    try {
+      result = DecodedBitStreamParser.decode(resultBytes);
+    } finally {
+      if (listener != null) {
+        listener.stageFinished(DecodeStage.BIT_STREAM_PARSING, System.nanoTime() - start);
+      }
+    }
+    result.setErrorsCorrected(errorsCorrected);
+    return result;
   }
 
   /**
@@ -101,17 +139,19 @@ public final class Decoder {
    *
    * @param codewordBytes data and error correction codewords
    * @param numDataCodewords number of codewords that are data bytes
+   * @return the number of errors corrected
    * @throws ChecksumException if error correction fails
    */
-  private void correctErrors(byte[] codewordBytes, int numDataCodewords) throws ChecksumException {
+  private int correctErrors(byte[] codewordBytes, int numDataCodewords) throws ChecksumException {
     int numCodewords = codewordBytes.length;
     // First read into an array of ints
     int[] codewordsInts = new int[numCodewords];
     for (int i = 0; i < numCodewords; i++) {
       codewordsInts[i] = codewordBytes[i] & 0xFF;
     }
+    int errorsCorrected;
     try {
-      rsDecoder.decode(codewordsInts, codewordBytes.length - numDataCodewords);
+      errorsCorrected = rsDecoder.decodeWithECCount(codewordsInts, codewordBytes.length - numDataCodewords);
     } catch (ReedSolomonException ignored) {
       throw ChecksumException.getChecksumInstance();
     }
@@ -120,6 +160,7 @@ public final class Decoder {
     for (int i = 0; i < numDataCodewords; i++) {
       codewordBytes[i] = (byte) codewordsInts[i];
     }
+    return errorsCorrected;
   }
 
 }
@@ -19,8 +19,10 @@ package com.google.zxing.datamatrix.detector;
 import com.google.zxing.NotFoundException;
 import com.google.zxing.ResultPoint;
 import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.DecodeContext;
 import com.google.zxing.common.DetectorResult;
 import com.google.zxing.common.GridSampler;
+import com.google.zxing.common.PerspectiveTransform;
 import com.google.zxing.common.detector.WhiteRectangleDetector;
 
 /**
@@ -33,9 +35,20 @@ public final class Detector {
 
   private final BitMatrix image;
   private final WhiteRectangleDetector rectangleDetector;
+  private final DecodeContext context;
 
   public Detector(BitMatrix image) throws NotFoundException {
+    this(image, null);
+  }
+
+  /**
+   * @param image binarized image to search
+   * @param context scratch buffers to sample the symbol into, or null to allocate. The detected
+   *  {@link DetectorResult#getBits() bits} then belong to the context.
+   */
+  public Detector(BitMatrix image, DecodeContext context) throws NotFoundException {
     this.image = image;
+    this.context = context;
     rectangleDetector = new WhiteRectangleDetector(image);
   }
 
@@ -82,7 +95,8 @@ public final class Detector {
                                 bottomRight,
                                 topRight,
                                 dimensionTop,
-                                dimensionRight);
+                                dimensionRight,
+                                context);
 
     return new DetectorResult(bits, new ResultPoint[]{topLeft, bottomLeft, bottomRight, topRight});
   }
@@ -310,29 +324,29 @@ public final class Detector {
                                       ResultPoint bottomRight,
                                       ResultPoint topRight,
                                       int dimensionX,
-                                      int dimensionY) throws NotFoundException {
+                                      int dimensionY,
+                                      DecodeContext context) throws NotFoundException {
+
+    PerspectiveTransform transform = PerspectiveTransform.quadrilateralToQuadrilateral(
+        0.5f,
+        0.5f,
+        dimensionX - 0.5f,
+        0.5f,
+        dimensionX - 0.5f,
+        dimensionY - 0.5f,
+        0.5f,
+        dimensionY - 0.5f,
+        topLeft.getX(),
+        topLeft.getY(),
+        topRight.getX(),
+        topRight.getY(),
+        bottomRight.getX(),
+        bottomRight.getY(),
+        bottomLeft.getX(),
+        bottomLeft.getY());
 
     GridSampler sampler = GridSampler.getInstance();
-
-    return sampler.sampleGrid(image,
-                              dimensionX,
-                              dimensionY,
-                              0.5f,
-                              0.5f,
-                              dimensionX - 0.5f,
-                              0.5f,
-                              dimensionX - 0.5f,
-                              dimensionY - 0.5f,
-                              0.5f,
-                              dimensionY - 0.5f,
-                              topLeft.getX(),
-                              topLeft.getY(),
-                              topRight.getX(),
-                              topRight.getY(),
-                              bottomRight.getX(),
-                              bottomRight.getY(),
-                              bottomLeft.getX(),
-                              bottomLeft.getY());
+    return sampler.sampleGrid(image, dimensionX, dimensionY, transform, context);
   }
 
   /**
@@ -235,9 +235,6 @@ final class MultiFinderPatternFinder extends FinderPatternFinder {
 		boolean tryHarder = hints != null && hints.containsKey(DecodeHintType.TRY_HARDER);
 		BitMatrix image = getImage();
 		int maxI = image.getHeight();
-		int maxJ = image.getWidth();
-		// We are looking for black/white/black/white/black modules in
-		// 1:1:3:1:1 ratio; this tracks the number of such modules seen so far
 
 		// Let's assume that the maximum version QR Code we support takes up 1/4 the
 		// height of the
@@ -246,47 +243,17 @@ final class MultiFinderPatternFinder extends FinderPatternFinder {
 		// number of pixels the center could be, so skip this often. When trying harder,
 		// look for all
 		// QR versions regardless of how dense they are.
-		int iSkip = (3 * maxI) / (4 * MAX_MODULES);
+		int iSkip = (3 * maxI) / (4 * getMaxModules(hints));
 		if (iSkip < MIN_SKIP || tryHarder) {
 			iSkip = MIN_SKIP;
 		}
 
-		int[] stateCount = new int[5];
-		for (int i = iSkip - 1; i < maxI; i += iSkip) {
-			// Get a row of black/white values
-			clearCounts(stateCount);
-			int currentState = 0;
-			for (int j = 0; j < maxJ; j++) {
-				if (image.get(j, i)) {
-					// Black pixel
-					if ((currentState & 1) == 1) { // Counting white pixels
-						currentState++;
-					}
-					stateCount[currentState]++;
-				} else { // White pixel
-					if ((currentState & 1) == 0) { // Counting black pixels
-						if (currentState == 4) { // A winner?
-							if (foundPatternCross(stateCount) && handlePossibleCenter(stateCount, i, j)) { // Yes
-								// Clear state to start looking again
-								currentState = 0;
-								clearCounts(stateCount);
-							} else { // No, shift counts back by two
-								shiftCounts2(stateCount);
-								currentState = 3;
-							}
-						} else {
-							stateCount[++currentState]++;
-						}
-					} else { // Counting white pixels
-						stateCount[currentState]++;
-					}
-				}
-			} // for j=...
-
-			if (foundPatternCross(stateCount)) {
-				handlePossibleCenter(stateCount, i, maxJ);
-			}
-		} // for i=iSkip-1 ...
+		int threads = getThreads(hints);
+		if (threads > 1) {
+			scanRowsInParallel(iSkip, threads);
+		} else {
+			scanRows(iSkip - 1, maxI, iSkip);
+		}
 		FinderPattern[][] patternInfo = selectMultipleBestPatterns();
 		List<FinderPatternInfo> result = new ArrayList<>();
 		for (FinderPattern[] pattern : patternInfo) {
@@ -78,9 +78,15 @@ public final class CodaBarReader extends OneDReader {
 
   @Override
   public Result decodeRow(int rowNumber, BitArray row, Map<DecodeHintType,?> hints) throws NotFoundException {
+    return decodeRow(rowNumber, row, new RowRuns(row), hints);
+  }
+
+  @Override
+  public Result decodeRow(int rowNumber, BitArray row, RowRuns runs, Map<DecodeHintType,?> hints)
+      throws NotFoundException {
 
     Arrays.fill(counters, 0);
-    setCounters(row);
+    setCounters(runs);
     int startOffset = findStartPattern();
     int nextStart = startOffset;
 
@@ -225,38 +231,21 @@ public final class CodaBarReader extends OneDReader {
    * Records the size of all runs of white and black pixels, starting with white.
    * This is just like recordPattern, except it records all the counters, and
    * uses our builtin "counters" member for storage.
-   * @param row row to count from
+   * @param runs runs of the row to count from
    */
-  private void setCounters(BitArray row) throws NotFoundException {
-    counterLength = 0;
-    // Start from the first white bit.
-    int i = row.getNextUnset(0);
-    int end = row.getSize();
-    if (i >= end) {
+  private void setCounters(RowRuns runs) throws NotFoundException {
+    // Start from the first white run.
+    int firstWhite = runs.getRunCount() > 0 && runs.isBlack(0) ? 1 : 0;
+    counterLength = runs.getRunCount() - firstWhite;
+    if (counterLength <= 0) {
+      counterLength = 0;
       throw NotFoundException.getNotFoundInstance();
     }
-    boolean isWhite = true;
-    int count = 0;
-    while (i < end) {
-      if (row.get(i) != isWhite) {
-        count++;
-      } else {
-        counterAppend(count);
-        count = 1;
-        isWhite = !isWhite;
-      }
-      i++;
-    }
-    counterAppend(count);
-  }
-
-  private void counterAppend(int e) {
-    counters[counterLength] = e;
-    counterLength++;
     if (counterLength >= counters.length) {
-      int[] temp = new int[counterLength * 2];
-      System.arraycopy(counters, 0, temp, 0, counterLength);
-      counters = temp;
+      counters = new int[counterLength * 2];
+    }
+    for (int i = 0; i < counterLength; i++) {
+      counters[i] = runs.getWidth(firstWhite + i);
     }
   }
 
@@ -342,4 +331,15 @@ public final class CodaBarReader extends OneDReader {
     return -1;
   }
 
+  @Override
+  protected int getMinimumRunCount() {
+    // Four characters including start and stop, with a space between each
+    return 31;
+  }
+
+  @Override
+  protected OneDReader newRowReader() {
+    return new CodaBarReader();
+  }
+
 }
@@ -25,8 +25,6 @@ import com.google.zxing.Result;
 import com.google.zxing.ResultPoint;
 import com.google.zxing.common.BitArray;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -146,6 +144,8 @@ public final class Code128Reader extends OneDReader {
       {2, 3, 3, 1, 1, 1, 2}
   };
 
+  private static final PatternTable CODE_TABLE = new PatternTable(CODE_PATTERNS);
+
   private static final float MAX_AVG_VARIANCE = 0.25f;
   private static final float MAX_INDIVIDUAL_VARIANCE = 0.7f;
 
@@ -166,64 +166,57 @@ public final class Code128Reader extends OneDReader {
   private static final int CODE_START_C = 105;
   private static final int CODE_STOP = 106;
 
-  private static int[] findStartPattern(BitArray row) throws NotFoundException {
-    int width = row.getSize();
-    int rowOffset = row.getNextSet(0);
+  // Buffers reused from one row to the next
+  private final StringBuilder decodeRowResult;
+  private final int[] counters;
+  private final int[] startPatternInfo;
+  private byte[] rawCodes;
+  private int rawCodesSize;
+
+  public Code128Reader() {
+    decodeRowResult = new StringBuilder(20);
+    counters = new int[6];
+    startPatternInfo = new int[3];
+    rawCodes = new byte[20];
+  }
 
-    int counterPosition = 0;
-    int[] counters = new int[6];
-    int patternStart = rowOffset;
-    boolean isWhite = false;
+  private int[] findStartPattern(BitArray row, RowRuns runs) throws NotFoundException {
+    int[] counters = this.counters;
     int patternLength = counters.length;
-
-    for (int i = rowOffset; i < width; i++) {
-      if (row.get(i) != isWhite) {
-        counters[counterPosition]++;
-      } else {
-        if (counterPosition == patternLength - 1) {
-          float bestVariance = MAX_AVG_VARIANCE;
-          int bestMatch = -1;
-          for (int startCode = CODE_START_A; startCode <= CODE_START_C; startCode++) {
-            float variance = patternMatchVariance(counters, CODE_PATTERNS[startCode],
-                MAX_INDIVIDUAL_VARIANCE);
-            if (variance < bestVariance) {
-              bestVariance = variance;
-              bestMatch = startCode;
-            }
-          }
-          // Look for whitespace before start pattern, >= 50% of width of start pattern
-          if (bestMatch >= 0 &&
-              row.isRange(Math.max(0, patternStart - (i - patternStart) / 2), patternStart, false)) {
-            return new int[]{patternStart, i, bestMatch};
-          }
-          patternStart += counters[0] + counters[1];
-          System.arraycopy(counters, 2, counters, 0, counterPosition - 1);
-          counters[counterPosition - 1] = 0;
-          counters[counterPosition] = 0;
-          counterPosition--;
-        } else {
-          counterPosition++;
+    int runCount = runs.getRunCount();
+
+    // Try each black run as the start of the pattern. A pattern is only considered once the run
+    // after it has begun, so it cannot end at the end of the row.
+    for (int run = runs.getFirstBlackRun(); run + patternLength < runCount; run += 2) {
+      runs.getWidths(run, counters);
+      float bestVariance = MAX_AVG_VARIANCE;
+      int bestMatch = -1;
+      for (int startCode = CODE_START_A; startCode <= CODE_START_C; startCode++) {
+        float variance = patternMatchVariance(counters, CODE_PATTERNS[startCode],
+            MAX_INDIVIDUAL_VARIANCE);
+        if (variance < bestVariance) {
+          bestVariance = variance;
+          bestMatch = startCode;
         }
-        counters[counterPosition] = 1;
-        isWhite = !isWhite;
+      }
+      int patternStart = runs.getStart(run);
+      int patternEnd = runs.getStart(run + patternLength);
+      // Look for whitespace before start pattern, >= 50% of width of start pattern
+      if (bestMatch >= 0 &&
+          row.isRange(Math.max(0, patternStart - (patternEnd - patternStart) / 2), patternStart, false)) {
+        startPatternInfo[0] = patternStart;
+        startPatternInfo[1] = patternEnd;
+        startPatternInfo[2] = bestMatch;
+        return startPatternInfo;
       }
     }
     throw NotFoundException.getNotFoundInstance();
   }
 
-  private static int decodeCode(BitArray row, int[] counters, int rowOffset)
+  private static int decodeCode(RowRuns runs, int[] counters, int rowOffset)
       throws NotFoundException {
-    recordPattern(row, rowOffset, counters);
-    float bestVariance = MAX_AVG_VARIANCE; // worst variance we'll accept
-    int bestMatch = -1;
-    for (int d = 0; d < CODE_PATTERNS.length; d++) {
-      int[] pattern = CODE_PATTERNS[d];
-      float variance = patternMatchVariance(counters, pattern, MAX_INDIVIDUAL_VARIANCE);
-      if (variance < bestVariance) {
-        bestVariance = variance;
-        bestMatch = d;
-      }
-    }
+    runs.recordPattern(rowOffset, counters);
+    int bestMatch = CODE_TABLE.match(counters, MAX_AVG_VARIANCE, MAX_INDIVIDUAL_VARIANCE);
     // TODO We're overlooking the fact that the STOP pattern has 7 values, not 6.
     if (bestMatch >= 0) {
       return bestMatch;
@@ -235,15 +228,18 @@ public final class Code128Reader extends OneDReader {
   @Override
   public Result decodeRow(int rowNumber, BitArray row, Map<DecodeHintType,?> hints)
       throws NotFoundException, FormatException, ChecksumException {
+    return decodeRow(rowNumber, row, new RowRuns(row), hints);
+  }
+
+  @Override
+  public Result decodeRow(int rowNumber, BitArray row, RowRuns runs, Map<DecodeHintType,?> hints)
+      throws NotFoundException, FormatException, ChecksumException {
 
     boolean convertFNC1 = hints != null && hints.containsKey(DecodeHintType.ASSUME_GS1);
 
-    int[] startPatternInfo = findStartPattern(row);
+    int[] startPatternInfo = findStartPattern(row, runs);
     int startCode = startPatternInfo[2];
 
-    List<Byte> rawCodes = new ArrayList<>(20);
-    rawCodes.add((byte) startCode);
-
     int codeSet;
     switch (startCode) {
       case CODE_START_A:
@@ -259,40 +255,29 @@ public final class Code128Reader extends OneDReader {
         throw FormatException.getFormatInstance();
     }
 
-    boolean done = false;
-    boolean isNextShifted = false;
-
-    StringBuilder result = new StringBuilder(20);
+    rawCodesSize = 0;
+    addRawCode(startCode);
 
     int lastStart = startPatternInfo[0];
     int nextStart = startPatternInfo[1];
-    int[] counters = new int[6];
+    int[] counters = this.counters;
 
     int lastCode = 0;
     int code = 0;
     int checksumTotal = startCode;
     int multiplier = 0;
-    boolean lastCharacterWasPrintable = true;
-    boolean upperMode = false;
-    boolean shiftUpperMode = false;
-
-    while (!done) {
 
-      boolean unshift = isNextShifted;
-      isNextShifted = false;
+    // Read all codes up to the stop code first; they are only interpreted once the checksum
+    // has shown that they are worth it
+    while (code != CODE_STOP) {
 
       // Save off last code
       lastCode = code;
 
       // Decode another code from image
-      code = decodeCode(row, counters, nextStart);
-
-      rawCodes.add((byte) code);
+      code = decodeCode(runs, counters, nextStart);
 
-      // Remember whether the last code was printable or not (excluding CODE_STOP)
-      if (code != CODE_STOP) {
-        lastCharacterWasPrintable = true;
-      }
+      addRawCode(code);
 
       // Add to checksum computation (if not CODE_STOP of course)
       if (code != CODE_STOP) {
@@ -313,6 +298,47 @@ public final class Code128Reader extends OneDReader {
         case CODE_START_C:
           throw FormatException.getFormatInstance();
       }
+    }
+
+    int lastPatternSize = nextStart - lastStart;
+
+    // Check for ample whitespace following pattern, but, to do this we first need to remember that
+    // we fudged decoding CODE_STOP since it actually has 7 bars, not 6. There is a black bar left
+    // to read off. Would be slightly better to properly read. Here we just skip it:
+    nextStart = runs.getNextUnset(nextStart);
+    if (!row.isRange(nextStart,
+                     Math.min(row.getSize(), nextStart + (nextStart - lastStart) / 2),
+                     false)) {
+      throw NotFoundException.getNotFoundInstance();
+    }
+
+    // Pull out from sum the value of the penultimate check code
+    checksumTotal -= multiplier * lastCode;
+    // lastCode is the checksum then:
+    if (checksumTotal % 103 != lastCode) {
+      throw ChecksumException.getChecksumInstance();
+    }
+
+    boolean isNextShifted = false;
+
+    StringBuilder result = decodeRowResult;
+    result.setLength(0);
+
+    boolean lastCharacterWasPrintable = true;
+    boolean upperMode = false;
+    boolean shiftUpperMode = false;
+
+    for (int i = 1; i < rawCodesSize; i++) {
+
+      boolean unshift = isNextShifted;
+      isNextShifted = false;
+
+      code = rawCodes[i];
+
+      // Remember whether the last code was printable or not (excluding CODE_STOP)
+      if (code != CODE_STOP) {
+        lastCharacterWasPrintable = true;
+      }
 
       switch (codeSet) {
 
@@ -375,9 +401,6 @@ public final class Code128Reader extends OneDReader {
               case CODE_CODE_C:
                 codeSet = CODE_CODE_C;
                 break;
-              case CODE_STOP:
-                done = true;
-                break;
             }
           }
           break;
@@ -431,9 +454,6 @@ public final class Code128Reader extends OneDReader {
               case CODE_CODE_C:
                 codeSet = CODE_CODE_C;
                 break;
-              case CODE_STOP:
-                done = true;
-                break;
             }
           }
           break;
@@ -466,9 +486,6 @@ public final class Code128Reader extends OneDReader {
               case CODE_CODE_B:
                 codeSet = CODE_CODE_B;
                 break;
-              case CODE_STOP:
-                done = true;
-                break;
             }
           }
           break;
@@ -481,25 +498,6 @@ public final class Code128Reader extends OneDReader {
 
     }
 
-    int lastPatternSize = nextStart - lastStart;
-
-    // Check for ample whitespace following pattern, but, to do this we first need to remember that
-    // we fudged decoding CODE_STOP since it actually has 7 bars, not 6. There is a black bar left
-    // to read off. Would be slightly better to properly read. Here we just skip it:
-    nextStart = row.getNextUnset(nextStart);
-    if (!row.isRange(nextStart,
-                     Math.min(row.getSize(), nextStart + (nextStart - lastStart) / 2),
-                     false)) {
-      throw NotFoundException.getNotFoundInstance();
-    }
-
-    // Pull out from sum the value of the penultimate check code
-    checksumTotal -= multiplier * lastCode;
-    // lastCode is the checksum then:
-    if (checksumTotal % 103 != lastCode) {
-      throw ChecksumException.getChecksumInstance();
-    }
-
     // Need to pull out the check digits from string
     int resultLength = result.length();
     if (resultLength == 0) {
@@ -520,11 +518,8 @@ public final class Code128Reader extends OneDReader {
     float left = (startPatternInfo[1] + startPatternInfo[0]) / 2.0f;
     float right = lastStart + lastPatternSize / 2.0f;
 
-    int rawCodesSize = rawCodes.size();
     byte[] rawBytes = new byte[rawCodesSize];
-    for (int i = 0; i < rawCodesSize; i++) {
-      rawBytes[i] = rawCodes.get(i);
-    }
+    System.arraycopy(rawCodes, 0, rawBytes, 0, rawCodesSize);
 
     return new Result(
         result.toString(),
@@ -536,4 +531,24 @@ public final class Code128Reader extends OneDReader {
 
   }
 
+  private void addRawCode(int code) {
+    if (rawCodesSize == rawCodes.length) {
+      byte[] newRawCodes = new byte[rawCodesSize << 1];
+      System.arraycopy(rawCodes, 0, newRawCodes, 0, rawCodesSize);
+      rawCodes = newRawCodes;
+    }
+    rawCodes[rawCodesSize++] = (byte) code;
+  }
+
+  @Override
+  protected int getMinimumRunCount() {
+    // Start, one character, check character and stop
+    return 25;
+  }
+
+  @Override
+  protected OneDReader newRowReader() {
+    return new Code128Reader();
+  }
+
 }
@@ -97,21 +97,27 @@ public final class Code39Reader extends OneDReader {
   @Override
   public Result decodeRow(int rowNumber, BitArray row, Map<DecodeHintType,?> hints)
       throws NotFoundException, ChecksumException, FormatException {
+    return decodeRow(rowNumber, row, new RowRuns(row), hints);
+  }
+
+  @Override
+  public Result decodeRow(int rowNumber, BitArray row, RowRuns runs, Map<DecodeHintType,?> hints)
+      throws NotFoundException, ChecksumException, FormatException {
 
     int[] theCounters = counters;
     Arrays.fill(theCounters, 0);
     StringBuilder result = decodeRowResult;
     result.setLength(0);
 
-    int[] start = findAsteriskPattern(row, theCounters);
+    int[] start = findAsteriskPattern(row, runs, theCounters);
     // Read off white space
-    int nextStart = row.getNextSet(start[1]);
+    int nextStart = runs.getNextSet(start[1]);
     int end = row.getSize();
 
     char decodedChar;
     int lastStart;
     do {
-      recordPattern(row, nextStart, theCounters);
+      runs.recordPattern(nextStart, theCounters);
       int pattern = toNarrowWidePattern(theCounters);
       if (pattern < 0) {
         throw NotFoundException.getNotFoundInstance();
@@ -123,7 +129,7 @@ public final class Code39Reader extends OneDReader {
         nextStart += counter;
       }
       // Read off white space
-      nextStart = row.getNextSet(nextStart);
+      nextStart = runs.getNextSet(nextStart);
     } while (decodedChar != '*');
     result.setLength(result.length() - 1); // remove asterisk
 
@@ -175,35 +181,20 @@ public final class Code39Reader extends OneDReader {
 
   }
 
-  private static int[] findAsteriskPattern(BitArray row, int[] counters) throws NotFoundException {
-    int width = row.getSize();
-    int rowOffset = row.getNextSet(0);
-
-    int counterPosition = 0;
-    int patternStart = rowOffset;
-    boolean isWhite = false;
+  private static int[] findAsteriskPattern(BitArray row, RowRuns runs, int[] counters)
+      throws NotFoundException {
     int patternLength = counters.length;
+    int runCount = runs.getRunCount();
 
-    for (int i = rowOffset; i < width; i++) {
-      if (row.get(i) != isWhite) {
-        counters[counterPosition]++;
-      } else {
-        if (counterPosition == patternLength - 1) {
-          // Look for whitespace before start pattern, >= 50% of width of start pattern
-          if (toNarrowWidePattern(counters) == ASTERISK_ENCODING &&
-              row.isRange(Math.max(0, patternStart - ((i - patternStart) / 2)), patternStart, false)) {
-            return new int[]{patternStart, i};
-          }
-          patternStart += counters[0] + counters[1];
-          System.arraycopy(counters, 2, counters, 0, counterPosition - 1);
-          counters[counterPosition - 1] = 0;
-          counters[counterPosition] = 0;
-          counterPosition--;
-        } else {
-          counterPosition++;
-        }
-        counters[counterPosition] = 1;
-        isWhite = !isWhite;
+    // A pattern is only considered once the run after it has begun
+    for (int run = runs.getFirstBlackRun(); run + patternLength < runCount; run += 2) {
+      runs.getWidths(run, counters);
+      int patternStart = runs.getStart(run);
+      int patternEnd = runs.getStart(run + patternLength);
+      // Look for whitespace before start pattern, >= 50% of width of start pattern
+      if (toNarrowWidePattern(counters) == ASTERISK_ENCODING &&
+          row.isRange(Math.max(0, patternStart - ((patternEnd - patternStart) / 2)), patternStart, false)) {
+        return new int[]{patternStart, patternEnd};
       }
     }
     throw NotFoundException.getNotFoundInstance();
@@ -334,4 +325,15 @@ public final class Code39Reader extends OneDReader {
     return decoded.toString();
   }
 
+  @Override
+  protected int getMinimumRunCount() {
+    // Start, one character and stop, with a space between each
+    return 29;
+  }
+
+  @Override
+  protected OneDReader newRowReader() {
+    return new Code39Reader(usingCheckDigit, extendedMode);
+  }
+
 }
@@ -65,10 +65,16 @@ public final class Code93Reader extends OneDReader {
   @Override
   public Result decodeRow(int rowNumber, BitArray row, Map<DecodeHintType,?> hints)
       throws NotFoundException, ChecksumException, FormatException {
+    return decodeRow(rowNumber, row, new RowRuns(row), hints);
+  }
+
+  @Override
+  public Result decodeRow(int rowNumber, BitArray row, RowRuns runs, Map<DecodeHintType,?> hints)
+      throws NotFoundException, ChecksumException, FormatException {
 
-    int[] start = findAsteriskPattern(row);
+    int[] start = findAsteriskPattern(runs);
     // Read off white space
-    int nextStart = row.getNextSet(start[1]);
+    int nextStart = runs.getNextSet(start[1]);
     int end = row.getSize();
 
     int[] theCounters = counters;
@@ -79,7 +85,7 @@ public final class Code93Reader extends OneDReader {
     char decodedChar;
     int lastStart;
     do {
-      recordPattern(row, nextStart, theCounters);
+      runs.recordPattern(nextStart, theCounters);
       int pattern = toPattern(theCounters);
       if (pattern < 0) {
         throw NotFoundException.getNotFoundInstance();
@@ -91,7 +97,7 @@ public final class Code93Reader extends OneDReader {
         nextStart += counter;
       }
       // Read off white space
-      nextStart = row.getNextSet(nextStart);
+      nextStart = runs.getNextSet(nextStart);
     } while (decodedChar != '*');
     result.deleteCharAt(result.length() - 1); // remove asterisk
 
@@ -128,35 +134,16 @@ public final class Code93Reader extends OneDReader {
 
   }
 
-  private int[] findAsteriskPattern(BitArray row) throws NotFoundException {
-    int width = row.getSize();
-    int rowOffset = row.getNextSet(0);
-
-    Arrays.fill(counters, 0);
+  private int[] findAsteriskPattern(RowRuns runs) throws NotFoundException {
     int[] theCounters = counters;
-    int patternStart = rowOffset;
-    boolean isWhite = false;
     int patternLength = theCounters.length;
+    int runCount = runs.getRunCount();
 
-    int counterPosition = 0;
-    for (int i = rowOffset; i < width; i++) {
-      if (row.get(i) != isWhite) {
-        theCounters[counterPosition]++;
-      } else {
-        if (counterPosition == patternLength - 1) {
-          if (toPattern(theCounters) == ASTERISK_ENCODING) {
-            return new int[]{patternStart, i};
-          }
-          patternStart += theCounters[0] + theCounters[1];
-          System.arraycopy(theCounters, 2, theCounters, 0, counterPosition - 1);
-          theCounters[counterPosition - 1] = 0;
-          theCounters[counterPosition] = 0;
-          counterPosition--;
-        } else {
-          counterPosition++;
-        }
-        theCounters[counterPosition] = 1;
-        isWhite = !isWhite;
+    // A pattern is only considered once the run after it has begun
+    for (int run = runs.getFirstBlackRun(); run + patternLength < runCount; run += 2) {
+      runs.getWidths(run, theCounters);
+      if (toPattern(theCounters) == ASTERISK_ENCODING) {
+        return new int[]{runs.getStart(run), runs.getStart(run + patternLength)};
       }
     }
     throw NotFoundException.getNotFoundInstance();
@@ -293,4 +280,15 @@ public final class Code93Reader extends OneDReader {
     }
   }
 
+  @Override
+  protected int getMinimumRunCount() {
+    // Start, two check characters, stop and termination bar
+    return 25;
+  }
+
+  @Override
+  protected OneDReader newRowReader() {
+    return new Code93Reader();
+  }
+
 }
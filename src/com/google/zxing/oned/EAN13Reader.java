@@ -72,22 +72,28 @@ public final class EAN13Reader extends UPCEANReader {
   protected int decodeMiddle(BitArray row,
                              int[] startRange,
                              StringBuilder resultString) throws NotFoundException {
+    RowRuns runs = new RowRuns(row);
+    return decodeMiddle(row, runs, startRange, digitsAfter(runs, startRange), resultString);
+  }
+
+  @Override
+  int decodeMiddle(BitArray row,
+                   RowRuns runs,
+                   int[] startRange,
+                   UPCEANDigits digits,
+                   StringBuilder resultString) throws NotFoundException {
     int[] counters = decodeMiddleCounters;
     counters[0] = 0;
     counters[1] = 0;
     counters[2] = 0;
     counters[3] = 0;
-    int end = row.getSize();
-    int rowOffset = startRange[1];
+    int end = runs.getSize();
 
     int lgPatternFound = 0;
 
-    for (int x = 0; x < 6 && rowOffset < end; x++) {
-      int bestMatch = decodeDigit(row, counters, rowOffset, L_AND_G_PATTERNS);
+    for (int x = 0; x < 6; x++) {
+      int bestMatch = digits.getMatch(x);
       resultString.append((char) ('0' + bestMatch % 10));
-      for (int counter : counters) {
-        rowOffset += counter;
-      }
       if (bestMatch >= 10) {
         lgPatternFound |= 1 << (5 - x);
       }
@@ -95,11 +101,11 @@ public final class EAN13Reader extends UPCEANReader {
 
     determineFirstDigit(resultString, lgPatternFound);
 
-    int[] middleRange = findGuardPattern(row, rowOffset, true, MIDDLE_PATTERN);
-    rowOffset = middleRange[1];
+    int[] middleRange = findGuardPattern(runs, digits.getEnd(5), true, MIDDLE_PATTERN);
+    int rowOffset = middleRange[1];
 
     for (int x = 0; x < 6 && rowOffset < end; x++) {
-      int bestMatch = decodeDigit(row, counters, rowOffset, L_PATTERNS);
+      int bestMatch = decodeDigit(runs, counters, rowOffset, L_TABLE);
       resultString.append((char) ('0' + bestMatch));
       for (int counter : counters) {
         rowOffset += counter;
@@ -135,4 +141,15 @@ public final class EAN13Reader extends UPCEANReader {
     throw NotFoundException.getNotFoundInstance();
   }
 
+  @Override
+  protected int getMinimumRunCount() {
+    // Guards and twelve digits
+    return 59;
+  }
+
+  @Override
+  protected OneDReader newRowReader() {
+    return new EAN13Reader();
+  }
+
 }
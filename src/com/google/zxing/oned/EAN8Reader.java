@@ -37,27 +37,32 @@ public final class EAN8Reader extends UPCEANReader {
   protected int decodeMiddle(BitArray row,
                              int[] startRange,
                              StringBuilder result) throws NotFoundException {
+    RowRuns runs = new RowRuns(row);
+    return decodeMiddle(row, runs, startRange, digitsAfter(runs, startRange), result);
+  }
+
+  @Override
+  int decodeMiddle(BitArray row,
+                   RowRuns runs,
+                   int[] startRange,
+                   UPCEANDigits digits,
+                   StringBuilder result) throws NotFoundException {
     int[] counters = decodeMiddleCounters;
     counters[0] = 0;
     counters[1] = 0;
     counters[2] = 0;
     counters[3] = 0;
-    int end = row.getSize();
-    int rowOffset = startRange[1];
+    int end = runs.getSize();
 
-    for (int x = 0; x < 4 && rowOffset < end; x++) {
-      int bestMatch = decodeDigit(row, counters, rowOffset, L_PATTERNS);
-      result.append((char) ('0' + bestMatch));
-      for (int counter : counters) {
-        rowOffset += counter;
-      }
+    for (int x = 0; x < 4; x++) {
+      result.append((char) ('0' + digits.getLMatch(x)));
     }
 
-    int[] middleRange = findGuardPattern(row, rowOffset, true, MIDDLE_PATTERN);
-    rowOffset = middleRange[1];
+    int[] middleRange = findGuardPattern(runs, digits.getEnd(3), true, MIDDLE_PATTERN);
+    int rowOffset = middleRange[1];
 
     for (int x = 0; x < 4 && rowOffset < end; x++) {
-      int bestMatch = decodeDigit(row, counters, rowOffset, L_PATTERNS);
+      int bestMatch = decodeDigit(runs, counters, rowOffset, L_TABLE);
       result.append((char) ('0' + bestMatch));
       for (int counter : counters) {
         rowOffset += counter;
@@ -72,4 +77,15 @@ public final class EAN8Reader extends UPCEANReader {
     return BarcodeFormat.EAN_8;
   }
 
+  @Override
+  protected int getMinimumRunCount() {
+    // Guards and eight digits
+    return 43;
+  }
+
+  @Override
+  protected OneDReader newRowReader() {
+    return new EAN8Reader();
+  }
+
 }
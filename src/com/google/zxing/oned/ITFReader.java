@@ -97,16 +97,24 @@ public final class ITFReader extends OneDReader {
       {N, W, N, W, N}  // 9
   };
 
+  private static final PatternTable PATTERNS_TABLE = new PatternTable(PATTERNS, true);
+
   @Override
   public Result decodeRow(int rowNumber, BitArray row, Map<DecodeHintType,?> hints)
       throws FormatException, NotFoundException {
+    return decodeRow(rowNumber, row, new RowRuns(row), hints);
+  }
+
+  @Override
+  public Result decodeRow(int rowNumber, BitArray row, RowRuns runs, Map<DecodeHintType,?> hints)
+      throws FormatException, NotFoundException {
 
     // Find out where the Middle section (payload) starts & ends
-    int[] startRange = decodeStart(row);
-    int[] endRange = decodeEnd(row);
+    int[] startRange = decodeStart(runs);
+    int[] endRange = decodeEnd(runs);
 
     StringBuilder result = new StringBuilder(20);
-    decodeMiddle(row, startRange[1], endRange[0], result);
+    decodeMiddle(runs, startRange[1], endRange[0], result);
     String resultString = result.toString();
 
     int[] allowedLengths = null;
@@ -148,12 +156,12 @@ public final class ITFReader extends OneDReader {
   }
 
   /**
-   * @param row          row of black/white values to search
+   * @param runs         runs of black/white values to search
    * @param payloadStart offset of start pattern
    * @param resultString {@link StringBuilder} to append decoded chars to
    * @throws NotFoundException if decoding could not complete successfully
    */
-  private static void decodeMiddle(BitArray row,
+  private static void decodeMiddle(RowRuns runs,
                                    int payloadStart,
                                    int payloadEnd,
                                    StringBuilder resultString) throws NotFoundException {
@@ -170,7 +178,7 @@ public final class ITFReader extends OneDReader {
     while (payloadStart < payloadEnd) {
 
       // Get 10 runs of black/white.
-      recordPattern(row, payloadStart, counterDigitPair);
+      runs.recordPattern(payloadStart, counterDigitPair);
       // Split them into each array
       for (int k = 0; k < 5; k++) {
         int twoK = 2 * k;
@@ -192,20 +200,20 @@ public final class ITFReader extends OneDReader {
   /**
    * Identify where the start of the middle / payload section starts.
    *
-   * @param row row of black/white values to search
+   * @param runs runs of black/white values to search
    * @return Array, containing index of start of 'start block' and end of
    *         'start block'
    */
-  private int[] decodeStart(BitArray row) throws NotFoundException {
-    int endStart = skipWhiteSpace(row);
-    int[] startPattern = findGuardPattern(row, endStart, START_PATTERN);
+  private int[] decodeStart(RowRuns runs) throws NotFoundException {
+    int endStart = skipWhiteSpace(runs);
+    int[] startPattern = findGuardPattern(runs, endStart, START_PATTERN);
 
     // Determine the width of a narrow line in pixels. We can do this by
     // getting the width of the start pattern and dividing by 4 because its
     // made up of 4 narrow lines.
     this.narrowLineWidth = (startPattern[1] - startPattern[0]) / 4;
 
-    validateQuietZone(row, startPattern[0]);
+    validateQuietZone(runs, startPattern[0]);
 
     return startPattern;
   }
@@ -216,29 +224,28 @@ public final class ITFReader extends OneDReader {
    * we either get to the start of the barcode or match the necessary number of
    * quiet zone pixels.
    *
-   * Note: Its assumed the row is reversed when using this method to find
+   * Note: Its assumed the runs are reversed when using this method to find
    * quiet zone after the end pattern.
    *
    * ref: http://www.barcode-1.net/i25code.html
    *
-   * @param row bit array representing the scanned barcode.
+   * @param runs runs of the scanned barcode.
    * @param startPattern index into row of the start or end pattern.
    * @throws NotFoundException if the quiet zone cannot be found
    */
-  private void validateQuietZone(BitArray row, int startPattern) throws NotFoundException {
+  private void validateQuietZone(RowRuns runs, int startPattern) throws NotFoundException {
 
     int quietCount = this.narrowLineWidth * 10;  // expect to find this many pixels of quiet zone
 
     // if there are not so many pixel at all let's try as many as possible
     quietCount = quietCount < startPattern ? quietCount : startPattern;
-
-    for (int i = startPattern - 1; quietCount > 0 && i >= 0; i--) {
-      if (row.get(i)) {
-        break;
-      }
-      quietCount--;
+    if (quietCount == 0) {
+      return;
     }
-    if (quietCount != 0) {
+
+    // The pattern starts with a bar, so the quiet zone is the white run just before it
+    int quietRun = runs.getRunAt(startPattern - 1);
+    if (runs.isBlack(quietRun) || startPattern - runs.getStart(quietRun) < quietCount) {
       // Unable to find the necessary number of quiet zone pixels.
       throw NotFoundException.getNotFoundInstance();
     }
@@ -247,13 +254,13 @@ public final class ITFReader extends OneDReader {
   /**
    * Skip all whitespace until we get to the first black line.
    *
-   * @param row row of black/white values to search
+   * @param runs runs of black/white values to search
    * @return index of the first black line.
    * @throws NotFoundException Throws exception if no black lines are found in the row
    */
-  private static int skipWhiteSpace(BitArray row) throws NotFoundException {
-    int width = row.getSize();
-    int endStart = row.getNextSet(0);
+  private static int skipWhiteSpace(RowRuns runs) throws NotFoundException {
+    int width = runs.getSize();
+    int endStart = runs.getNextSet(0);
     if (endStart == width) {
       throw NotFoundException.getNotFoundInstance();
     }
@@ -264,80 +271,64 @@ public final class ITFReader extends OneDReader {
   /**
    * Identify where the end of the middle / payload section ends.
    *
-   * @param row row of black/white values to search
+   * @param runs runs of black/white values to search
    * @return Array, containing index of start of 'end block' and end of 'end
    *         block'
    */
-  private int[] decodeEnd(BitArray row) throws NotFoundException {
+  private int[] decodeEnd(RowRuns runs) throws NotFoundException {
 
-    // For convenience, reverse the row and then
+    // For convenience, reverse the runs and then
     // search from 'the start' for the end block
-    row.reverse();
+    runs.reverse();
     try {
-      int endStart = skipWhiteSpace(row);
+      int endStart = skipWhiteSpace(runs);
       int[] endPattern;
       try {
-        endPattern = findGuardPattern(row, endStart, END_PATTERN_REVERSED[0]);
+        endPattern = findGuardPattern(runs, endStart, END_PATTERN_REVERSED[0]);
       } catch (NotFoundException nfe) {
-        endPattern = findGuardPattern(row, endStart, END_PATTERN_REVERSED[1]);
+        endPattern = findGuardPattern(runs, endStart, END_PATTERN_REVERSED[1]);
       }
 
       // The start & end patterns must be pre/post fixed by a quiet zone. This
       // zone must be at least 10 times the width of a narrow line.
       // ref: http://www.barcode-1.net/i25code.html
-      validateQuietZone(row, endPattern[0]);
+      validateQuietZone(runs, endPattern[0]);
 
       // Now recalculate the indices of where the 'endblock' starts & stops to
       // accommodate
       // the reversed nature of the search
       int temp = endPattern[0];
-      endPattern[0] = row.getSize() - endPattern[1];
-      endPattern[1] = row.getSize() - temp;
+      endPattern[0] = runs.getSize() - endPattern[1];
+      endPattern[1] = runs.getSize() - temp;
 
       return endPattern;
     } finally {
-      // Put the row back the right way.
-      row.reverse();
+      // Put the runs back the right way.
+      runs.reverse();
     }
   }
 
   /**
-   * @param row       row of black/white values to search
-   * @param rowOffset position to start search
+   * @param runs      runs of black/white values to search
+   * @param rowOffset position to start search, at the start of a black run
    * @param pattern   pattern of counts of number of black and white pixels that are
    *                  being searched for as a pattern
    * @return start/end horizontal offset of guard pattern, as an array of two
    *         ints
    * @throws NotFoundException if pattern is not found
    */
-  private static int[] findGuardPattern(BitArray row,
+  private static int[] findGuardPattern(RowRuns runs,
                                         int rowOffset,
                                         int[] pattern) throws NotFoundException {
     int patternLength = pattern.length;
     int[] counters = new int[patternLength];
-    int width = row.getSize();
-    boolean isWhite = false;
-
-    int counterPosition = 0;
-    int patternStart = rowOffset;
-    for (int x = rowOffset; x < width; x++) {
-      if (row.get(x) != isWhite) {
-        counters[counterPosition]++;
-      } else {
-        if (counterPosition == patternLength - 1) {
-          if (patternMatchVariance(counters, pattern, MAX_INDIVIDUAL_VARIANCE) < MAX_AVG_VARIANCE) {
-            return new int[]{patternStart, x};
-          }
-          patternStart += counters[0] + counters[1];
-          System.arraycopy(counters, 2, counters, 0, counterPosition - 1);
-          counters[counterPosition - 1] = 0;
-          counters[counterPosition] = 0;
-          counterPosition--;
-        } else {
-          counterPosition++;
-        }
-        counters[counterPosition] = 1;
-        isWhite = !isWhite;
+    int runCount = runs.getRunCount();
+
+    // A pattern is only considered once the run after it has begun
+    for (int run = runs.getRunAt(rowOffset); run + patternLength < runCount; run += 2) {
+      runs.getWidths(run, counters);
+      if (patternMatchVariance(counters, pattern, MAX_INDIVIDUAL_VARIANCE) < MAX_AVG_VARIANCE) {
+        return new int[]{runs.getStart(run), runs.getStart(run + patternLength)};
       }
     }
     throw NotFoundException.getNotFoundInstance();
@@ -352,20 +343,8 @@ public final class ITFReader extends OneDReader {
    * @throws NotFoundException if digit cannot be decoded
    */
   private static int decodeDigit(int[] counters) throws NotFoundException {
-    float bestVariance = MAX_AVG_VARIANCE; // worst variance we'll accept
-    int bestMatch = -1;
-    int max = PATTERNS.length;
-    for (int i = 0; i < max; i++) {
-      int[] pattern = PATTERNS[i];
-      float variance = patternMatchVariance(counters, pattern, MAX_INDIVIDUAL_VARIANCE);
-      if (variance < bestVariance) {
-        bestVariance = variance;
-        bestMatch = i;
-      } else if (variance == bestVariance) {
-        // if we find a second 'best match' with the same variance, we can not reliably report to have a suitable match
-        bestMatch = -1;
-      }
-    }
+    // If we find a second 'best match' with the same variance, we can not reliably report to have a suitable match
+    int bestMatch = PATTERNS_TABLE.match(counters, MAX_AVG_VARIANCE, MAX_INDIVIDUAL_VARIANCE);
     if (bestMatch >= 0) {
       return bestMatch % 10;
     } else {
@@ -373,4 +352,15 @@ public final class ITFReader extends OneDReader {
     }
   }
 
+  @Override
+  protected int getMinimumRunCount() {
+    // Start, one pair of digits and end
+    return 17;
+  }
+
+  @Override
+  protected OneDReader newRowReader() {
+    return new ITFReader();
+  }
+
 }
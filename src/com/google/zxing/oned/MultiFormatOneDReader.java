@@ -89,13 +89,26 @@ public final class MultiFormatOneDReader extends OneDReader {
     this.readers = readers.toArray(EMPTY_ONED_ARRAY);
   }
 
+  private MultiFormatOneDReader(OneDReader[] readers) {
+    this.readers = readers;
+  }
+
   @Override
   public Result decodeRow(int rowNumber,
                           BitArray row,
                           Map<DecodeHintType,?> hints) throws NotFoundException {
+    return decodeRow(rowNumber, row, new RowRuns(row), hints);
+  }
+
+  @Override
+  public Result decodeRow(int rowNumber,
+                          BitArray row,
+                          RowRuns runs,
+                          Map<DecodeHintType,?> hints) throws NotFoundException {
+    // Every reader works from the same encoding of the row
     for (OneDReader reader : readers) {
       try {
-        return reader.decodeRow(rowNumber, row, hints);
+        return reader.decodeRow(rowNumber, row, runs, hints);
       } catch (ReaderException re) {
         // continue
       }
@@ -111,4 +124,25 @@ public final class MultiFormatOneDReader extends OneDReader {
     }
   }
 
+  @Override
+  protected int getMinimumRunCount() {
+    int min = Integer.MAX_VALUE;
+    for (OneDReader reader : readers) {
+      min = Math.min(min, reader.getMinimumRunCount());
+    }
+    return min;
+  }
+
+  @Override
+  protected OneDReader newRowReader() {
+    OneDReader[] newReaders = new OneDReader[readers.length];
+    for (int i = 0; i < readers.length; i++) {
+      newReaders[i] = readers[i].newRowReader();
+      if (newReaders[i] == null) {
+        return null;
+      }
+    }
+    return new MultiFormatOneDReader(newReaders);
+  }
+
 }
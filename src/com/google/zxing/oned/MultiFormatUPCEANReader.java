@@ -40,6 +40,8 @@ public final class MultiFormatUPCEANReader extends OneDReader {
   private static final UPCEANReader[] EMPTY_READER_ARRAY = new UPCEANReader[0];
 
   private final UPCEANReader[] readers;
+  // Digits after the start guard, decoded once per row for all readers
+  private final UPCEANDigits digits = new UPCEANDigits();
 
   public MultiFormatUPCEANReader(Map<DecodeHintType,?> hints) {
     @SuppressWarnings("unchecked")
@@ -68,15 +70,28 @@ public final class MultiFormatUPCEANReader extends OneDReader {
     this.readers = readers.toArray(EMPTY_READER_ARRAY);
   }
 
+  private MultiFormatUPCEANReader(UPCEANReader[] readers) {
+    this.readers = readers;
+  }
+
   @Override
   public Result decodeRow(int rowNumber,
                           BitArray row,
                           Map<DecodeHintType,?> hints) throws NotFoundException {
+    return decodeRow(rowNumber, row, new RowRuns(row), hints);
+  }
+
+  @Override
+  public Result decodeRow(int rowNumber,
+                          BitArray row,
+                          RowRuns runs,
+                          Map<DecodeHintType,?> hints) throws NotFoundException {
     // Compute this location once and reuse it on multiple implementations
-    int[] startGuardPattern = UPCEANReader.findStartGuardPattern(row);
+    int[] startGuardPattern = UPCEANReader.findStartGuardPattern(row, runs);
+    digits.reset(runs, startGuardPattern[1], false);
     for (UPCEANReader reader : readers) {
       try {
-        Result result = reader.decodeRow(rowNumber, row, startGuardPattern, hints);
+        Result result = reader.decodeRow(rowNumber, row, runs, startGuardPattern, digits, hints);
         // Special case: a 12-digit code encoded in UPC-A is identical to a "0"
         // followed by those 12 digits encoded as EAN-13. Each will recognize such a code,
         // UPC-A as a 12-digit string and EAN-13 as a 13-digit string starting with "0".
@@ -122,4 +137,22 @@ public final class MultiFormatUPCEANReader extends OneDReader {
     }
   }
 
+  @Override
+  protected int getMinimumRunCount() {
+    int min = Integer.MAX_VALUE;
+    for (UPCEANReader reader : readers) {
+      min = Math.min(min, reader.getMinimumRunCount());
+    }
+    return min;
+  }
+
+  @Override
+  protected OneDReader newRowReader() {
+    UPCEANReader[] newReaders = new UPCEANReader[readers.length];
+    for (int i = 0; i < readers.length; i++) {
+      newReaders[i] = (UPCEANReader) readers[i].newRowReader();
+    }
+    return new MultiFormatUPCEANReader(newReaders);
+  }
+
 }
@@ -19,6 +19,8 @@ package com.google.zxing.oned;
 import com.google.zxing.BinaryBitmap;
 import com.google.zxing.ChecksumException;
 import com.google.zxing.DecodeHintType;
+import com.google.zxing.DecodeListener;
+import com.google.zxing.DecodeStage;
 import com.google.zxing.FormatException;
 import com.google.zxing.NotFoundException;
 import com.google.zxing.Reader;
@@ -27,6 +29,8 @@ import com.google.zxing.Result;
 import com.google.zxing.ResultMetadataType;
 import com.google.zxing.ResultPoint;
 import com.google.zxing.common.BitArray;
+import com.google.zxing.common.DecodeContext;
+import com.google.zxing.common.ParallelTasks;
 
 import java.util.Arrays;
 import java.util.HashMap;
@@ -53,6 +57,14 @@ public abstract class OneDReader implements Reader {
     try {
       return doDecode(image, hints);
     } catch (NotFoundException nfe) {
+      if (ScanlineSweep.isRequested(hints)) {
+        try {
+          // Covers most rotated barcodes too, without a rotated copy of the image
+          return new ScanlineSweep(this, image.getLuminanceSource(), hints).decode();
+        } catch (NotFoundException ignored) {
+          // still try the rotated image when trying harder
+        }
+      }
       boolean tryHarder = hints != null && hints.containsKey(DecodeHintType.TRY_HARDER);
       if (tryHarder && image.isRotateSupported()) {
         BinaryBitmap rotatedImage = image.rotateCounterClockwise();
@@ -104,7 +116,7 @@ public abstract class OneDReader implements Reader {
                           Map<DecodeHintType,?> hints) throws NotFoundException {
     int width = image.getWidth();
     int height = image.getHeight();
-    BitArray row = new BitArray(width);
+    DecodeListener listener = hints == null ? null : (DecodeListener) hints.get(DecodeHintType.DECODE_LISTENER);
 
     boolean tryHarder = hints != null && hints.containsKey(DecodeHintType.TRY_HARDER);
     int rowStep = Math.max(1, height >> (tryHarder ? 8 : 5));
@@ -114,64 +126,349 @@ public abstract class OneDReader implements Reader {
     } else {
       maxLines = 15; // 15 rows spaced 1/32 apart is roughly the middle half of the image
     }
+    boolean consensus = hints != null && hints.containsKey(DecodeHintType.ROW_CONSENSUS);
+    int quorum = consensus ? ((Integer) hints.get(DecodeHintType.ROW_CONSENSUS)).intValue() : 1;
+    SubpixelRows subpixelRows = hints != null && hints.containsKey(DecodeHintType.SUBPIXEL_EDGES) ?
+        new SubpixelRows(image.getLuminanceSource()) : null;
+    if (subpixelRows != null) {
+      // Readers see positions in fractions of a pixel, which the callback should not
+      hints = SubpixelRows.withCallbackInPixels(hints);
+      if (!consensus) {
+        // Unless the caller says otherwise; also reported as ROW_VOTES
+        quorum = SubpixelRows.MIN_ROW_VOTES;
+      }
+    }
+
+    if (tryHarder && hints.containsKey(DecodeHintType.ROW_SCAN_THREADS)) {
+      int threads = ((Integer) hints.get(DecodeHintType.ROW_SCAN_THREADS)).intValue();
+      if (threads > 1) {
+        OneDReader[] readers = new OneDReader[threads];
+        readers[0] = this;
+        for (int i = 1; i < threads && readers[i - 1] != null; i++) {
+          readers[i] = newRowReader();
+        }
+        if (readers[threads - 1] != null) {
+          return new RowScan(image, subpixelRows, hints, rowStep, maxLines, quorum).run(readers);
+        }
+      }
+    }
+
+    DecodeContext context = hints == null ? null : (DecodeContext) hints.get(DecodeHintType.DECODE_CONTEXT);
+    BitArray row;
+    if (subpixelRows != null) {
+      row = SubpixelRows.newRow(width);
+    } else {
+      row = context == null ? new BitArray(width) : context.getRow(width);
+    }
+    RowRuns runs = new RowRuns();
+    RowVotes votes = quorum > 1 ? new RowVotes(quorum) : null;
+    int minRunCount = getMinimumRunCount();
+    int rowsScanned = 0;
+    int rowsSkipped = 0;
+    Map<DecodeHintType,?> laterHints = withoutResultPointCallback(hints);
 
-    int middle = height / 2;
     for (int x = 0; x < maxLines; x++) {
 
       // Scanning from the middle out. Determine which row we're looking at next:
-      int rowStepsAboveOrBelow = (x + 1) / 2;
-      boolean isAbove = (x & 0x01) == 0; // i.e. is x even?
-      int rowNumber = middle + rowStep * (isAbove ? rowStepsAboveOrBelow : -rowStepsAboveOrBelow);
-      if (rowNumber < 0 || rowNumber >= height) {
+      int rowNumber = getRowNumber(x, height, rowStep);
+      if (rowNumber < 0) {
         // Oops, if we run off the top or bottom, stop
         break;
       }
 
       // Estimate black point for this row and load it:
+      long start = listener == null ? 0L : System.nanoTime();
       try {
-        row = image.getBlackRow(rowNumber, row);
+        row = subpixelRows == null ? image.getBlackRow(rowNumber, row) : subpixelRows.getBlackRow(rowNumber, row);
       } catch (NotFoundException ignored) {
         continue;
+      } finally {
+        if (listener != null) {
+          listener.stageFinished(DecodeStage.BINARIZATION, System.nanoTime() - start);
+        }
+      }
+      rowsScanned++;
+      runs.encode(row);
+      if (runs.getRunCount() < minRunCount) {
+        rowsSkipped++;
+        continue;
+      }
+
+      Result result = decodeRowBothWays(this, rowNumber, row, runs, hints, laterHints);
+      // Only the first row scanned gets to report result points
+      hints = laterHints;
+      if (result != null && subpixelRows != null) {
+        SubpixelRows.toPixels(result);
+      }
+      if (result != null && votes != null) {
+        // Keep scanning until enough rows agree on a symbol
+        result = votes.add(result);
+        if (result != null) {
+          result.putMetadata(ResultMetadataType.ROW_VOTES, quorum);
+        }
+      }
+      if (result != null) {
+        if (listener != null) {
+          listener.rowsScanned(rowsScanned);
+          listener.rowsSkipped(rowsSkipped);
+        }
+        return result;
       }
+    }
+
+    if (listener != null) {
+      listener.rowsScanned(rowsScanned);
+      listener.rowsSkipped(rowsSkipped);
+    }
+    throw NotFoundException.getNotFoundInstance();
+  }
 
-      // While we have the image data in a BitArray, it's fairly cheap to reverse it in place to
-      // handle decoding upside down barcodes.
-      for (int attempt = 0; attempt < 2; attempt++) {
-        if (attempt == 1) { // trying again?
-          row.reverse(); // reverse the row and continue
-          // This means we will only ever draw result points *once* in the life of this method
-          // since we want to avoid drawing the wrong points after flipping the row, and,
-          // don't want to clutter with noise from every single row scan -- just the scans
-          // that start on the center line.
-          if (hints != null && hints.containsKey(DecodeHintType.NEED_RESULT_POINT_CALLBACK)) {
-            Map<DecodeHintType,Object> newHints = new HashMap<>();
-            newHints.putAll(hints);
-            newHints.remove(DecodeHintType.NEED_RESULT_POINT_CALLBACK);
-            hints = newHints;
+  /**
+   * @param line how many rows were scanned before this one
+   * @param height image height
+   * @param rowStep rows between two successive rows on the same side of the middle
+   * @return the row to scan, working out from the middle as described in
+   *  {@link #doDecode(BinaryBitmap, Map)}, or -1 once this runs off the top or bottom
+   */
+  static int getRowNumber(int line, int height, int rowStep) {
+    int rowStepsAboveOrBelow = (line + 1) / 2;
+    boolean isAbove = (line & 0x01) == 0; // i.e. is line even?
+    int rowNumber = height / 2 + rowStep * (isAbove ? rowStepsAboveOrBelow : -rowStepsAboveOrBelow);
+    return rowNumber < 0 || rowNumber >= height ? -1 : rowNumber;
+  }
+
+  /**
+   * We only ever draw result points *once* in the life of a scan, since we want to avoid drawing
+   * the wrong points after flipping the row, and, don't want to clutter with noise from every
+   * single row scan -- just the scans that start on the center line.
+   *
+   * @return hints for every attempt after the first, forward one
+   */
+  static Map<DecodeHintType,?> withoutResultPointCallback(Map<DecodeHintType,?> hints) {
+    if (hints == null || !hints.containsKey(DecodeHintType.NEED_RESULT_POINT_CALLBACK)) {
+      return hints;
+    }
+    Map<DecodeHintType,Object> newHints = new HashMap<>();
+    newHints.putAll(hints);
+    newHints.remove(DecodeHintType.NEED_RESULT_POINT_CALLBACK);
+    return newHints;
+  }
+
+  /**
+   * Tries to decode a row as it is, then reversed.
+   *
+   * @return the result, or null if the row could not be decoded either way. The row and runs may
+   *  be left reversed.
+   */
+  static Result decodeRowBothWays(OneDReader reader,
+                                  int rowNumber,
+                                  BitArray row,
+                                  RowRuns runs,
+                                  Map<DecodeHintType,?> hints,
+                                  Map<DecodeHintType,?> reversedHints) {
+    // While we have the image data in a BitArray, it's fairly cheap to reverse it in place to
+    // handle decoding upside down barcodes.
+    for (int attempt = 0; attempt < 2; attempt++) {
+      if (attempt == 1) { // trying again?
+        row.reverse(); // reverse the row and continue
+        runs.reverse();
+      }
+      try {
+        // Look for a barcode
+        Result result = reader.decodeRow(rowNumber, row, runs, attempt == 0 ? hints : reversedHints);
+        // We found our barcode
+        if (attempt == 1) {
+          // But it was upside down, so note that
+          result.putMetadata(ResultMetadataType.ORIENTATION, 180);
+          // And remember to flip the result points horizontally.
+          ResultPoint[] points = result.getResultPoints();
+          if (points != null) {
+            int width = row.getSize();
+            points[0] = new ResultPoint(width - points[0].getX() - 1, points[0].getY());
+            points[1] = new ResultPoint(width - points[1].getX() - 1, points[1].getY());
           }
         }
-        try {
-          // Look for a barcode
-          Result result = decodeRow(rowNumber, row, hints);
-          // We found our barcode
-          if (attempt == 1) {
-            // But it was upside down, so note that
-            result.putMetadata(ResultMetadataType.ORIENTATION, 180);
-            // And remember to flip the result points horizontally.
-            ResultPoint[] points = result.getResultPoints();
-            if (points != null) {
-              points[0] = new ResultPoint(width - points[0].getX() - 1, points[0].getY());
-              points[1] = new ResultPoint(width - points[1].getX() - 1, points[1].getY());
-            }
+        return result;
+      } catch (ReaderException re) {
+        // continue -- just couldn't decode this row
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Scans rows on several threads, each with its own reader. Rows are handed out in the same
+   * middle-out order as a scan on one thread, and results are counted in that order whichever
+   * thread finishes first. Since every reader used here decodes each row on its own, the outcome
+   * does not depend on timing. Once the rows decoded so far settle on a result, no later row is
+   * started; rows before it are still finished in case they change the outcome.
+   *
+   * Rows are binarized one at a time, since binarizers keep per-row buffers, but decoded at the
+   * same time.
+   */
+  private static final class RowScan {
+
+    private final BinaryBitmap image;
+    private final SubpixelRows subpixelRows;
+    private final Map<DecodeHintType,?> hints;
+    private final Map<DecodeHintType,?> laterHints;
+    private final DecodeListener listener;
+    private final int rowStep;
+    private final int quorum;
+    private final Result[] results;
+    private int maxLines;
+    private int nextLine;
+    private int foundLine;
+    private int rowsScanned;
+    private int rowsSkipped;
+    private boolean pointsReported;
+
+    RowScan(BinaryBitmap image,
+            SubpixelRows subpixelRows,
+            Map<DecodeHintType,?> hints,
+            int rowStep,
+            int maxLines,
+            int quorum) {
+      this.image = image;
+      this.subpixelRows = subpixelRows;
+      this.hints = hints;
+      this.laterHints = withoutResultPointCallback(hints);
+      this.listener = (DecodeListener) hints.get(DecodeHintType.DECODE_LISTENER);
+      this.rowStep = rowStep;
+      this.quorum = quorum;
+      this.results = new Result[maxLines];
+      this.maxLines = maxLines;
+      this.foundLine = maxLines;
+    }
+
+    Result run(OneDReader[] readers) throws NotFoundException {
+      Runnable[] workers = new Runnable[readers.length];
+      for (int i = 0; i < readers.length; i++) {
+        final OneDReader reader = readers[i];
+        workers[i] = new Runnable() {
+          @Override
+          public void run() {
+            scan(reader);
           }
+        };
+      }
+      ParallelTasks.run(workers, workers.length);
+      if (listener != null) {
+        listener.rowsScanned(rowsScanned);
+        listener.rowsSkipped(rowsSkipped);
+      }
+      // Every row up to the one that settled the result is finished now
+      Result result = countVotes();
+      if (result == null) {
+        throw NotFoundException.getNotFoundInstance();
+      }
+      if (quorum > 1) {
+        result.putMetadata(ResultMetadataType.ROW_VOTES, quorum);
+      }
+      return result;
+    }
+
+    /**
+     * Counts the results of the rows decoded so far, in scanning order, and moves foundLine to the
+     * line that settles on one.
+     *
+     * @return the result settled on, or null if there is none yet
+     */
+    private Result countVotes() {
+      RowVotes votes = new RowVotes(quorum);
+      for (int line = 0; line < results.length; line++) {
+        Result result = results[line] == null ? null : votes.add(results[line]);
+        if (result != null) {
+          foundLine = line;
           return result;
-        } catch (ReaderException re) {
-          // continue -- just couldn't decode this row
         }
       }
+      return null;
+    }
+
+    private void scan(OneDReader reader) {
+      int width = image.getWidth();
+      BitArray row = subpixelRows == null ? new BitArray(width) : SubpixelRows.newRow(width);
+      RowRuns runs = new RowRuns();
+      int minRunCount = reader.getMinimumRunCount();
+      int line;
+      while ((line = claim()) >= 0) {
+        int rowNumber = getRowNumber(line, image.getHeight(), rowStep);
+        if (rowNumber < 0) {
+          end(line);
+          continue;
+        }
+        BitArray loaded = getBlackRow(rowNumber, row);
+        if (loaded == null) {
+          continue;
+        }
+        row = loaded;
+        runs.encode(row);
+        if (runs.getRunCount() < minRunCount) {
+          skipped();
+          continue;
+        }
+        Result result = decodeRowBothWays(reader, rowNumber, row, runs, nextHints(), laterHints);
+        if (result != null) {
+          if (subpixelRows != null) {
+            SubpixelRows.toPixels(result);
+          }
+          found(line, result);
+        }
+      }
+    }
+
+    private synchronized int claim() {
+      return nextLine < maxLines && nextLine < foundLine ? nextLine++ : -1;
+    }
+
+    /**
+     * @return hints for the next row to be decoded: only the first gets to report result points,
+     *  as when scanning on one thread
+     */
+    private synchronized Map<DecodeHintType,?> nextHints() {
+      if (pointsReported) {
+        return laterHints;
+      }
+      pointsReported = true;
+      return hints;
+    }
+
+    private synchronized void skipped() {
+      rowsSkipped++;
+    }
+
+    private synchronized void end(int line) {
+      maxLines = Math.min(maxLines, line);
+    }
+
+    private synchronized void found(int line, Result result) {
+      results[line] = result;
+      if (line < foundLine) {
+        countVotes();
+      }
+    }
+
+    /**
+     * @return the row as loaded by the binarizer, which need not be the one passed in, or null if
+     *  it could not be loaded
+     */
+    private synchronized BitArray getBlackRow(int rowNumber, BitArray row) {
+      // Estimate black point for this row and load it:
+      long start = listener == null ? 0L : System.nanoTime();
+      try {
+        row = subpixelRows == null ? image.getBlackRow(rowNumber, row) : subpixelRows.getBlackRow(rowNumber, row);
+      } catch (NotFoundException ignored) {
+        return null;
+      } finally {
+        if (listener != null) {
+          listener.stageFinished(DecodeStage.BINARIZATION, System.nanoTime() - start);
+        }
+      }
+      rowsScanned++;
+      return row;
     }
 
-    throw NotFoundException.getNotFoundInstance();
   }
 
   /**
@@ -293,4 +590,48 @@ public abstract class OneDReader implements Reader {
   public abstract Result decodeRow(int rowNumber, BitArray row, Map<DecodeHintType,?> hints)
       throws NotFoundException, ChecksumException, FormatException;
 
+  /**
+   * <p>Like {@link #decodeRow(int, BitArray, Map)}, but given the row's runs as well, already
+   * encoded. Readers that look for patterns run by run override this so the row is only encoded
+   * once however many readers try it; the default ignores the runs.</p>
+   *
+   * @param rowNumber row number from top of the row
+   * @param row the black/white pixel data of the row
+   * @param runs the run-length encoding of row
+   * @param hints decode hints
+   * @return {@link Result} containing encoded string and start/end of barcode
+   * @throws NotFoundException if no potential barcode is found
+   * @throws ChecksumException if a potential barcode is found but does not pass its checksum
+   * @throws FormatException if a potential barcode is found but format is invalid
+   */
+  public Result decodeRow(int rowNumber, BitArray row, RowRuns runs, Map<DecodeHintType,?> hints)
+      throws NotFoundException, ChecksumException, FormatException {
+    return decodeRow(rowNumber, row, hints);
+  }
+
+  /**
+   * Used to scan rows on several threads when {@link DecodeHintType#ROW_SCAN_THREADS} is set.
+   * Each reader would only see some of the rows, in an order that depends on timing, so readers
+   * that combine what they find in several rows, such as RSS-14 and RSS Expanded, must not make
+   * one.
+   *
+   * @return a new reader configured like this one that shares no state with it, so that both
+   *  can decode rows at the same time; or null if this reader cannot make one, in which case
+   *  its rows are scanned on one thread
+   */
+  protected OneDReader newRowReader() {
+    return null;
+  }
+
+  /**
+   * Rows with fewer runs of black and white than this are passed over without calling
+   * {@link #decodeRow(int, BitArray, RowRuns, Map)}, since they cannot hold even the smallest
+   * symbol this reader finds. Rows with too little contrast are already rejected when binarized.
+   *
+   * @return number of bars and spaces in the smallest symbol, or 0 to decode every row
+   */
+  protected int getMinimumRunCount() {
+    return 0;
+  }
+
 }
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2009 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.oned;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds which of a set of patterns some observed counters match best, the way a loop over
+ * {@link OneDReader#patternMatchVariance(int[], int[], float)} for every pattern would, but
+ * mostly without computing a single variance.
+ *
+ * <p>Patterns are grouped by their total width in modules. Within a group every pattern has the
+ * same unit bar width, so the pattern with the lowest variance is the one that each counter,
+ * rounded to a whole number of modules, spells out. Rounding uses integer arithmetic only, and the
+ * rounded widths index a table built once per set of patterns. Only that one pattern then needs
+ * its variance checked against the limits. When the rounded widths spell no pattern, or a counter
+ * falls exactly halfway between two widths, all patterns of the group are tried as before.
+ * If no counter may stray half a module or more, no other pattern could have been accepted
+ * either, and that is skipped too.</p>
+ *
+ * <p>A table holds no state between calls and can be shared by readers on any thread.</p>
+ */
+public final class PatternTable {
+
+  private static final int NOT_FOUND = -1;
+  private static final int AMBIGUOUS = -2;
+
+  private final int[][] patterns;
+  private final int numCounters;
+  private final boolean rejectTies;
+  private final int maxWidth;
+  private final int[] groupModules;
+  private final int[][] groupPatterns;
+  private final int[][] groupTables;
+
+  /**
+   * @param patterns patterns to match, all at least as long as the first one; only that many
+   *  elements of each are matched
+   */
+  public PatternTable(int[][] patterns) {
+    this(patterns, false);
+  }
+
+  /**
+   * @param patterns patterns to match, all at least as long as the first one; only that many
+   *  elements of each are matched
+   * @param rejectTies if true, two patterns matching equally well is no match, rather than a
+   *  match of the first of them
+   */
+  public PatternTable(int[][] patterns, boolean rejectTies) {
+    this.patterns = patterns;
+    this.numCounters = patterns[0].length;
+    this.rejectTies = rejectTies;
+
+    int max = 0;
+    List<Integer> modules = new ArrayList<>();
+    for (int[] pattern : patterns) {
+      int total = 0;
+      for (int i = 0; i < numCounters; i++) {
+        if (pattern[i] < 1) {
+          throw new IllegalArgumentException("Pattern elements must be at least one module wide");
+        }
+        max = Math.max(max, pattern[i]);
+        total += pattern[i];
+      }
+      if (!modules.contains(total)) {
+        modules.add(total);
+      }
+    }
+    maxWidth = max;
+
+    int numGroups = modules.size();
+    int tableSize = 1;
+    for (int i = 1; i < numCounters; i++) {
+      tableSize *= maxWidth;
+    }
+    groupModules = new int[numGroups];
+    groupPatterns = new int[numGroups][];
+    groupTables = new int[numGroups][tableSize];
+    for (int group = 0; group < numGroups; group++) {
+      groupModules[group] = modules.get(group);
+      int[] table = groupTables[group];
+      for (int i = 0; i < tableSize; i++) {
+        table[i] = NOT_FOUND;
+      }
+      int count = 0;
+      int[] members = new int[patterns.length];
+      for (int index = 0; index < patterns.length; index++) {
+        int[] pattern = patterns[index];
+        int total = 0;
+        int key = 0;
+        for (int i = 0; i < numCounters; i++) {
+          total += pattern[i];
+          if (i < numCounters - 1) {
+            key = key * maxWidth + pattern[i] - 1;
+          }
+        }
+        if (total == groupModules[group]) {
+          members[count++] = index;
+          // The variance loop keeps the first of two identical patterns
+          if (table[key] == NOT_FOUND) {
+            table[key] = index;
+          }
+        }
+      }
+      groupPatterns[group] = new int[count];
+      System.arraycopy(members, 0, groupPatterns[group], 0, count);
+    }
+  }
+
+  /**
+   * @param counters observed counters, as many as the patterns are long
+   * @param maxAvgVariance the highest average variance of a pattern that is accepted
+   * @param maxIndividualVariance the most any counter can differ before a pattern is rejected
+   * @return index of the pattern with the lowest variance below maxAvgVariance, or -1 if there is
+   *  none
+   */
+  public int match(int[] counters, float maxAvgVariance, float maxIndividualVariance) {
+    int total = 0;
+    for (int i = 0; i < numCounters; i++) {
+      total += counters[i];
+    }
+    float bestVariance = maxAvgVariance;
+    int bestMatch = -1;
+    for (int group = 0; group < groupModules.length; group++) {
+      if (total < groupModules[group]) {
+        // Less than a pixel per module; every pattern of the group would be rejected
+        continue;
+      }
+      int candidate = lookup(counters, total, group);
+      int[] members;
+      if (candidate >= 0) {
+        members = null;
+      } else if (candidate == AMBIGUOUS || maxIndividualVariance >= 0.5f) {
+        members = groupPatterns[group];
+      } else {
+        continue;
+      }
+      int count = members == null ? 1 : members.length;
+      for (int i = 0; i < count; i++) {
+        int index = members == null ? candidate : members[i];
+        float variance = OneDReader.patternMatchVariance(counters, patterns[index], maxIndividualVariance);
+        if (variance < bestVariance) {
+          bestVariance = variance;
+          bestMatch = index;
+        } else if (rejectTies && variance == bestVariance) {
+          bestMatch = -1;
+        }
+      }
+    }
+    return bestMatch;
+  }
+
+  /**
+   * @return index of the pattern spelled out by the counters rounded to modules of this group;
+   *  {@link #NOT_FOUND} if they spell none, or {@link #AMBIGUOUS} if a counter cannot be rounded
+   */
+  private int lookup(int[] counters, int total, int group) {
+    int modules = groupModules[group];
+    int twiceTotal = total << 1;
+    int key = 0;
+    int sum = 0;
+    for (int i = 0; i < numCounters; i++) {
+      // counters[i] * modules / total, rounded to the nearest integer
+      int scaled = (counters[i] * modules) << 1;
+      int width = scaled / twiceTotal;
+      int remainder = scaled - width * twiceTotal;
+      if (remainder == total) {
+        return AMBIGUOUS;
+      }
+      if (remainder > total) {
+        width++;
+      }
+      if (width < 1 || width > maxWidth) {
+        return NOT_FOUND;
+      }
+      sum += width;
+      if (i < numCounters - 1) {
+        key = key * maxWidth + width - 1;
+      }
+    }
+    return sum == modules ? groupTables[group][key] : NOT_FOUND;
+  }
+
+}
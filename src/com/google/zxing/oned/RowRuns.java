@@ -0,0 +1,215 @@
+/*
+ * Copyright 2009 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.oned;
+
+import com.google.zxing.NotFoundException;
+import com.google.zxing.common.BitArray;
+
+/**
+ * The run-length encoding of a row: where each run of black or white pixels starts, in order.
+ * Runs alternate in colour, so only the colour of the first one is stored.
+ *
+ * {@link OneDReader} encodes each row once and hands it to every reader along with the row, so
+ * that looking for start patterns and recording counters steps from one run to the next instead
+ * of testing every pixel again in each reader. An instance can be encoded again for each new row
+ * and only reallocates its storage when rows get longer.
+ */
+public final class RowRuns {
+
+  private int[] starts;
+  private int runCount;
+  private int size;
+  private boolean firstBlack;
+
+  public RowRuns() {
+    starts = new int[1];
+  }
+
+  /**
+   * @param row row to encode
+   */
+  public RowRuns(BitArray row) {
+    this();
+    encode(row);
+  }
+
+  /**
+   * Replaces the runs with those of another row.
+   *
+   * @param row row to encode
+   */
+  public void encode(BitArray row) {
+    size = row.getSize();
+    if (starts.length < size + 1) {
+      starts = new int[size + 1];
+    }
+    runCount = 0;
+    boolean black = size > 0 && row.get(0);
+    firstBlack = black;
+    int x = 0;
+    while (x < size) {
+      starts[runCount++] = x;
+      x = black ? row.getNextUnset(x) : row.getNextSet(x);
+      black = !black;
+    }
+    starts[runCount] = size;
+  }
+
+  /**
+   * Reverses the runs in place, to match a row after {@link BitArray#reverse()}.
+   */
+  public void reverse() {
+    if (runCount == 0) {
+      return;
+    }
+    firstBlack = isBlack(runCount - 1);
+    // Run i of the reversed row spans what run runCount - 1 - i spanned, mirrored
+    for (int i = 0, j = runCount; i <= j; i++, j--) {
+      int start = size - starts[j];
+      starts[j] = size - starts[i];
+      starts[i] = start;
+    }
+  }
+
+  /**
+   * @return number of pixels in the row
+   */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * @return number of runs in the row
+   */
+  public int getRunCount() {
+    return runCount;
+  }
+
+  /**
+   * @param run index of a run
+   * @return true if it is a run of black pixels
+   */
+  public boolean isBlack(int run) {
+    return ((run & 0x01) == 0) == firstBlack;
+  }
+
+  /**
+   * @return index of the first black run; equal to {@link #getRunCount()} if there is none
+   */
+  public int getFirstBlackRun() {
+    return firstBlack || runCount == 0 ? 0 : 1;
+  }
+
+  /**
+   * @param run index of a run, or the run count for the end of the row
+   * @return position of its first pixel
+   */
+  public int getStart(int run) {
+    return starts[run];
+  }
+
+  /**
+   * @param run index of a run
+   * @return number of pixels in it
+   */
+  public int getWidth(int run) {
+    return starts[run + 1] - starts[run];
+  }
+
+  /**
+   * @param x position in the row
+   * @return index of the run containing it
+   */
+  public int getRunAt(int x) {
+    int low = 0;
+    int high = runCount - 1;
+    while (low < high) {
+      int middle = (low + high + 1) >>> 1;
+      if (starts[middle] <= x) {
+        low = middle;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * @param from first position to check
+   * @return like {@link BitArray#getNextSet(int)}, position of the first black pixel at or after
+   *  from, or the size of the row if there is none
+   */
+  public int getNextSet(int from) {
+    return getNext(from, true);
+  }
+
+  /**
+   * @param from first position to check
+   * @return like {@link BitArray#getNextUnset(int)}, position of the first white pixel at or after
+   *  from, or the size of the row if there is none
+   */
+  public int getNextUnset(int from) {
+    return getNext(from, false);
+  }
+
+  private int getNext(int from, boolean black) {
+    if (from >= size) {
+      return size;
+    }
+    int run = getRunAt(from);
+    if (isBlack(run) == black) {
+      return from;
+    }
+    return starts[run + 1];
+  }
+
+  /**
+   * Copies the widths of successive runs into an array, one run per element.
+   *
+   * @param firstRun index of the run to start at; there must be at least counters.length runs
+   *  from it to the end of the row
+   * @param counters array into which to record widths
+   */
+  public void getWidths(int firstRun, int[] counters) {
+    for (int i = 0; i < counters.length; i++) {
+      counters[i] = starts[firstRun + i + 1] - starts[firstRun + i];
+    }
+  }
+
+  /**
+   * Same as {@link OneDReader#recordPattern(BitArray, int, int[])} on the encoded row: the first
+   * counter is the rest of the run containing start, and each following one a whole run.
+   *
+   * @param start offset into row to start at
+   * @param counters array into which to record counts
+   * @throws NotFoundException if counters cannot be filled entirely from row before running out
+   *  of pixels
+   */
+  public void recordPattern(int start, int[] counters) throws NotFoundException {
+    if (start < 0 || start >= size) {
+      throw NotFoundException.getNotFoundInstance();
+    }
+    int run = getRunAt(start);
+    int numCounters = counters.length;
+    if (run + numCounters > runCount) {
+      throw NotFoundException.getNotFoundInstance();
+    }
+    getWidths(run, counters);
+    counters[0] -= start - starts[run];
+  }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2009 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.oned;
+
+import com.google.zxing.Result;
+import com.google.zxing.ResultPoint;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Counts how many rows decoded to each symbol, for {@link com.google.zxing.DecodeHintType#ROW_CONSENSUS}.
+ * Two rows vote for the same symbol when they read the same format and contents over horizontally
+ * overlapping spans. A misread of a symbol therefore collects its own votes, apart from the correct
+ * reading, and only wins if enough rows repeat it.
+ */
+final class RowVotes {
+
+  private final int quorum;
+  private final List<Candidate> candidates = new ArrayList<>();
+
+  /**
+   * @param quorum how many rows must agree on a symbol before it is accepted
+   */
+  RowVotes(int quorum) {
+    this.quorum = quorum;
+  }
+
+  /**
+   * @param result what one row decoded to
+   * @return the result of the first row that read this symbol, once this row brings it to the
+   *  quorum; null until then, and after
+   */
+  Result add(Result result) {
+    for (Candidate candidate : candidates) {
+      if (candidate.matches(result)) {
+        return ++candidate.votes == quorum ? candidate.result : null;
+      }
+    }
+    Candidate candidate = new Candidate(result);
+    candidates.add(candidate);
+    return quorum <= 1 ? result : null;
+  }
+
+  /**
+   * @return leftmost and rightmost x of the result's points; unbounded if it has none
+   */
+  private static float[] getSpan(Result result) {
+    ResultPoint[] points = result.getResultPoints();
+    if (points == null || points.length == 0) {
+      return new float[] {Float.NEGATIVE_INFINITY, Float.POSITIVE_INFINITY};
+    }
+    float left = Float.POSITIVE_INFINITY;
+    float right = Float.NEGATIVE_INFINITY;
+    for (ResultPoint point : points) {
+      left = Math.min(left, point.getX());
+      right = Math.max(right, point.getX());
+    }
+    return new float[] {left, right};
+  }
+
+  private static final class Candidate {
+
+    private final Result result;
+    private final float[] span;
+    private int votes;
+
+    Candidate(Result result) {
+      this.result = result;
+      this.span = getSpan(result);
+      this.votes = 1;
+    }
+
+    boolean matches(Result other) {
+      if (other.getBarcodeFormat() != result.getBarcodeFormat() || !other.getText().equals(result.getText())) {
+        return false;
+      }
+      float[] otherSpan = getSpan(other);
+      return otherSpan[0] <= span[1] && otherSpan[1] >= span[0];
+    }
+
+  }
+
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2009 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.oned;
+
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.DecodeListener;
+import com.google.zxing.DecodeStage;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.Result;
+import com.google.zxing.ResultMetadataType;
+import com.google.zxing.ResultPoint;
+import com.google.zxing.common.BitArray;
+import com.google.zxing.common.GlobalHistogramBinarizer;
+
+import java.util.Map;
+
+/**
+ * Looks for a 1D barcode along lines at angles to the rows of an image, for
+ * {@link DecodeHintType#SCANLINE_ANGLE_STEP}. Each line is sampled straight from the luminance
+ * plane into a row of its own, binarized like any row and handed to
+ * {@link OneDReader#decodeRow(int, BitArray, RowRuns, Map)}, so no rotated copy of the image is
+ * ever made.
+ *
+ * Angles are tried from the ones closest to horizontal outwards, ending with vertical. At each
+ * angle, lines are spaced across the image from the middle out, like rows in
+ * {@link OneDReader#decode(com.google.zxing.BinaryBitmap, Map)}. Result points are given in image
+ * coordinates, and the orientation is the angle of the line the barcode was read along.
+ */
+final class ScanlineSweep {
+
+  private final OneDReader reader;
+  private final LuminanceSource source;
+  private final Map<DecodeHintType,?> hints;
+  private final DecodeListener listener;
+  private final int angleStep;
+  private final boolean tryHarder;
+  private final int quorum;
+  private final RowRuns runs;
+  private final GlobalHistogramBinarizer binarizer;
+  private byte[] luminances;
+  private byte[] line;
+  private BitArray row;
+  private int rowsScanned;
+  private int rowsSkipped;
+
+  /**
+   * @param reader reader to decode each line with
+   * @param source pixels to sample lines from
+   * @param hints decode hints, including a {@link DecodeHintType#SCANLINE_ANGLE_STEP} for which
+   *  {@link #isRequested(Map)} holds
+   */
+  ScanlineSweep(OneDReader reader, LuminanceSource source, Map<DecodeHintType,?> hints) {
+    this.reader = reader;
+    this.source = source;
+    // Points along an angled line mean nothing to a callback expecting row coordinates
+    this.hints = OneDReader.withoutResultPointCallback(hints);
+    this.listener = (DecodeListener) hints.get(DecodeHintType.DECODE_LISTENER);
+    this.angleStep = ((Integer) hints.get(DecodeHintType.SCANLINE_ANGLE_STEP)).intValue();
+    this.tryHarder = hints.containsKey(DecodeHintType.TRY_HARDER);
+    this.quorum = hints.containsKey(DecodeHintType.ROW_CONSENSUS) ?
+        ((Integer) hints.get(DecodeHintType.ROW_CONSENSUS)).intValue() : 1;
+    this.runs = new RowRuns();
+    // Only thresholds lines sampled from the source, so one histogram serves the whole sweep
+    this.binarizer = new GlobalHistogramBinarizer(source);
+  }
+
+  /**
+   * @return true if {@link DecodeHintType#SCANLINE_ANGLE_STEP} is set to a step from 1 to 179
+   *  degrees; other values are ignored
+   */
+  static boolean isRequested(Map<DecodeHintType,?> hints) {
+    Object angleStep = hints == null ? null : hints.get(DecodeHintType.SCANLINE_ANGLE_STEP);
+    if (!(angleStep instanceof Integer)) {
+      return false;
+    }
+    int degrees = ((Integer) angleStep).intValue();
+    return degrees > 0 && degrees < 180;
+  }
+
+  Result decode() throws NotFoundException {
+    luminances = source.getMatrix();
+    int width = source.getWidth();
+    int height = source.getHeight();
+    line = new byte[(int) Math.sqrt((double) width * width + (double) height * height) + 2];
+    RowVotes votes = quorum > 1 ? new RowVotes(quorum) : null;
+    int minRunCount = reader.getMinimumRunCount();
+    try {
+      boolean verticalDone = false;
+      for (int angle = angleStep; angle <= 90; angle += angleStep) {
+        Result result = decodeAngle(angle, votes, minRunCount);
+        if (result == null && angle < 90) {
+          result = decodeAngle(180 - angle, votes, minRunCount);
+        }
+        if (result != null) {
+          return result;
+        }
+        verticalDone = angle == 90;
+      }
+      if (!verticalDone) {
+        Result result = decodeAngle(90, votes, minRunCount);
+        if (result != null) {
+          return result;
+        }
+      }
+    } finally {
+      // Don't let the rotated image that may follow pair its rows with what the lines found
+      reader.reset();
+      if (listener != null) {
+        listener.rowsScanned(rowsScanned);
+        listener.rowsSkipped(rowsSkipped);
+      }
+    }
+    throw NotFoundException.getNotFoundInstance();
+  }
+
+  /**
+   * @param angle direction of the lines, in degrees clockwise from reading left to right
+   * @param minRunCount lines with fewer runs are not decoded
+   * @return the result, or null if no line at this angle could be decoded
+   */
+  private Result decodeAngle(int angle, RowVotes votes, int minRunCount) {
+    int width = source.getWidth();
+    int height = source.getHeight();
+    double radians = Math.toRadians(angle);
+    float dx = (float) Math.cos(radians);
+    float dy = (float) Math.sin(radians);
+
+    // How far the image reaches across the lines, which is where lines are spaced out
+    int extent = (int) (Math.abs(width * dy) + Math.abs(height * dx));
+    int lineStep = Math.max(1, extent >> (tryHarder ? 6 : 5));
+    int maxLines = tryHarder ? extent : 15;
+
+    // Readers that combine rows, such as RSS, must neither pair what they found in the rows of the
+    // image or at another angle with what they find at this one
+    reader.reset();
+    for (int x = 0; x < maxLines; x++) {
+      int lineNumber = OneDReader.getRowNumber(x, extent, lineStep);
+      if (lineNumber < 0) {
+        break;
+      }
+      // The point of the line closest to the centre of the image
+      float offset = lineNumber - extent / 2.0f;
+      float centerX = width / 2.0f - offset * dy;
+      float centerY = height / 2.0f + offset * dx;
+
+      // Clip the line to the image
+      float[] range = {Float.NEGATIVE_INFINITY, Float.POSITIVE_INFINITY};
+      if (!clip(centerX, dx, width, range) || !clip(centerY, dy, height, range)) {
+        continue;
+      }
+      float startX = centerX + range[0] * dx;
+      float startY = centerY + range[0] * dy;
+      int length = (int) (range[1] - range[0]) + 1;
+      if (length < 3) {
+        continue;
+      }
+
+      long start = listener == null ? 0L : System.nanoTime();
+      try {
+        sample(startX, startY, dx, dy, length);
+        if (row == null || row.getSize() != length) {
+          row = new BitArray(length);
+        }
+        row = binarizer.getBlackRow(line, length, row);
+      } catch (NotFoundException ignored) {
+        continue;
+      } finally {
+        if (listener != null) {
+          listener.stageFinished(DecodeStage.BINARIZATION, System.nanoTime() - start);
+        }
+      }
+      rowsScanned++;
+      runs.encode(row);
+      if (runs.getRunCount() < minRunCount) {
+        rowsSkipped++;
+        continue;
+      }
+
+      // Lines at one angle are numbered across the image like rows
+      Result result = OneDReader.decodeRowBothWays(reader, lineNumber, row, runs, hints, hints);
+      if (result == null) {
+        continue;
+      }
+      toImage(result, startX, startY, dx, dy, angle);
+      if (votes != null) {
+        result = votes.add(result);
+        if (result != null) {
+          result.putMetadata(ResultMetadataType.ROW_VOTES, quorum);
+        }
+      }
+      if (result != null) {
+        return result;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Narrows the range of distances along a line to those where one coordinate is within the image.
+   *
+   * @param from coordinate at distance 0
+   * @param delta change in the coordinate per unit of distance
+   * @param size image size along the coordinate
+   * @param range lowest and highest distance, narrowed in place
+   * @return false if no part of the line is within the image
+   */
+  private static boolean clip(float from, float delta, int size, float[] range) {
+    float max = size - 1;
+    if (Math.abs(delta) < 1.0e-6f) {
+      return from >= 0.0f && from <= max;
+    }
+    float low = -from / delta;
+    float high = (max - from) / delta;
+    if (low > high) {
+      float temp = low;
+      low = high;
+      high = temp;
+    }
+    range[0] = Math.max(range[0], low);
+    range[1] = Math.min(range[1], high);
+    return range[0] <= range[1];
+  }
+
+  /**
+   * Copies the nearest pixel to each unit step along a line into {@link #line}.
+   */
+  private void sample(float startX, float startY, float dx, float dy, int length) {
+    int width = source.getWidth();
+    int maxX = width - 1;
+    int maxY = source.getHeight() - 1;
+    byte[] localLuminances = luminances;
+    byte[] localLine = line;
+    for (int i = 0; i < length; i++) {
+      int x = Math.min(maxX, Math.max(0, (int) (startX + i * dx + 0.5f)));
+      int y = Math.min(maxY, Math.max(0, (int) (startY + i * dy + 0.5f)));
+      localLine[i] = localLuminances[y * width + x];
+    }
+  }
+
+  /**
+   * Moves result points from positions along a line to the image, and records the line's angle.
+   */
+  private static void toImage(Result result, float startX, float startY, float dx, float dy, int angle) {
+    ResultPoint[] points = result.getResultPoints();
+    if (points != null) {
+      for (int i = 0; i < points.length; i++) {
+        float distance = points[i].getX();
+        points[i] = new ResultPoint(startX + distance * dx, startY + distance * dy);
+      }
+    }
+    Map<ResultMetadataType,?> metadata = result.getResultMetadata();
+    int orientation = angle;
+    if (metadata != null && metadata.containsKey(ResultMetadataType.ORIENTATION)) {
+      // Found reversed along the line
+      orientation = (orientation + (Integer) metadata.get(ResultMetadataType.ORIENTATION)) % 360;
+    }
+    result.putMetadata(ResultMetadataType.ORIENTATION, orientation);
+  }
+
+}
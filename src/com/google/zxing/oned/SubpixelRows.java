@@ -0,0 +1,331 @@
+/*
+ * Copyright 2009 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.oned;
+
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.Result;
+import com.google.zxing.ResultPoint;
+import com.google.zxing.ResultPointCallback;
+import com.google.zxing.common.BitArray;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Loads rows for {@link DecodeHintType#SUBPIXEL_EDGES} straight from the luminance, placing each
+ * edge between a bar and a space to a fraction of a pixel instead of rounding it to a whole pixel
+ * the way a binarizer does.
+ *
+ * <p>Bars and spaces are first found as alternating dips and peaks in luminance, each differing
+ * from the one before by enough not to be noise. A bar only a pixel or so wide shows up as a dip
+ * even when blur keeps it from getting as dark as wider bars. Each edge is then placed where the
+ * luminance between a peak and its neighbouring dip crosses the level halfway between black and
+ * white nearby, interpolating between the centres of the two pixels either side. For a sharp edge
+ * this recovers how much of the pixel it cuts through was covered by the bar.</p>
+ *
+ * <p>The rows handed to readers hold {@link #SCALE} bits per pixel, so that each run is a whole
+ * number of fractions of a pixel. Readers match patterns by their proportions only, so they need
+ * no changes; positions in their results are scaled back to pixels by
+ * {@link #toPixels(Result)}.</p>
+ */
+final class SubpixelRows {
+
+  /** Bits in a row for each pixel of the image. */
+  static final int SCALE = 8;
+
+  /**
+   * Rows that must agree on a result when {@link DecodeHintType#ROW_CONSENSUS} is not set. Noise is
+   * easily mistaken for narrow bars and spaces measured to a fraction of a pixel.
+   */
+  static final int MIN_ROW_VOTES = 2;
+
+  // Peaks and dips closer than this are taken to be noise, whatever the contrast of the row
+  private static final int MIN_SWING = 16;
+  // ... and so are those closer than this fraction of the range of luminance in the row
+  private static final int SWING_DIVISOR = 4;
+  // A narrow bar or space blurred short of halfway between black and white must still stand out
+  // from its neighbours by this fraction of the contrast around it
+  private static final int NARROW_DIVISOR = 3;
+  // Black and white levels are taken from blocks of this many pixels and their neighbours
+  private static final int BLOCK_SIZE = 16;
+
+  private final LuminanceSource source;
+  private byte[] luminances;
+  private int[] extremes;
+  private int[] blockMin;
+  private int[] blockMax;
+
+  SubpixelRows(LuminanceSource source) {
+    this.source = source;
+  }
+
+  /**
+   * @return a row for this many pixels, to pass to {@link #getBlackRow(int, BitArray)}
+   */
+  static BitArray newRow(int width) {
+    return new BitArray(width * SCALE);
+  }
+
+  /**
+   * Loads a row of the image with {@link #SCALE} bits per pixel. Not thread safe.
+   *
+   * @param y row of the image
+   * @param row row to reuse, from {@link #newRow(int)}
+   * @return the row, with set bits for black
+   * @throws NotFoundException if the row has too little contrast to tell bars from noise
+   */
+  BitArray getBlackRow(int y, BitArray row) throws NotFoundException {
+    int width = source.getWidth();
+    if (row == null || row.getSize() != width * SCALE) {
+      row = newRow(width);
+    } else {
+      row.clear();
+    }
+    luminances = source.getRow(y, luminances);
+    byte[] localLuminances = luminances;
+
+    int numBlocks = (width + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    if (blockMin == null || blockMin.length < numBlocks) {
+      blockMin = new int[numBlocks];
+      blockMax = new int[numBlocks];
+    }
+    if (extremes == null || extremes.length < width) {
+      extremes = new int[width];
+    }
+    int min = 255;
+    int max = 0;
+    for (int block = 0; block < numBlocks; block++) {
+      int blockLow = 255;
+      int blockHigh = 0;
+      int end = Math.min(width, (block + 1) * BLOCK_SIZE);
+      for (int x = block * BLOCK_SIZE; x < end; x++) {
+        int pixel = localLuminances[x] & 0xff;
+        blockLow = Math.min(blockLow, pixel);
+        blockHigh = Math.max(blockHigh, pixel);
+      }
+      blockMin[block] = blockLow;
+      blockMax[block] = blockHigh;
+      min = Math.min(min, blockLow);
+      max = Math.max(max, blockHigh);
+    }
+    int swing = Math.max(MIN_SWING, (max - min) / SWING_DIVISOR);
+    if (max - min < swing) {
+      throw NotFoundException.getNotFoundInstance();
+    }
+
+    // Less contrast than this nearby is only noise in a wide bar or space
+    int minContrast = (max - min) >> 1;
+    int numExtremes = findExtremes(localLuminances, width, swing);
+    if (numExtremes < 2) {
+      throw NotFoundException.getNotFoundInstance();
+    }
+
+    // An edge between each peak and dip that are not the same colour. Before the first extreme,
+    // the row is its colour.
+    int rowMiddle = (min + max) >> 1;
+    boolean black = isBlack(0, numExtremes, minContrast, rowMiddle);
+    float barStart = black ? 0.0f : -1.0f;
+    for (int i = 1; i < numExtremes; i++) {
+      if (isBlack(i, numExtremes, minContrast, rowMiddle) == black) {
+        // Noise within a bar or space
+        continue;
+      }
+      black = !black;
+      int from = extremes[i - 1];
+      int to = extremes[i];
+      float edge = findEdge(localLuminances, from, to, threshold(from, to, minContrast, rowMiddle));
+      if (barStart < 0.0f) {
+        barStart = edge;
+      } else {
+        setBar(row, barStart, edge);
+        barStart = -1.0f;
+      }
+    }
+    if (barStart >= 0.0f) {
+      // Black to the end of the row
+      setBar(row, barStart, width);
+    }
+    return row;
+  }
+
+  /**
+   * Finds alternating peaks and dips in luminance, each at least swing from the one before.
+   *
+   * @return how many were found; their positions are in {@link #extremes}
+   */
+  private int findExtremes(byte[] localLuminances, int width, int swing) {
+    int[] localExtremes = extremes;
+    int count = 0;
+    // 1 once the last extreme found is a dip, so the next is a peak; -1 the other way round
+    int lookingFor = 0;
+    int highPos = 0;
+    int lowPos = 0;
+    int high = localLuminances[0] & 0xff;
+    int low = high;
+    for (int x = 1; x < width; x++) {
+      int pixel = localLuminances[x] & 0xff;
+      if (pixel > high) {
+        high = pixel;
+        highPos = x;
+      }
+      if (pixel < low) {
+        low = pixel;
+        lowPos = x;
+      }
+      if (lookingFor >= 0 && pixel < high - swing) {
+        localExtremes[count++] = highPos;
+        lookingFor = -1;
+        low = pixel;
+        lowPos = x;
+      } else if (lookingFor <= 0 && pixel > low + swing) {
+        localExtremes[count++] = lowPos;
+        lookingFor = 1;
+        high = pixel;
+        highPos = x;
+      }
+    }
+    // The last extreme has not been followed by a swing back, but is one all the same
+    if (lookingFor != 0) {
+      localExtremes[count++] = lookingFor > 0 ? highPos : lowPos;
+    }
+    return count;
+  }
+
+  /**
+   * @return whether an extreme is in a bar. A dip is if it gets darker than halfway between black
+   *  and white nearby, but so is one that falls well short of that if it still stands out from
+   *  the peaks either side by a good part of the contrast: a narrow bar, blurred. The same goes
+   *  the other way round for a peak.
+   */
+  private boolean isBlack(int i, int numExtremes, int minContrast, int rowMiddle) {
+    int position = extremes[i];
+    int pixel = luminances[position] & 0xff;
+    int block = position / BLOCK_SIZE;
+    int low = 255;
+    int high = 0;
+    for (int b = Math.max(0, block - 1); b <= Math.min(blockMin.length - 1, block + 1); b++) {
+      low = Math.min(low, blockMin[b]);
+      high = Math.max(high, blockMax[b]);
+    }
+    int previous = i > 0 ? luminances[extremes[i - 1]] & 0xff : -1;
+    int next = i + 1 < numExtremes ? luminances[extremes[i + 1]] & 0xff : -1;
+    boolean dip = next >= 0 ? pixel < next : pixel < previous;
+    if (high - low < minContrast) {
+      // Wide bars or spaces can leave nothing but one colour nearby
+      return pixel < rowMiddle;
+    }
+    int middle = (low + high) >> 1;
+    if (dip ? pixel < middle : pixel >= middle) {
+      return dip;
+    }
+    int standsOut;
+    if (previous < 0 || next < 0) {
+      standsOut = Math.abs(Math.max(previous, next) - pixel);
+    } else {
+      standsOut = dip ? Math.min(previous, next) - pixel : pixel - Math.max(previous, next);
+    }
+    return standsOut * NARROW_DIVISOR >= high - low ? dip : !dip;
+  }
+
+  /**
+   * @return the level halfway between black and white around two neighbouring extremes, kept
+   *  between their luminances so that an edge is always found between them
+   */
+  private int threshold(int from, int to, int minContrast, int rowMiddle) {
+    int fromBlock = from / BLOCK_SIZE;
+    int toBlock = to / BLOCK_SIZE;
+    int firstBlock = Math.max(0, Math.min(fromBlock, toBlock) - 1);
+    int lastBlock = Math.min(blockMin.length - 1, Math.max(fromBlock, toBlock) + 1);
+    int low = 255;
+    int high = 0;
+    for (int block = firstBlock; block <= lastBlock; block++) {
+      low = Math.min(low, blockMin[block]);
+      high = Math.max(high, blockMax[block]);
+    }
+    // Wide bars or spaces can leave nothing but one colour nearby
+    int threshold = high - low >= minContrast ? (low + high) >> 1 : rowMiddle;
+    int fromLuminance = luminances[from] & 0xff;
+    int toLuminance = luminances[to] & 0xff;
+    if (threshold <= Math.min(fromLuminance, toLuminance) || threshold >= Math.max(fromLuminance, toLuminance)) {
+      // A narrow bar or space blurred into not reaching the level
+      threshold = (fromLuminance + toLuminance) >> 1;
+    }
+    return threshold;
+  }
+
+  /**
+   * @return where luminance first crosses the threshold going from one extreme to the next, in
+   *  pixels, interpolating between pixel centres
+   */
+  private static float findEdge(byte[] localLuminances, int from, int to, int threshold) {
+    boolean falling = (localLuminances[from] & 0xff) > (localLuminances[to] & 0xff);
+    for (int x = from; x < to; x++) {
+      int here = localLuminances[x] & 0xff;
+      int next = localLuminances[x + 1] & 0xff;
+      if (falling ? next <= threshold : next >= threshold) {
+        return x + 0.5f + (float) (here - threshold) / (here - next);
+      }
+    }
+    return to;
+  }
+
+  private static void setBar(BitArray row, float start, float end) {
+    int from = Math.max(0, Math.round(start * SCALE));
+    int to = Math.min(row.getSize(), Math.round(end * SCALE));
+    if (from < to) {
+      row.setRange(from, to);
+    }
+  }
+
+  /**
+   * Moves result points from positions in a row with {@link #SCALE} bits per pixel to pixels.
+   */
+  static void toPixels(Result result) {
+    ResultPoint[] points = result.getResultPoints();
+    if (points != null) {
+      for (int i = 0; i < points.length; i++) {
+        if (points[i] != null) {
+          points[i] = new ResultPoint(points[i].getX() / SCALE, points[i].getY());
+        }
+      }
+    }
+  }
+
+  /**
+   * @return hints whose result point callback, if any, is given points in pixels rather than
+   *  positions in a row with {@link #SCALE} bits per pixel
+   */
+  static Map<DecodeHintType,?> withCallbackInPixels(Map<DecodeHintType,?> hints) {
+    if (hints == null || !hints.containsKey(DecodeHintType.NEED_RESULT_POINT_CALLBACK)) {
+      return hints;
+    }
+    final ResultPointCallback callback =
+        (ResultPointCallback) hints.get(DecodeHintType.NEED_RESULT_POINT_CALLBACK);
+    Map<DecodeHintType,Object> newHints = new HashMap<>();
+    newHints.putAll(hints);
+    newHints.put(DecodeHintType.NEED_RESULT_POINT_CALLBACK, new ResultPointCallback() {
+      @Override
+      public void foundPossibleResultPoint(ResultPoint point) {
+        callback.foundPossibleResultPoint(new ResultPoint(point.getX() / SCALE, point.getY()));
+      }
+    });
+    return newHints;
+  }
+
+}
@@ -46,12 +46,39 @@ public final class UPCAReader extends UPCEANReader {
     return maybeReturnResult(ean13Reader.decodeRow(rowNumber, row, startGuardRange, hints));
   }
 
+  @Override
+  public Result decodeRow(int rowNumber,
+                          BitArray row,
+                          RowRuns runs,
+                          int[] startGuardRange,
+                          Map<DecodeHintType,?> hints)
+      throws NotFoundException, FormatException, ChecksumException {
+    return maybeReturnResult(ean13Reader.decodeRow(rowNumber, row, runs, startGuardRange, hints));
+  }
+
+  @Override
+  Result decodeRow(int rowNumber,
+                   BitArray row,
+                   RowRuns runs,
+                   int[] startGuardRange,
+                   UPCEANDigits digits,
+                   Map<DecodeHintType,?> hints)
+      throws NotFoundException, FormatException, ChecksumException {
+    return maybeReturnResult(ean13Reader.decodeRow(rowNumber, row, runs, startGuardRange, digits, hints));
+  }
+
   @Override
   public Result decodeRow(int rowNumber, BitArray row, Map<DecodeHintType,?> hints)
       throws NotFoundException, FormatException, ChecksumException {
     return maybeReturnResult(ean13Reader.decodeRow(rowNumber, row, hints));
   }
 
+  @Override
+  public Result decodeRow(int rowNumber, BitArray row, RowRuns runs, Map<DecodeHintType,?> hints)
+      throws NotFoundException, FormatException, ChecksumException {
+    return maybeReturnResult(ean13Reader.decodeRow(rowNumber, row, runs, hints));
+  }
+
   @Override
   public Result decode(BinaryBitmap image) throws NotFoundException, FormatException {
     return maybeReturnResult(ean13Reader.decode(image));
@@ -74,6 +101,12 @@ public final class UPCAReader extends UPCEANReader {
     return ean13Reader.decodeMiddle(row, startRange, resultString);
   }
 
+  @Override
+  int decodeMiddle(BitArray row, RowRuns runs, int[] startRange, UPCEANDigits digits,
+                   StringBuilder resultString) throws NotFoundException {
+    return ean13Reader.decodeMiddle(row, runs, startRange, digits, resultString);
+  }
+
   private static Result maybeReturnResult(Result result) throws FormatException {
     String text = result.getText();
     if (text.charAt(0) == '0') {
@@ -87,4 +120,15 @@ public final class UPCAReader extends UPCEANReader {
     }
   }
 
+  @Override
+  protected int getMinimumRunCount() {
+    // Guards and twelve digits, as EAN-13
+    return 59;
+  }
+
+  @Override
+  protected OneDReader newRowReader() {
+    return new UPCAReader();
+  }
+
 }
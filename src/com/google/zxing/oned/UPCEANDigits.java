@@ -0,0 +1,133 @@
+/*
+ * Copyright 2008 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.oned;
+
+import com.google.zxing.NotFoundException;
+
+/**
+ * UPC/EAN digits following a guard pattern in a row, each decoded the first time it is asked
+ * for and remembered until the next {@link #reset(RowRuns, int, boolean)}.
+ *
+ * <p>EAN-13, EAN-8 and UPC-E all start with digits right after the same start guard, so
+ * {@link MultiFormatUPCEANReader} has them share one of these per row, and the digits are
+ * decoded once however many of the formats are tried. Likewise an extension's digits are decoded
+ * once, whether they turn out to be five or two.</p>
+ */
+final class UPCEANDigits {
+
+  // As many as the left half of EAN-13 and UPC-E, and more than an extension
+  private static final int MAX_DIGITS = 6;
+
+  private final int[] counters = new int[4];
+  private final int[] matches = new int[MAX_DIGITS];
+  private final int[] starts = new int[MAX_DIGITS];
+  private final int[] ends = new int[MAX_DIGITS];
+  private RowRuns runs;
+  private boolean separated;
+  private int decoded;
+  private boolean failed;
+
+  /**
+   * @param runs runs of the row
+   * @param start offset of the first digit
+   * @param separated true if each digit is followed by a one module bar and space before the next,
+   *  as in extensions
+   */
+  void reset(RowRuns runs, int start, boolean separated) {
+    this.runs = runs;
+    this.separated = separated;
+    starts[0] = start;
+    decoded = 0;
+    failed = false;
+  }
+
+  /**
+   * @param digit index of the digit
+   * @return index of the pattern in {@link UPCEANReader#L_AND_G_PATTERNS} it matches best
+   * @throws NotFoundException if this or an earlier digit matches no pattern, or the row ends
+   */
+  int getMatch(int digit) throws NotFoundException {
+    while (decoded <= digit && !failed) {
+      decodeNext();
+    }
+    if (decoded <= digit) {
+      throw NotFoundException.getNotFoundInstance();
+    }
+    return matches[digit];
+  }
+
+  /**
+   * @param digit index of the digit
+   * @return index of the pattern in {@link UPCEANReader#L_PATTERNS} it matches best; only those
+   *  patterns are considered
+   * @throws NotFoundException if it matches none of them
+   */
+  int getLMatch(int digit) throws NotFoundException {
+    int match = getMatch(digit);
+    if (match < 10) {
+      // The best of all patterns is also the best of the L patterns
+      return match;
+    }
+    return UPCEANReader.decodeDigit(runs, counters, starts[digit], UPCEANReader.L_TABLE);
+  }
+
+  /**
+   * @param digit index of a digit already decoded
+   * @return offset of the first pixel after it
+   */
+  int getEnd(int digit) {
+    return ends[digit];
+  }
+
+  private void decodeNext() {
+    int digit = decoded;
+    int start;
+    if (digit == 0) {
+      start = starts[0];
+    } else if (separated) {
+      // Read off the separator
+      start = runs.getNextUnset(runs.getNextSet(ends[digit - 1]));
+    } else {
+      start = ends[digit - 1];
+    }
+    if (digit == MAX_DIGITS || start >= runs.getSize()) {
+      failed = true;
+      return;
+    }
+    try {
+      runs.recordPattern(start, counters);
+    } catch (NotFoundException ignored) {
+      failed = true;
+      return;
+    }
+    int match = UPCEANReader.L_AND_G_TABLE.match(counters, UPCEANReader.MAX_AVG_VARIANCE,
+        UPCEANReader.MAX_INDIVIDUAL_VARIANCE);
+    if (match < 0) {
+      failed = true;
+      return;
+    }
+    int end = start;
+    for (int counter : counters) {
+      end += counter;
+    }
+    starts[digit] = start;
+    ends[digit] = end;
+    matches[digit] = match;
+    decoded++;
+  }
+
+}
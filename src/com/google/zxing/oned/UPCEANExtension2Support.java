@@ -21,7 +21,6 @@ import com.google.zxing.NotFoundException;
 import com.google.zxing.Result;
 import com.google.zxing.ResultMetadataType;
 import com.google.zxing.ResultPoint;
-import com.google.zxing.common.BitArray;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -31,14 +30,13 @@ import java.util.Map;
  */
 final class UPCEANExtension2Support {
 
-  private final int[] decodeMiddleCounters = new int[4];
   private final StringBuilder decodeRowStringBuffer = new StringBuilder();
 
-  Result decodeRow(int rowNumber, BitArray row, int[] extensionStartRange) throws NotFoundException {
+  Result decodeRow(int rowNumber, int[] extensionStartRange, UPCEANDigits digits) throws NotFoundException {
 
     StringBuilder result = decodeRowStringBuffer;
     result.setLength(0);
-    int end = decodeMiddle(row, extensionStartRange, result);
+    int end = decodeMiddle(digits, result);
 
     String resultString = result.toString();
     Map<ResultMetadataType,Object> extensionData = parseExtensionString(resultString);
@@ -57,42 +55,22 @@ final class UPCEANExtension2Support {
     return extensionResult;
   }
 
-  private int decodeMiddle(BitArray row, int[] startRange, StringBuilder resultString) throws NotFoundException {
-    int[] counters = decodeMiddleCounters;
-    counters[0] = 0;
-    counters[1] = 0;
-    counters[2] = 0;
-    counters[3] = 0;
-    int end = row.getSize();
-    int rowOffset = startRange[1];
-
+  private static int decodeMiddle(UPCEANDigits digits, StringBuilder resultString) throws NotFoundException {
     int checkParity = 0;
 
-    for (int x = 0; x < 2 && rowOffset < end; x++) {
-      int bestMatch = UPCEANReader.decodeDigit(row, counters, rowOffset, UPCEANReader.L_AND_G_PATTERNS);
+    for (int x = 0; x < 2; x++) {
+      int bestMatch = digits.getMatch(x);
       resultString.append((char) ('0' + bestMatch % 10));
-      for (int counter : counters) {
-        rowOffset += counter;
-      }
       if (bestMatch >= 10) {
         checkParity |= 1 << (1 - x);
       }
-      if (x != 1) {
-        // Read off separator if not last
-        rowOffset = row.getNextSet(rowOffset);
-        rowOffset = row.getNextUnset(rowOffset);
-      }
-    }
-
-    if (resultString.length() != 2) {
-      throw NotFoundException.getNotFoundInstance();
     }
 
     if (Integer.parseInt(resultString.toString()) % 4 != checkParity) {
       throw NotFoundException.getNotFoundInstance();
     }
 
-    return rowOffset;
+    return digits.getEnd(1);
   }
 
   /**
@@ -21,7 +21,6 @@ import com.google.zxing.NotFoundException;
 import com.google.zxing.Result;
 import com.google.zxing.ResultMetadataType;
 import com.google.zxing.ResultPoint;
-import com.google.zxing.common.BitArray;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -35,14 +34,13 @@ final class UPCEANExtension5Support {
       0x18, 0x14, 0x12, 0x11, 0x0C, 0x06, 0x03, 0x0A, 0x09, 0x05
   };
 
-  private final int[] decodeMiddleCounters = new int[4];
   private final StringBuilder decodeRowStringBuffer = new StringBuilder();
 
-  Result decodeRow(int rowNumber, BitArray row, int[] extensionStartRange) throws NotFoundException {
+  Result decodeRow(int rowNumber, int[] extensionStartRange, UPCEANDigits digits) throws NotFoundException {
 
     StringBuilder result = decodeRowStringBuffer;
     result.setLength(0);
-    int end = decodeMiddle(row, extensionStartRange, result);
+    int end = decodeMiddle(digits, result);
 
     String resultString = result.toString();
     Map<ResultMetadataType,Object> extensionData = parseExtensionString(resultString);
@@ -61,35 +59,15 @@ final class UPCEANExtension5Support {
     return extensionResult;
   }
 
-  private int decodeMiddle(BitArray row, int[] startRange, StringBuilder resultString) throws NotFoundException {
-    int[] counters = decodeMiddleCounters;
-    counters[0] = 0;
-    counters[1] = 0;
-    counters[2] = 0;
-    counters[3] = 0;
-    int end = row.getSize();
-    int rowOffset = startRange[1];
-
+  private static int decodeMiddle(UPCEANDigits digits, StringBuilder resultString) throws NotFoundException {
     int lgPatternFound = 0;
 
-    for (int x = 0; x < 5 && rowOffset < end; x++) {
-      int bestMatch = UPCEANReader.decodeDigit(row, counters, rowOffset, UPCEANReader.L_AND_G_PATTERNS);
+    for (int x = 0; x < 5; x++) {
+      int bestMatch = digits.getMatch(x);
       resultString.append((char) ('0' + bestMatch % 10));
-      for (int counter : counters) {
-        rowOffset += counter;
-      }
       if (bestMatch >= 10) {
         lgPatternFound |= 1 << (4 - x);
       }
-      if (x != 4) {
-        // Read off separator if not last
-        rowOffset = row.getNextSet(rowOffset);
-        rowOffset = row.getNextUnset(rowOffset);
-      }
-    }
-
-    if (resultString.length() != 5) {
-      throw NotFoundException.getNotFoundInstance();
     }
 
     int checkDigit = determineCheckDigit(lgPatternFound);
@@ -97,7 +75,7 @@ final class UPCEANExtension5Support {
       throw NotFoundException.getNotFoundInstance();
     }
 
-    return rowOffset;
+    return digits.getEnd(4);
   }
 
   private static int extensionChecksum(CharSequence s) {
@@ -19,7 +19,6 @@ package com.google.zxing.oned;
 import com.google.zxing.NotFoundException;
 import com.google.zxing.ReaderException;
 import com.google.zxing.Result;
-import com.google.zxing.common.BitArray;
 
 final class UPCEANExtensionSupport {
 
@@ -27,13 +26,16 @@ final class UPCEANExtensionSupport {
 
   private final UPCEANExtension2Support twoSupport = new UPCEANExtension2Support();
   private final UPCEANExtension5Support fiveSupport = new UPCEANExtension5Support();
+  // Shared by both, so that the first two digits are decoded once
+  private final UPCEANDigits digits = new UPCEANDigits();
 
-  Result decodeRow(int rowNumber, BitArray row, int rowOffset) throws NotFoundException {
-    int[] extensionStartRange = UPCEANReader.findGuardPattern(row, rowOffset, false, EXTENSION_START_PATTERN);
+  Result decodeRow(int rowNumber, RowRuns runs, int rowOffset) throws NotFoundException {
+    int[] extensionStartRange = UPCEANReader.findGuardPattern(runs, rowOffset, false, EXTENSION_START_PATTERN);
+    digits.reset(runs, extensionStartRange[1], true);
     try {
-      return fiveSupport.decodeRow(rowNumber, row, extensionStartRange);
+      return fiveSupport.decodeRow(rowNumber, extensionStartRange, digits);
     } catch (ReaderException ignored) {
-      return twoSupport.decodeRow(rowNumber, row, extensionStartRange);
+      return twoSupport.decodeRow(rowNumber, extensionStartRange, digits);
     }
   }
 
@@ -44,8 +44,8 @@ public abstract class UPCEANReader extends OneDReader {
   // These two values are critical for determining how permissive the decoding will be.
   // We've arrived at these values through a lot of trial and error. Setting them any higher
   // lets false positives creep in quickly.
-  private static final float MAX_AVG_VARIANCE = 0.48f;
-  private static final float MAX_INDIVIDUAL_VARIANCE = 0.7f;
+  static final float MAX_AVG_VARIANCE = 0.48f;
+  static final float MAX_INDIVIDUAL_VARIANCE = 0.7f;
 
   /**
    * Start/end guard pattern.
@@ -94,24 +94,32 @@ public abstract class UPCEANReader extends OneDReader {
     }
   }
 
+  /**
+   * Lookup tables for decoding digits with {@link #L_PATTERNS} and {@link #L_AND_G_PATTERNS}.
+   */
+  static final PatternTable L_TABLE = new PatternTable(L_PATTERNS);
+  static final PatternTable L_AND_G_TABLE = new PatternTable(L_AND_G_PATTERNS);
+
   private final StringBuilder decodeRowStringBuffer;
   private final UPCEANExtensionSupport extensionReader;
   private final EANManufacturerOrgSupport eanManSupport;
+  private final UPCEANDigits digits;
 
   protected UPCEANReader() {
     decodeRowStringBuffer = new StringBuilder(20);
     extensionReader = new UPCEANExtensionSupport();
     eanManSupport = new EANManufacturerOrgSupport();
+    digits = new UPCEANDigits();
   }
 
-  static int[] findStartGuardPattern(BitArray row) throws NotFoundException {
+  static int[] findStartGuardPattern(BitArray row, RowRuns runs) throws NotFoundException {
     boolean foundStart = false;
     int[] startRange = null;
     int nextStart = 0;
     int[] counters = new int[START_END_PATTERN.length];
     while (!foundStart) {
       Arrays.fill(counters, 0, START_END_PATTERN.length, 0);
-      startRange = findGuardPattern(row, nextStart, false, START_END_PATTERN, counters);
+      startRange = findGuardPattern(runs, nextStart, false, START_END_PATTERN, counters);
       int start = startRange[0];
       nextStart = startRange[1];
       // Make sure there is a quiet zone at least as big as the start pattern before the barcode.
@@ -128,7 +136,13 @@ public abstract class UPCEANReader extends OneDReader {
   @Override
   public Result decodeRow(int rowNumber, BitArray row, Map<DecodeHintType,?> hints)
       throws NotFoundException, ChecksumException, FormatException {
-    return decodeRow(rowNumber, row, findStartGuardPattern(row), hints);
+    return decodeRow(rowNumber, row, new RowRuns(row), hints);
+  }
+
+  @Override
+  public Result decodeRow(int rowNumber, BitArray row, RowRuns runs, Map<DecodeHintType,?> hints)
+      throws NotFoundException, ChecksumException, FormatException {
+    return decodeRow(rowNumber, row, runs, findStartGuardPattern(row, runs), hints);
   }
 
   /**
@@ -150,6 +164,42 @@ public abstract class UPCEANReader extends OneDReader {
                           int[] startGuardRange,
                           Map<DecodeHintType,?> hints)
       throws NotFoundException, ChecksumException, FormatException {
+    return decodeRow(rowNumber, row, new RowRuns(row), startGuardRange, hints);
+  }
+
+  /**
+   * <p>Like {@link #decodeRow(int, BitArray, int[], Map)}, but given the row's runs as well.</p>
+   *
+   * @param rowNumber row index into the image
+   * @param row encoding of the row of the barcode image
+   * @param runs run-length encoding of row
+   * @param startGuardRange start/end column where the opening start pattern was found
+   * @param hints optional hints that influence decoding
+   * @return {@link Result} encapsulating the result of decoding a barcode in the row
+   * @throws NotFoundException if no potential barcode is found
+   * @throws ChecksumException if a potential barcode is found but does not pass its checksum
+   * @throws FormatException if a potential barcode is found but format is invalid
+   */
+  public Result decodeRow(int rowNumber,
+                          BitArray row,
+                          RowRuns runs,
+                          int[] startGuardRange,
+                          Map<DecodeHintType,?> hints)
+      throws NotFoundException, ChecksumException, FormatException {
+    return decodeRow(rowNumber, row, runs, startGuardRange, digitsAfter(runs, startGuardRange), hints);
+  }
+
+  /**
+   * <p>Like {@link #decodeRow(int, BitArray, RowRuns, int[], Map)}, but with the digits after the
+   * start pattern, which other readers may have decoded already.</p>
+   */
+  Result decodeRow(int rowNumber,
+                   BitArray row,
+                   RowRuns runs,
+                   int[] startGuardRange,
+                   UPCEANDigits digits,
+                   Map<DecodeHintType,?> hints)
+      throws NotFoundException, ChecksumException, FormatException {
 
     ResultPointCallback resultPointCallback = hints == null ? null :
         (ResultPointCallback) hints.get(DecodeHintType.NEED_RESULT_POINT_CALLBACK);
@@ -162,7 +212,7 @@ public abstract class UPCEANReader extends OneDReader {
 
     StringBuilder result = decodeRowStringBuffer;
     result.setLength(0);
-    int endStart = decodeMiddle(row, startGuardRange, result);
+    int endStart = decodeMiddle(row, runs, startGuardRange, digits, result);
 
     if (resultPointCallback != null) {
       resultPointCallback.foundPossibleResultPoint(new ResultPoint(
@@ -170,7 +220,7 @@ public abstract class UPCEANReader extends OneDReader {
       ));
     }
 
-    int[] endRange = decodeEnd(row, endStart);
+    int[] endRange = decodeEnd(runs, endStart);
 
     if (resultPointCallback != null) {
       resultPointCallback.foundPossibleResultPoint(new ResultPoint(
@@ -209,7 +259,7 @@ public abstract class UPCEANReader extends OneDReader {
     int extensionLength = 0;
 
     try {
-      Result extensionResult = extensionReader.decodeRow(rowNumber, row, endRange[1]);
+      Result extensionResult = extensionReader.decodeRow(rowNumber, runs, endRange[1]);
       decodeResult.putMetadata(ResultMetadataType.UPC_EAN_EXTENSION, extensionResult.getText());
       decodeResult.putAllMetadata(extensionResult.getResultMetadata());
       decodeResult.addResultPoints(extensionResult.getResultPoints());
@@ -291,18 +341,22 @@ public abstract class UPCEANReader extends OneDReader {
   }
 
   int[] decodeEnd(BitArray row, int endStart) throws NotFoundException {
-    return findGuardPattern(row, endStart, false, START_END_PATTERN);
+    return decodeEnd(new RowRuns(row), endStart);
   }
 
-  static int[] findGuardPattern(BitArray row,
+  int[] decodeEnd(RowRuns runs, int endStart) throws NotFoundException {
+    return findGuardPattern(runs, endStart, false, START_END_PATTERN);
+  }
+
+  static int[] findGuardPattern(RowRuns runs,
                                 int rowOffset,
                                 boolean whiteFirst,
                                 int[] pattern) throws NotFoundException {
-    return findGuardPattern(row, rowOffset, whiteFirst, pattern, new int[pattern.length]);
+    return findGuardPattern(runs, rowOffset, whiteFirst, pattern, new int[pattern.length]);
   }
 
   /**
-   * @param row row of black/white values to search
+   * @param runs runs of black/white values to search
    * @param rowOffset position to start search
    * @param whiteFirst if true, indicates that the pattern specifies white/black/white/...
    * pixel counts, otherwise, it is interpreted as black/white/black/...
@@ -312,35 +366,28 @@ public abstract class UPCEANReader extends OneDReader {
    * @return start/end horizontal offset of guard pattern, as an array of two ints
    * @throws NotFoundException if pattern is not found
    */
-  private static int[] findGuardPattern(BitArray row,
+  private static int[] findGuardPattern(RowRuns runs,
                                         int rowOffset,
                                         boolean whiteFirst,
                                         int[] pattern,
                                         int[] counters) throws NotFoundException {
-    int width = row.getSize();
-    rowOffset = whiteFirst ? row.getNextUnset(rowOffset) : row.getNextSet(rowOffset);
-    int counterPosition = 0;
-    int patternStart = rowOffset;
+    rowOffset = whiteFirst ? runs.getNextUnset(rowOffset) : runs.getNextSet(rowOffset);
+    if (rowOffset >= runs.getSize()) {
+      throw NotFoundException.getNotFoundInstance();
+    }
     int patternLength = pattern.length;
-    boolean isWhite = whiteFirst;
-    for (int x = rowOffset; x < width; x++) {
-      if (row.get(x) != isWhite) {
-        counters[counterPosition]++;
-      } else {
-        if (counterPosition == patternLength - 1) {
-          if (patternMatchVariance(counters, pattern, MAX_INDIVIDUAL_VARIANCE) < MAX_AVG_VARIANCE) {
-            return new int[]{patternStart, x};
-          }
-          patternStart += counters[0] + counters[1];
-          System.arraycopy(counters, 2, counters, 0, counterPosition - 1);
-          counters[counterPosition - 1] = 0;
-          counters[counterPosition] = 0;
-          counterPosition--;
-        } else {
-          counterPosition++;
-        }
-        counters[counterPosition] = 1;
-        isWhite = !isWhite;
+    int runCount = runs.getRunCount();
+    // A pattern is only considered once the run after it has begun. The first one may start
+    // partway into a run.
+    for (int run = runs.getRunAt(rowOffset); run + patternLength < runCount; run += 2) {
+      runs.getWidths(run, counters);
+      int patternStart = runs.getStart(run);
+      if (patternStart < rowOffset) {
+        counters[0] -= rowOffset - patternStart;
+        patternStart = rowOffset;
+      }
+      if (patternMatchVariance(counters, pattern, MAX_INDIVIDUAL_VARIANCE) < MAX_AVG_VARIANCE) {
+        return new int[]{patternStart, runs.getStart(run + patternLength)};
       }
     }
     throw NotFoundException.getNotFoundInstance();
@@ -349,29 +396,19 @@ public abstract class UPCEANReader extends OneDReader {
   /**
    * Attempts to decode a single UPC/EAN-encoded digit.
    *
-   * @param row row of black/white values to decode
+   * @param runs runs of black/white values to decode
    * @param counters the counts of runs of observed black/white/black/... values
    * @param rowOffset horizontal offset to start decoding from
    * @param patterns the set of patterns to use to decode -- sometimes different encodings
    * for the digits 0-9 are used, and this indicates the encodings for 0 to 9 that should
-   * be used
+   * be used; {@link #L_TABLE} or {@link #L_AND_G_TABLE}
    * @return horizontal offset of first pixel beyond the decoded digit
    * @throws NotFoundException if digit cannot be decoded
    */
-  static int decodeDigit(BitArray row, int[] counters, int rowOffset, int[][] patterns)
+  static int decodeDigit(RowRuns runs, int[] counters, int rowOffset, PatternTable patterns)
       throws NotFoundException {
-    recordPattern(row, rowOffset, counters);
-    float bestVariance = MAX_AVG_VARIANCE; // worst variance we'll accept
-    int bestMatch = -1;
-    int max = patterns.length;
-    for (int i = 0; i < max; i++) {
-      int[] pattern = patterns[i];
-      float variance = patternMatchVariance(counters, pattern, MAX_INDIVIDUAL_VARIANCE);
-      if (variance < bestVariance) {
-        bestVariance = variance;
-        bestMatch = i;
-      }
-    }
+    runs.recordPattern(rowOffset, counters);
+    int bestMatch = patterns.match(counters, MAX_AVG_VARIANCE, MAX_INDIVIDUAL_VARIANCE);
     if (bestMatch >= 0) {
       return bestMatch;
     } else {
@@ -379,6 +416,14 @@ public abstract class UPCEANReader extends OneDReader {
     }
   }
 
+  /**
+   * @return this reader's own digits, reset to decode those after the start pattern
+   */
+  final UPCEANDigits digitsAfter(RowRuns runs, int[] startRange) {
+    digits.reset(runs, startRange[1], false);
+    return digits;
+  }
+
   /**
    * Get the format of this decoder.
    *
@@ -400,4 +445,18 @@ public abstract class UPCEANReader extends OneDReader {
                                       int[] startRange,
                                       StringBuilder resultString) throws NotFoundException;
 
+  /**
+   * Like {@link #decodeMiddle(BitArray, int[], StringBuilder)}, but given the runs of the row too,
+   * and taking the digits right after the start pattern from digits, where other readers may have
+   * decoded them already. The readers here override this to work from the runs; by default it
+   * decodes the row.
+   */
+  int decodeMiddle(BitArray row,
+                   RowRuns runs,
+                   int[] startRange,
+                   UPCEANDigits digits,
+                   StringBuilder resultString) throws NotFoundException {
+    return decodeMiddle(row, startRange, resultString);
+  }
+
 }
@@ -70,31 +70,21 @@ public final class UPCEReader extends UPCEANReader {
       {0x07, 0x0B, 0x0D, 0x0E, 0x13, 0x19, 0x1C, 0x15, 0x16, 0x1A}
   };
 
-  private final int[] decodeMiddleCounters;
-
-  public UPCEReader() {
-    decodeMiddleCounters = new int[4];
-  }
-
   @Override
   protected int decodeMiddle(BitArray row, int[] startRange, StringBuilder result)
       throws NotFoundException {
-    int[] counters = decodeMiddleCounters;
-    counters[0] = 0;
-    counters[1] = 0;
-    counters[2] = 0;
-    counters[3] = 0;
-    int end = row.getSize();
-    int rowOffset = startRange[1];
+    RowRuns runs = new RowRuns(row);
+    return decodeMiddle(row, runs, startRange, digitsAfter(runs, startRange), result);
+  }
 
+  @Override
+  int decodeMiddle(BitArray row, RowRuns runs, int[] startRange, UPCEANDigits digits,
+                   StringBuilder result) throws NotFoundException {
     int lgPatternFound = 0;
 
-    for (int x = 0; x < 6 && rowOffset < end; x++) {
-      int bestMatch = decodeDigit(row, counters, rowOffset, L_AND_G_PATTERNS);
+    for (int x = 0; x < 6; x++) {
+      int bestMatch = digits.getMatch(x);
       result.append((char) ('0' + bestMatch % 10));
-      for (int counter : counters) {
-        rowOffset += counter;
-      }
       if (bestMatch >= 10) {
         lgPatternFound |= 1 << (5 - x);
       }
@@ -102,12 +92,12 @@ public final class UPCEReader extends UPCEANReader {
 
     determineNumSysAndCheckDigit(result, lgPatternFound);
 
-    return rowOffset;
+    return digits.getEnd(5);
   }
 
   @Override
-  protected int[] decodeEnd(BitArray row, int endStart) throws NotFoundException {
-    return findGuardPattern(row, endStart, true, MIDDLE_END_PATTERN);
+  int[] decodeEnd(RowRuns runs, int endStart) throws NotFoundException {
+    return findGuardPattern(runs, endStart, true, MIDDLE_END_PATTERN);
   }
 
   @Override
@@ -179,4 +169,15 @@ public final class UPCEReader extends UPCEANReader {
     return result.toString();
   }
 
+  @Override
+  protected int getMinimumRunCount() {
+    // Guards and six digits
+    return 33;
+  }
+
+  @Override
+  protected OneDReader newRowReader() {
+    return new UPCEReader();
+  }
+
 }
@@ -19,6 +19,7 @@ package com.google.zxing.oned.rss;
 import com.google.zxing.NotFoundException;
 import com.google.zxing.common.detector.MathUtils;
 import com.google.zxing.oned.OneDReader;
+import com.google.zxing.oned.PatternTable;
 
 /**
  * Superclass of {@link OneDReader} implementations that read barcodes in the RSS family
@@ -83,6 +84,25 @@ public abstract class AbstractRSSReader extends OneDReader {
     throw NotFoundException.getNotFoundInstance();
   }
 
+  /**
+   * Same as {@link #parseFinderValue(int[], int[][])}, but looks the counters up in a table of the
+   * finder patterns instead of trying each pattern in turn. No counter may be off by half a
+   * module, so at most one pattern can match and the result is the same.
+   *
+   * @param counters observed widths of the finder pattern's elements
+   * @param finderPatterns table of the format's finder patterns
+   * @return index of the matching finder pattern
+   * @throws NotFoundException if no finder pattern matches
+   */
+  protected static int parseFinderValue(int[] counters,
+                                        PatternTable finderPatterns) throws NotFoundException {
+    int value = finderPatterns.match(counters, MAX_AVG_VARIANCE, MAX_INDIVIDUAL_VARIANCE);
+    if (value < 0) {
+      throw NotFoundException.getNotFoundInstance();
+    }
+    return value;
+  }
+
   /**
    * @param array values to sum
    * @return sum of values
@@ -24,6 +24,7 @@ import com.google.zxing.ResultPoint;
 import com.google.zxing.ResultPointCallback;
 import com.google.zxing.common.BitArray;
 import com.google.zxing.common.detector.MathUtils;
+import com.google.zxing.oned.PatternTable;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -54,6 +55,8 @@ public final class RSS14Reader extends AbstractRSSReader {
       {1,3,9,1},
   };
 
+  private static final PatternTable FINDER_TABLE = new PatternTable(FINDER_PATTERNS);
+
   private final List<Pair> possibleLeftPairs;
   private final List<Pair> possibleRightPairs;
 
@@ -338,7 +341,7 @@ public final class RSS14Reader extends AbstractRSSReader {
     int[] counters = getDecodeFinderCounters();
     System.arraycopy(counters, 0, counters, 1, counters.length - 1);
     counters[0] = firstCounter;
-    int value = parseFinderValue(counters, FINDER_PATTERNS);
+    int value = parseFinderValue(counters, FINDER_TABLE);
     int start = firstElementStart;
     int end = startEnd[1];
     if (right) {
@@ -471,4 +474,10 @@ public final class RSS14Reader extends AbstractRSSReader {
 
   }
 
+  @Override
+  protected int getMinimumRunCount() {
+    // One pair: two data characters either side of a finder pattern
+    return 21;
+  }
+
 }
@@ -34,6 +34,7 @@ import com.google.zxing.Result;
 import com.google.zxing.ResultPoint;
 import com.google.zxing.common.BitArray;
 import com.google.zxing.common.detector.MathUtils;
+import com.google.zxing.oned.PatternTable;
 import com.google.zxing.oned.rss.AbstractRSSReader;
 import com.google.zxing.oned.rss.DataCharacter;
 import com.google.zxing.oned.rss.FinderPattern;
@@ -41,11 +42,8 @@ import com.google.zxing.oned.rss.RSSUtils;
 import com.google.zxing.oned.rss.expanded.decoders.AbstractExpandedDecoder;
 
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Collections;
 
 /**
  * @author Pablo Orduña, University of Deusto (pablo.orduna@deusto.es)
@@ -66,6 +64,8 @@ public final class RSSExpandedReader extends AbstractRSSReader {
     {2,2,9,1}  // F
   };
 
+  private static final PatternTable FINDER_TABLE = new PatternTable(FINDER_PATTERNS);
+
   private static final int[][] WEIGHTS = {
     {  1,   3,   9,  27,  81,  32,  96,  77},
     { 20,  60, 180, 118, 143,   7,  21,  63},
@@ -99,7 +99,7 @@ public final class RSSExpandedReader extends AbstractRSSReader {
   private static final int FINDER_PAT_E = 4;
   private static final int FINDER_PAT_F = 5;
 
-  private static final int[][] FINDER_PATTERN_SEQUENCES = {
+  static final int[][] FINDER_PATTERN_SEQUENCES = {
     { FINDER_PAT_A, FINDER_PAT_A },
     { FINDER_PAT_A, FINDER_PAT_B, FINDER_PAT_B },
     { FINDER_PAT_A, FINDER_PAT_C, FINDER_PAT_B, FINDER_PAT_D },
@@ -115,7 +115,7 @@ public final class RSSExpandedReader extends AbstractRSSReader {
   private static final int MAX_PAIRS = 11;
 
   private final List<ExpandedPair> pairs = new ArrayList<>(MAX_PAIRS);
-  private final List<ExpandedRow> rows = new ArrayList<>();
+  private final StackedRows rows = new StackedRows();
   private final int [] startEnd = new int[2];
   private boolean startFromEven;
 
@@ -125,6 +125,8 @@ public final class RSSExpandedReader extends AbstractRSSReader {
                           Map<DecodeHintType,?> hints) throws NotFoundException, FormatException {
     // Rows can start with even pattern in case in prev rows there where odd number of patters.
     // So lets try twice
+    this.rows.setMaxRows(hints != null && hints.containsKey(DecodeHintType.RSS_EXPANDED_MAX_ROWS) ?
+        ((Integer) hints.get(DecodeHintType.RSS_EXPANDED_MAX_ROWS)).intValue() : StackedRows.DEFAULT_MAX_ROWS);
     this.pairs.clear();
     this.startFromEven = false;
     try {
@@ -164,184 +166,18 @@ public final class RSSExpandedReader extends AbstractRSSReader {
       return this.pairs;
     }
 
-    boolean tryStackedDecode = !this.rows.isEmpty();
-    storeRow(rowNumber, false); // TODO: deal with reversed rows
-    if (tryStackedDecode) {
-      // When the image is 180-rotated, then rows are sorted in wrong direction.
-      // Try twice with both the directions.
-      List<ExpandedPair> ps = checkRows(false);
-      if (ps != null) {
-        return ps;
-      }
-      ps = checkRows(true);
-      if (ps != null) {
-        return ps;
-      }
-    }
-
-    throw NotFoundException.getNotFoundInstance();
-  }
-
-  private List<ExpandedPair> checkRows(boolean reverse) {
-    // Limit number of rows we are checking
-    // We use recursive algorithm with pure complexity and don't want it to take forever
-    // Stacked barcode can have up to 11 rows, so 25 seems reasonable enough
-    if (this.rows.size() > 25) {
-      this.rows.clear();  // We will never have a chance to get result, so clear it
-      return null;
-    }
-
-    this.pairs.clear();
-    if (reverse) {
-      Collections.reverse(this.rows);
-    }
-
-    List<ExpandedPair> ps = null;
-    try {
-      ps = checkRows(new ArrayList<>(), 0);
-    } catch (NotFoundException e) {
-      // OK
-    }
-
-    if (reverse) {
-      Collections.reverse(this.rows);
-    }
-
-    return ps;
-  }
-
-  // Try to construct a valid rows sequence
-  // Recursion is used to implement backtracking
-  private List<ExpandedPair> checkRows(List<ExpandedRow> collectedRows, int currentRow) throws NotFoundException {
-    for (int i = currentRow; i < rows.size(); i++) {
-      ExpandedRow row = rows.get(i);
-      this.pairs.clear();
-      for (ExpandedRow collectedRow : collectedRows) {
-        this.pairs.addAll(collectedRow.getPairs());
-      }
-      this.pairs.addAll(row.getPairs());
-
-      if (isValidSequence(this.pairs)) {
-        if (checkChecksum()) {
-          return this.pairs;
-        }
-
-        List<ExpandedRow> rs = new ArrayList<>(collectedRows);
-        rs.add(row);
-        try {
-          // Recursion: try to add more rows
-          return checkRows(rs, i + 1);
-        } catch (NotFoundException e) {
-          // We failed, try the next candidate
-        }
-      }
+    // Maybe this row completes a stacked symbol together with rows seen before
+    List<ExpandedPair> ps = this.rows.add(this.pairs, rowNumber, false); // TODO: deal with reversed rows
+    if (ps != null) {
+      return ps;
     }
 
     throw NotFoundException.getNotFoundInstance();
   }
 
-  // Whether the pairs form a valid find pattern sequence,
-  // either complete or a prefix
-  private static boolean isValidSequence(List<ExpandedPair> pairs) {
-    for (int[] sequence : FINDER_PATTERN_SEQUENCES) {
-      if (pairs.size() <= sequence.length) {
-        boolean stop = true;
-        for (int j = 0; j < pairs.size(); j++) {
-          if (pairs.get(j).getFinderPattern().getValue() != sequence[j]) {
-            stop = false;
-            break;
-          }
-        }
-        if (stop) {
-          return true;
-        }
-      }
-
-    }
-
-    return false;
-  }
-
-  private void storeRow(int rowNumber, boolean wasReversed) {
-    // Discard if duplicate above or below; otherwise insert in order by row number.
-    int insertPos = 0;
-    boolean prevIsSame = false;
-    boolean nextIsSame = false;
-    while (insertPos < this.rows.size()) {
-      ExpandedRow erow = this.rows.get(insertPos);
-      if (erow.getRowNumber() > rowNumber) {
-        nextIsSame = erow.isEquivalent(this.pairs);
-        break;
-      }
-      prevIsSame = erow.isEquivalent(this.pairs);
-      insertPos++;
-    }
-    if (nextIsSame || prevIsSame) {
-      return;
-    }
-
-    // When the row was partially decoded (e.g. 2 pairs found instead of 3),
-    // it will prevent us from detecting the barcode.
-    // Try to merge partial rows
-
-    // Check whether the row is part of an already detected row
-    if (isPartialRow(this.pairs, this.rows)) {
-      return;
-    }
-
-    this.rows.add(insertPos, new ExpandedRow(this.pairs, rowNumber, wasReversed));
-
-    removePartialRows(this.pairs, this.rows);
-  }
-
-  // Remove all the rows that contains only specified pairs
-  private static void removePartialRows(Collection<ExpandedPair> pairs, Collection<ExpandedRow> rows) {
-    for (Iterator<ExpandedRow> iterator = rows.iterator(); iterator.hasNext();) {
-      ExpandedRow r = iterator.next();
-      if (r.getPairs().size() != pairs.size()) {
-        boolean allFound = true;
-        for (ExpandedPair p : r.getPairs()) {
-          if (!pairs.contains(p)) {
-            allFound = false;
-            break;
-          }
-        }
-        if (allFound) {
-          // 'pairs' contains all the pairs from the row 'r'
-          iterator.remove();
-        }
-      }
-    }
-  }
-
-  // Returns true when one of the rows already contains all the pairs
-  private static boolean isPartialRow(Iterable<ExpandedPair> pairs, Iterable<ExpandedRow> rows) {
-    for (ExpandedRow r : rows) {
-      boolean allFound = true;
-      for (ExpandedPair p : pairs) {
-        boolean found = false;
-        for (ExpandedPair pp : r.getPairs()) {
-          if (p.equals(pp)) {
-            found = true;
-            break;
-          }
-        }
-        if (!found) {
-          allFound = false;
-          break;
-        }
-      }
-      if (allFound) {
-        // the row 'r' contain all the pairs from 'pairs'
-        return true;
-      }
-    }
-    return false;
-  }
-
   // Only used for unit testing
   List<ExpandedRow> getRows() {
-    return this.rows;
+    return this.rows.getRows();
   }
 
   // Not private for unit testing
@@ -559,7 +395,7 @@ public final class RSSExpandedReader extends AbstractRSSReader {
     counters[0] = firstCounter;
     int value;
     try {
-      value = parseFinderValue(counters, FINDER_PATTERNS);
+      value = parseFinderValue(counters, FINDER_TABLE);
     } catch (NotFoundException ignored) {
       return null;
     }
@@ -762,4 +598,11 @@ public final class RSSExpandedReader extends AbstractRSSReader {
       decrement(this.getEvenCounts(), this.getEvenRoundingErrors());
     }
   }
+
+  @Override
+  protected int getMinimumRunCount() {
+    // A row of a stacked symbol can hold just one data character and a finder pattern
+    return 13;
+  }
+
 }
@@ -0,0 +1,286 @@
+/*
+ * Copyright (C) 2010 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.oned.rss.expanded;
+
+import com.google.zxing.oned.rss.DataCharacter;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Collects the rows of an RSS Expanded Stacked symbol as they are scanned, and assembles them
+ * into a whole symbol once the rows seen so far contain one.
+ *
+ * <p>Each row is indexed when it is added by where it can sit in each finder pattern sequence:
+ * the offsets, in pairs from the start of the symbol, at which its finder patterns match those of
+ * the sequence. The check character in the first pair gives the number of characters in the
+ * symbol, and so which sequence to assemble and what checksum the other characters must add up
+ * to. Assembling then takes rows in order of row number, downwards or upwards, and the only state
+ * is the offset reached, the checksum so far and the last row taken. Each such state is explored
+ * at most once per search, so the work is bounded by the square of the number of retained rows
+ * instead of growing with every combination of them.</p>
+ *
+ * <p>Only a limited number of rows is retained; beyond that the oldest are forgotten.</p>
+ */
+final class StackedRows {
+
+  static final int DEFAULT_MAX_ROWS = 25;
+
+  private static final int CHECKSUM_MODULUS = 211;
+
+  private final List<Entry> entries = new ArrayList<>();
+  private int maxRows = DEFAULT_MAX_ROWS;
+  private int nextAge;
+  // For each (offset, checksum, last row) state, the search in which it was last explored
+  private int[] explored = new int[0];
+  private int search;
+
+  /**
+   * @param maxRows how many rows to retain at most
+   */
+  void setMaxRows(int maxRows) {
+    this.maxRows = Math.max(1, maxRows);
+    while (entries.size() > this.maxRows) {
+      removeOldest();
+    }
+  }
+
+  void clear() {
+    entries.clear();
+  }
+
+  List<ExpandedRow> getRows() {
+    List<ExpandedRow> rows = new ArrayList<>(entries.size());
+    for (Entry entry : entries) {
+      rows.add(entry.row);
+    }
+    return rows;
+  }
+
+  /**
+   * Retains a row that did not decode on its own, unless it adds nothing to the rows already
+   * retained, and tries to assemble a symbol with it.
+   *
+   * @param pairs pairs decoded from the row
+   * @param rowNumber row number in the image
+   * @param wasReversed whether the row had to be reversed
+   * @return the pairs of a whole symbol, in order, or null if none can be assembled yet
+   */
+  List<ExpandedPair> add(List<ExpandedPair> pairs, int rowNumber, boolean wasReversed) {
+    // Discard if the same, or only part of a row already retained
+    for (Entry entry : entries) {
+      if (entry.row.getPairs().containsAll(pairs)) {
+        return null;
+      }
+    }
+    // Conversely, forget retained rows that were only partially decoded versions of this one
+    for (Iterator<Entry> iterator = entries.iterator(); iterator.hasNext();) {
+      if (pairs.containsAll(iterator.next().row.getPairs())) {
+        iterator.remove();
+      }
+    }
+
+    // Insert in order by row number
+    Entry added = new Entry(new ExpandedRow(pairs, rowNumber, wasReversed), nextAge++);
+    int insertPos = 0;
+    while (insertPos < entries.size() && entries.get(insertPos).row.getRowNumber() <= rowNumber) {
+      insertPos++;
+    }
+    entries.add(insertPos, added);
+    if (entries.size() > maxRows) {
+      removeOldest();
+    }
+
+    int[][] sequences = RSSExpandedReader.FINDER_PATTERN_SEQUENCES;
+    for (int sequence = 0; sequence < sequences.length; sequence++) {
+      // Only a sequence the new row fits into can have become complete
+      if (added.offsets[sequence] != 0) {
+        // When the image is 180-rotated, then rows are sorted in wrong direction.
+        // Try both directions.
+        List<ExpandedPair> result = assemble(sequence, 1);
+        if (result == null) {
+          result = assemble(sequence, -1);
+        }
+        if (result != null) {
+          return result;
+        }
+      }
+    }
+    return null;
+  }
+
+  private void removeOldest() {
+    int oldest = 0;
+    for (int i = 1; i < entries.size(); i++) {
+      if (entries.get(i).age < entries.get(oldest).age) {
+        oldest = i;
+      }
+    }
+    entries.remove(oldest);
+  }
+
+  /**
+   * @param direction 1 to take rows from top to bottom, -1 from bottom to top
+   * @return pairs of a symbol with this finder pattern sequence whose checksum is valid, or null
+   */
+  private List<ExpandedPair> assemble(int sequence, int direction) {
+    int length = RSSExpandedReader.FINDER_PATTERN_SEQUENCES[sequence].length;
+    int numEntries = entries.size();
+    int numStates = (length + 1) * CHECKSUM_MODULUS * numEntries;
+    if (explored.length < numStates) {
+      explored = new int[numStates];
+      search = 0;
+    }
+    for (int i = 0; i < numEntries; i++) {
+      Entry first = entries.get(i);
+      if ((first.offsets[sequence] & 1) == 0) {
+        continue;
+      }
+      int checkValue = first.row.getPairs().get(0).getLeftChar().getValue();
+      // The check character counts the characters in the symbol, which fixes its length in pairs
+      int characters = checkValue / CHECKSUM_MODULUS + 4;
+      if ((characters + 1) / 2 != length) {
+        continue;
+      }
+      Entry[] chosen = new Entry[length];
+      chosen[0] = first;
+      search++;
+      if (findRest(sequence, direction, i, first.row.getPairs().size(), first.firstChecksum,
+                   checkValue % CHECKSUM_MODULUS, (characters & 1) == 1, chosen)) {
+        List<ExpandedPair> result = new ArrayList<>(length);
+        for (int offset = 0; offset < length; offset += chosen[offset].row.getPairs().size()) {
+          result.addAll(chosen[offset].row.getPairs());
+        }
+        return result;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Looks for rows further on in the given direction that cover the rest of a sequence from an
+   * offset on. States already found to lead nowhere in this search are marked in
+   * {@link #explored}.
+   *
+   * @param last index of the row that ends before this offset
+   * @param oddCharacters whether the symbol has an odd number of characters, so that its last pair
+   *  has no right character
+   * @return true if found, in which case chosen holds the row starting at each offset used
+   */
+  private boolean findRest(int sequence,
+                           int direction,
+                           int last,
+                           int offset,
+                           int checksum,
+                           int target,
+                           boolean oddCharacters,
+                           Entry[] chosen) {
+    int length = chosen.length;
+    if (offset == length) {
+      // The pairs only give the number of characters to within one; the last pair settles it
+      List<ExpandedPair> lastPairs = entries.get(last).row.getPairs();
+      boolean endsWithLeftChar = lastPairs.get(lastPairs.size() - 1).getRightChar() == null;
+      return checksum == target && endsWithLeftChar == oddCharacters;
+    }
+    int state = (offset * CHECKSUM_MODULUS + checksum) * entries.size() + last;
+    if (explored[state] == search) {
+      return false;
+    }
+    explored[state] = search;
+    for (int i = last + direction; i >= 0 && i < entries.size(); i += direction) {
+      Entry entry = entries.get(i);
+      if ((entry.offsets[sequence] & (1 << offset)) != 0 &&
+          findRest(sequence,
+                   direction,
+                   i,
+                   offset + entry.row.getPairs().size(),
+                   (checksum + entry.checksum) % CHECKSUM_MODULUS,
+                   target,
+                   oddCharacters,
+                   chosen)) {
+        chosen[offset] = entry;
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * A retained row, with where it fits in each sequence and what its characters add to the
+   * checksum.
+   */
+  private static final class Entry {
+
+    private final ExpandedRow row;
+    private final int age;
+    /** For each finder pattern sequence, a bit for each offset at which the row fits. */
+    private final int[] offsets;
+    /** Checksum portions of all characters. */
+    private final int checksum;
+    /** Same, except for the check character, for when the row starts the symbol. */
+    private final int firstChecksum;
+
+    Entry(ExpandedRow row, int age) {
+      this.row = row;
+      this.age = age;
+      List<ExpandedPair> pairs = row.getPairs();
+      int sum = 0;
+      for (ExpandedPair pair : pairs) {
+        sum += pair.getLeftChar().getChecksumPortion();
+        DataCharacter rightChar = pair.getRightChar();
+        if (rightChar != null) {
+          sum += rightChar.getChecksumPortion();
+        }
+      }
+      checksum = sum % CHECKSUM_MODULUS;
+      firstChecksum = (sum - pairs.get(0).getLeftChar().getChecksumPortion()) % CHECKSUM_MODULUS;
+
+      int[][] sequences = RSSExpandedReader.FINDER_PATTERN_SEQUENCES;
+      offsets = new int[sequences.length];
+      for (int sequence = 0; sequence < sequences.length; sequence++) {
+        int[] patterns = sequences[sequence];
+        for (int offset = 0; offset + pairs.size() <= patterns.length; offset++) {
+          if (fits(pairs, patterns, offset)) {
+            offsets[sequence] |= 1 << offset;
+          }
+        }
+      }
+    }
+
+    private static boolean fits(List<ExpandedPair> pairs, int[] patterns, int offset) {
+      int last = pairs.size() - 1;
+      // The first pair of a symbol holds the check character and the first data character
+      if (offset == 0 && pairs.get(0).getRightChar() == null) {
+        return false;
+      }
+      for (int i = 0; i <= last; i++) {
+        ExpandedPair pair = pairs.get(i);
+        if (pair.getFinderPattern().getValue() != patterns[offset + i]) {
+          return false;
+        }
+        // Only the last pair of the symbol may be missing its right character
+        if (pair.getRightChar() == null && (i < last || offset + i != patterns.length - 1)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+  }
+
+}
@@ -20,6 +20,8 @@ import com.google.zxing.BarcodeFormat;
 import com.google.zxing.BinaryBitmap;
 import com.google.zxing.ChecksumException;
 import com.google.zxing.DecodeHintType;
+import com.google.zxing.DecodeListener;
+import com.google.zxing.DecodeStage;
 import com.google.zxing.FormatException;
 import com.google.zxing.NotFoundException;
 import com.google.zxing.Reader;
@@ -84,10 +86,23 @@ public final class PDF417Reader implements Reader, MultipleBarcodeReader {
   private static Result[] decode(BinaryBitmap image, Map<DecodeHintType, ?> hints, boolean multiple) 
       throws NotFoundException, FormatException, ChecksumException {
     List<Result> results = new ArrayList<>();
-    PDF417DetectorResult detectorResult = Detector.detect(image, hints, multiple);
+    DecodeListener listener = hints == null ? null : (DecodeListener) hints.get(DecodeHintType.DECODE_LISTENER);
+    long start = listener == null ? 0L : System.nanoTime();
+    PDF417DetectorResult detectorResult;
+    try {
+      detectorResult = Detector.detect(image, hints, multiple);
+    } finally {
+      if (listener != null) {
+        listener.stageFinished(DecodeStage.DETECTION, System.nanoTime() - start);
+      }
+    }
     for (ResultPoint[] points : detectorResult.getPoints()) {
+      // Codeword reading and error correction are interleaved here, so they are not timed apart
       DecoderResult decoderResult = PDF417ScanningDecoder.decode(detectorResult.getBits(), points[4], points[5],
           points[6], points[7], getMinCodewordWidth(points), getMaxCodewordWidth(points));
+      if (listener != null && decoderResult.getErrorsCorrected() != null) {
+        listener.errorsCorrected(decoderResult.getErrorsCorrected());
+      }
       Result result = new Result(decoderResult.getText(), decoderResult.getRawBytes(), points, BarcodeFormat.PDF_417);
       result.putMetadata(ResultMetadataType.ERROR_CORRECTION_LEVEL, decoderResult.getECLevel());
       PDF417ResultMetadata pdf417ResultMetadata = (PDF417ResultMetadata) decoderResult.getOther();
@@ -23,6 +23,7 @@ import com.google.zxing.DecodeHintType;
 import com.google.zxing.FormatException;
 import com.google.zxing.NotFoundException;
 import com.google.zxing.Reader;
+import com.google.zxing.ReaderException;
 import com.google.zxing.Result;
 import com.google.zxing.ResultMetadataType;
 import com.google.zxing.ResultPoint;
@@ -32,6 +33,7 @@ import com.google.zxing.common.DetectorResult;
 import com.google.zxing.qrcode.decoder.Decoder;
 import com.google.zxing.qrcode.decoder.QRCodeDecoderMetaData;
 import com.google.zxing.qrcode.detector.Detector;
+import com.google.zxing.qrcode.detector.FrameTracker;
 
 import java.util.List;
 import java.util.Map;
@@ -46,6 +48,7 @@ public class QRCodeReader implements Reader {
   private static final ResultPoint[] NO_POINTS = new ResultPoint[0];
 
   private final Decoder decoder = new Decoder();
+  private final FrameTracker tracker = new FrameTracker();
 
   protected final Decoder getDecoder() {
     return decoder;
@@ -74,11 +77,55 @@ public class QRCodeReader implements Reader {
       decoderResult = decoder.decode(bits, hints);
       points = NO_POINTS;
     } else {
-      DetectorResult detectorResult = new Detector(image.getBlackMatrix()).detect(hints);
+      Detector detector = new Detector(image.getBlackMatrix());
+      boolean tracking = hints != null && hints.containsKey(DecodeHintType.QR_TRACKING);
+      if (tracking && tracker.isTracking(detector)) {
+        Result result = decodeTracked(detector, hints);
+        if (result != null) {
+          return result;
+        }
+        // Lost it; start over
+        tracker.clear();
+      }
+      DetectorResult detectorResult = detector.detect(hints);
       decoderResult = decoder.decode(detectorResult.getBits(), hints);
+      if (tracking) {
+        tracker.update(detector, detectorResult);
+      }
       points = detectorResult.getPoints();
     }
+    return createResult(decoderResult, points);
+  }
+
+  @Override
+  public void reset() {
+    tracker.clear();
+  }
 
+  /**
+   * Decodes the code where the tracker last saw it: first detecting it near there, then sampling
+   * it as it was.
+   *
+   * @return the result, or null if the code is not found either way
+   */
+  private Result decodeTracked(Detector detector, Map<DecodeHintType,?> hints) {
+    try {
+      DetectorResult detectorResult = tracker.detectNear(detector, hints);
+      DecoderResult decoderResult = decoder.decode(detectorResult.getBits(), hints);
+      tracker.update(detector, detectorResult);
+      return createResult(decoderResult, detectorResult.getPoints());
+    } catch (ReaderException re) {
+      // Perhaps only blurred, and not moved at all
+    }
+    try {
+      DetectorResult detectorResult = tracker.sampleAsBefore(detector, hints);
+      return createResult(decoder.decode(detectorResult.getBits(), hints), detectorResult.getPoints());
+    } catch (ReaderException re) {
+      return null;
+    }
+  }
+
+  private static Result createResult(DecoderResult decoderResult, ResultPoint[] points) {
     // If the code was mirrored: swap the bottom-left and the top-right points.
     if (decoderResult.getOther() instanceof QRCodeDecoderMetaData) {
       ((QRCodeDecoderMetaData) decoderResult.getOther()).applyMirroredCorrection(points);
@@ -102,11 +149,6 @@ public class QRCodeReader implements Reader {
     return result;
   }
 
-  @Override
-  public void reset() {
-    // do nothing
-  }
-
   /**
    * This method detects a code in a "pure" image -- that is, pure monochrome image
    * which contains only an unrotated, unskewed, image of a code, with some white border
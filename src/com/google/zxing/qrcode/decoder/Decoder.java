@@ -18,6 +18,8 @@ package com.google.zxing.qrcode.decoder;
 
 import com.google.zxing.ChecksumException;
 import com.google.zxing.DecodeHintType;
+import com.google.zxing.DecodeListener;
+import com.google.zxing.DecodeStage;
 import com.google.zxing.FormatException;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.common.DecoderResult;
@@ -145,18 +147,42 @@ public final class Decoder {
     byte[] resultBytes = new byte[totalBytes];
     int resultOffset = 0;
 
+    DecodeListener listener = hints == null ? null : (DecodeListener) hints.get(DecodeHintType.DECODE_LISTENER);
+    long start = listener == null ? 0L : System.nanoTime();
+
     // Error-correct and copy data blocks together into a stream of bytes
-    for (DataBlock dataBlock : dataBlocks) {
-      byte[] codewordBytes = dataBlock.getCodewords();
-      int numDataCodewords = dataBlock.getNumDataCodewords();
-      correctErrors(codewordBytes, numDataCodewords);
-      for (int i = 0; i < numDataCodewords; i++) {
-        resultBytes[resultOffset++] = codewordBytes[i];
+    int errorsCorrected = 0;
+    try {
+      for (DataBlock dataBlock : dataBlocks) {
+        byte[] codewordBytes = dataBlock.getCodewords();
+        int numDataCodewords = dataBlock.getNumDataCodewords();
+        errorsCorrected += correctErrors(codewordBytes, numDataCodewords);
+        for (int i = 0; i < numDataCodewords; i++) {
+          resultBytes[resultOffset++] = codewordBytes[i];
+        }
+      }
+    } finally {
+      if (listener != null) {
+        long end = System.nanoTime();
+        listener.stageFinished(DecodeStage.ERROR_CORRECTION, end - start);
+        start = end;
       }
     }
+    if (listener != null) {
+      listener.errorsCorrected(errorsCorrected);
+    }
 
     // Decode the contents of that stream of bytes
-    return DecodedBitStreamParser.decode(resultBytes, version, ecLevel, hints);
+    DecoderResult result;
+    try {
+      result = DecodedBitStreamParser.decode(resultBytes, version, ecLevel, hints);
+    } finally {
+      if (listener != null) {
+        listener.stageFinished(DecodeStage.BIT_STREAM_PARSING, System.nanoTime() - start);
+      }
+    }
+    result.setErrorsCorrected(errorsCorrected);
+    return result;
   }
 
   /**
@@ -165,17 +191,19 @@ public final class Decoder {
    *
    * @param codewordBytes data and error correction codewords
    * @param numDataCodewords number of codewords that are data bytes
+   * @return the number of errors corrected
    * @throws ChecksumException if error correction fails
    */
-  private void correctErrors(byte[] codewordBytes, int numDataCodewords) throws ChecksumException {
+  private int correctErrors(byte[] codewordBytes, int numDataCodewords) throws ChecksumException {
     int numCodewords = codewordBytes.length;
     // First read into an array of ints
     int[] codewordsInts = new int[numCodewords];
     for (int i = 0; i < numCodewords; i++) {
       codewordsInts[i] = codewordBytes[i] & 0xFF;
     }
+    int errorsCorrected;
     try {
-      rsDecoder.decode(codewordsInts, codewordBytes.length - numDataCodewords);
+      errorsCorrected = rsDecoder.decodeWithECCount(codewordsInts, codewordBytes.length - numDataCodewords);
     } catch (ReedSolomonException ignored) {
       throw ChecksumException.getChecksumInstance();
     }
@@ -184,6 +212,7 @@ public final class Decoder {
     for (int i = 0; i < numDataCodewords; i++) {
       codewordBytes[i] = (byte) codewordsInts[i];
     }
+    return errorsCorrected;
   }
 
 }
@@ -17,11 +17,14 @@
 package com.google.zxing.qrcode.detector;
 
 import com.google.zxing.DecodeHintType;
+import com.google.zxing.DecodeListener;
+import com.google.zxing.DecodeStage;
 import com.google.zxing.FormatException;
 import com.google.zxing.NotFoundException;
 import com.google.zxing.ResultPoint;
 import com.google.zxing.ResultPointCallback;
 import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.DecodeContext;
 import com.google.zxing.common.DetectorResult;
 import com.google.zxing.common.GridSampler;
 import com.google.zxing.common.PerspectiveTransform;
@@ -40,6 +43,11 @@ public class Detector {
 
   private final BitMatrix image;
   private ResultPointCallback resultPointCallback;
+  private DecodeContext context;
+  private DecodeListener listener;
+  private FinderPatternInfo finderPatternInfo;
+  private PerspectiveTransform transform;
+  private int dimension;
 
   public Detector(BitMatrix image) {
     this.image = image;
@@ -73,64 +81,179 @@ public class Detector {
    * @throws FormatException if a QR Code cannot be decoded
    */
   public final DetectorResult detect(Map<DecodeHintType,?> hints) throws NotFoundException, FormatException {
+    return detect(null, hints);
+  }
 
-    resultPointCallback = hints == null ? null :
-        (ResultPointCallback) hints.get(DecodeHintType.NEED_RESULT_POINT_CALLBACK);
+  /**
+   * <p>Detects a QR Code whose finder patterns are near where they were in an earlier image,
+   * looking for them only there.</p>
+   *
+   * @param previous finder patterns found in the earlier image
+   * @param hints optional hints to detector
+   * @return {@link DetectorResult} encapsulating results of detecting a QR Code
+   * @throws NotFoundException if QR Code cannot be found there
+   * @throws FormatException if a QR Code cannot be decoded
+   */
+  final DetectorResult detectNear(FinderPatternInfo previous, Map<DecodeHintType,?> hints)
+      throws NotFoundException, FormatException {
+    return detect(previous, hints);
+  }
 
-    FinderPatternFinder finder = new FinderPatternFinder(image, resultPointCallback);
-    FinderPatternInfo info = finder.find(hints);
+  /**
+   * <p>Samples a QR Code assumed to be where it was in an earlier image, without looking for it.</p>
+   *
+   * @param transform transform from the code to the earlier image
+   * @param dimension number of modules on a side of the code
+   * @param points result points of the code in the earlier image
+   * @param hints optional hints to detector
+   * @return {@link DetectorResult} with those points
+   * @throws NotFoundException if the code would reach outside the image
+   */
+  final DetectorResult sample(PerspectiveTransform transform,
+                              int dimension,
+                              ResultPoint[] points,
+                              Map<DecodeHintType,?> hints) throws NotFoundException {
+    readHints(hints);
+    long start = listener == null ? 0L : System.nanoTime();
+    BitMatrix bits;
+    try {
+      bits = sampleGrid(image, transform, dimension, context);
+    } finally {
+      if (listener != null) {
+        listener.stageFinished(DecodeStage.SAMPLING, System.nanoTime() - start);
+      }
+    }
+    return new DetectorResult(bits, points);
+  }
+
+  /**
+   * @return finder patterns of the code last sampled by {@link #processFinderPatternInfo}
+   */
+  final FinderPatternInfo getFinderPatternInfo() {
+    return finderPatternInfo;
+  }
+
+  /**
+   * @return transform the code last sampled by {@link #processFinderPatternInfo} was sampled with
+   */
+  final PerspectiveTransform getTransform() {
+    return transform;
+  }
+
+  /**
+   * @return number of modules on a side of the code last sampled by
+   *  {@link #processFinderPatternInfo}
+   */
+  final int getDimension() {
+    return dimension;
+  }
+
+  private DetectorResult detect(FinderPatternInfo previous, Map<DecodeHintType,?> hints)
+      throws NotFoundException, FormatException {
+    readHints(hints);
+
+    long start = listener == null ? 0L : System.nanoTime();
+    FinderPatternFinder finder = new FinderPatternFinder(image, resultPointCallback, context);
+    FinderPatternInfo info;
+    try {
+      info = previous == null ? finder.find(hints) : finder.findNear(previous, hints);
+    } finally {
+      if (listener != null) {
+        listener.finderPatternCandidates(finder.getPossibleCenters().size());
+        listener.stageFinished(DecodeStage.DETECTION, System.nanoTime() - start);
+      }
+    }
 
     return processFinderPatternInfo(info);
   }
 
+  private void readHints(Map<DecodeHintType,?> hints) {
+    resultPointCallback = hints == null ? null :
+        (ResultPointCallback) hints.get(DecodeHintType.NEED_RESULT_POINT_CALLBACK);
+    context = hints == null ? null : (DecodeContext) hints.get(DecodeHintType.DECODE_CONTEXT);
+    listener = hints == null ? null : (DecodeListener) hints.get(DecodeHintType.DECODE_LISTENER);
+  }
+
   protected final DetectorResult processFinderPatternInfo(FinderPatternInfo info)
       throws NotFoundException, FormatException {
 
+    long start = listener == null ? 0L : System.nanoTime();
     FinderPattern topLeft = info.getTopLeft();
     FinderPattern topRight = info.getTopRight();
     FinderPattern bottomLeft = info.getBottomLeft();
 
-    float moduleSize = calculateModuleSize(topLeft, topRight, bottomLeft);
-    if (moduleSize < 1.0f) {
-      throw NotFoundException.getNotFoundInstance();
-    }
-    int dimension = computeDimension(topLeft, topRight, bottomLeft, moduleSize);
-    Version provisionalVersion = Version.getProvisionalVersionForDimension(dimension);
-    int modulesBetweenFPCenters = provisionalVersion.getDimensionForVersion() - 7;
-
+    int dimension;
     AlignmentPattern alignmentPattern = null;
-    // Anything above version 1 has an alignment pattern
-    if (provisionalVersion.getAlignmentPatternCenters().length > 0) {
-
-      // Guess where a "bottom right" finder pattern would have been
-      float bottomRightX = topRight.getX() - topLeft.getX() + bottomLeft.getX();
-      float bottomRightY = topRight.getY() - topLeft.getY() + bottomLeft.getY();
-
-      // Estimate that alignment pattern is closer by 3 modules
-      // from "bottom right" to known top left location
-      float correctionToTopLeft = 1.0f - 3.0f / modulesBetweenFPCenters;
-      int estAlignmentX = (int) (topLeft.getX() + correctionToTopLeft * (bottomRightX - topLeft.getX()));
-      int estAlignmentY = (int) (topLeft.getY() + correctionToTopLeft * (bottomRightY - topLeft.getY()));
+    PerspectiveTransform transform;
+    try {
+      float moduleSize = calculateModuleSize(topLeft, topRight, bottomLeft);
+      if (moduleSize < 1.0f) {
+        throw NotFoundException.getNotFoundInstance();
+      }
+      dimension = computeDimension(topLeft, topRight, bottomLeft, moduleSize);
+      Version provisionalVersion = Version.getProvisionalVersionForDimension(dimension);
+      int modulesBetweenFPCenters = provisionalVersion.getDimensionForVersion() - 7;
+
+      // Anything above version 1 has an alignment pattern
+      int[] alignmentCenters = provisionalVersion.getAlignmentPatternCenters();
+      if (alignmentCenters.length > 0) {
+
+        if (alignmentCenters.length > 2) {
+          // Larger versions have more alignment patterns along the diagonal. Extrapolating from the
+          // finder patterns all the way to the far corner can be off by more than the space between
+          // them, and data modules can pass for an alignment pattern, so work towards it one
+          // alignment pattern at a time.
+          alignmentPattern = findAlignmentAlongDiagonal(topLeft, topRight, bottomLeft,
+              moduleSize, dimension, alignmentCenters);
+        }
 
-      // Kind of arbitrary -- expand search radius before giving up
-      for (int i = 4; i <= 16; i <<= 1) {
-        try {
-          alignmentPattern = findAlignmentInRegion(moduleSize,
-              estAlignmentX,
-              estAlignmentY,
-              i);
-          break;
-        } catch (NotFoundException re) {
-          // try next round
+        if (alignmentPattern == null) {
+          // Guess where a "bottom right" finder pattern would have been
+          float bottomRightX = topRight.getX() - topLeft.getX() + bottomLeft.getX();
+          float bottomRightY = topRight.getY() - topLeft.getY() + bottomLeft.getY();
+
+          // Estimate that alignment pattern is closer by 3 modules
+          // from "bottom right" to known top left location
+          float correctionToTopLeft = 1.0f - 3.0f / modulesBetweenFPCenters;
+          int estAlignmentX = (int) (topLeft.getX() + correctionToTopLeft * (bottomRightX - topLeft.getX()));
+          int estAlignmentY = (int) (topLeft.getY() + correctionToTopLeft * (bottomRightY - topLeft.getY()));
+
+          // Kind of arbitrary -- expand search radius before giving up
+          for (int i = 4; i <= 16; i <<= 1) {
+            try {
+              alignmentPattern = findAlignmentInRegion(moduleSize,
+                  estAlignmentX,
+                  estAlignmentY,
+                  i);
+              break;
+            } catch (NotFoundException re) {
+              // try next round
+            }
+          }
         }
+        // If we didn't find alignment pattern... well try anyway without it
       }
-      // If we didn't find alignment pattern... well try anyway without it
-    }
 
-    PerspectiveTransform transform =
-        createTransform(topLeft, topRight, bottomLeft, alignmentPattern, dimension);
+      transform = createTransform(topLeft, topRight, bottomLeft, alignmentPattern, dimension);
+    } finally {
+      if (listener != null) {
+        long end = System.nanoTime();
+        listener.stageFinished(DecodeStage.DETECTION, end - start);
+        start = end;
+      }
+    }
 
-    BitMatrix bits = sampleGrid(image, transform, dimension);
+    BitMatrix bits;
+    try {
+      bits = sampleGrid(image, transform, dimension, context);
+    } finally {
+      if (listener != null) {
+        listener.stageFinished(DecodeStage.SAMPLING, System.nanoTime() - start);
+      }
+    }
+    this.finderPatternInfo = info;
+    this.transform = transform;
+    this.dimension = dimension;
 
     ResultPoint[] points;
     if (alignmentPattern == null) {
@@ -185,10 +308,11 @@ public class Detector {
 
   private static BitMatrix sampleGrid(BitMatrix image,
                                       PerspectiveTransform transform,
-                                      int dimension) throws NotFoundException {
+                                      int dimension,
+                                      DecodeContext context) throws NotFoundException {
 
     GridSampler sampler = GridSampler.getInstance();
-    return sampler.sampleGrid(image, dimension, dimension, transform);
+    return sampler.sampleGrid(image, dimension, dimension, transform, context);
   }
 
   /**
@@ -359,6 +483,51 @@ public class Detector {
     return Float.NaN;
   }
 
+  /**
+   * <p>Looks for the alignment patterns on the diagonal from the top-left finder pattern in turn,
+   * up to the bottom-right one. Where each should be is first taken from the finder patterns as if
+   * the code were a parallelogram. How far off that was for the last one found, scaled by the
+   * distance from the top-left, corrects the guess for the next, so no guess has to reach much
+   * further than what has been seen already, however large the code.</p>
+   *
+   * @param alignmentCenters module coordinates of alignment pattern rows and columns for the version
+   * @return the bottom-right alignment pattern, or null if it was not found
+   */
+  private AlignmentPattern findAlignmentAlongDiagonal(ResultPoint topLeft,
+                                                      ResultPoint topRight,
+                                                      ResultPoint bottomLeft,
+                                                      float moduleSize,
+                                                      int dimension,
+                                                      int[] alignmentCenters) {
+    float stepX = (topRight.getX() - topLeft.getX() + bottomLeft.getX() - topLeft.getX()) / (dimension - 7);
+    float stepY = (topRight.getY() - topLeft.getY() + bottomLeft.getY() - topLeft.getY()) / (dimension - 7);
+    // How far off the parallelogram was, per module from the top-left, at the last one found
+    float errorX = 0.0f;
+    float errorY = 0.0f;
+    AlignmentPattern alignmentPattern = null;
+    // The first row and column of alignment patterns crosses the finder patterns on the diagonal
+    for (int i = 1; i < alignmentCenters.length; i++) {
+      float modules = alignmentCenters[i] - 3.0f;
+      float estX = topLeft.getX() + modules * (stepX + errorX);
+      float estY = topLeft.getY() + modules * (stepY + errorY);
+      alignmentPattern = null;
+      // Neighbouring alignment patterns are at least 16 modules apart, so this never reaches one
+      for (int allowance = 4; allowance <= 8; allowance <<= 1) {
+        try {
+          alignmentPattern = findAlignmentInRegion(moduleSize, (int) estX, (int) estY, allowance);
+          break;
+        } catch (NotFoundException re) {
+          // try next round
+        }
+      }
+      if (alignmentPattern != null) {
+        errorX = (alignmentPattern.getX() - topLeft.getX()) / modules - stepX;
+        errorY = (alignmentPattern.getY() - topLeft.getY()) / modules - stepY;
+      }
+    }
+    return alignmentPattern;
+  }
+
   /**
    * <p>Attempts to locate an alignment pattern in a limited region of the image, which is
    * guessed to contain it. This method uses {@link AlignmentPattern}.</p>
@@ -20,6 +20,9 @@ import com.google.zxing.NotFoundException;
 import com.google.zxing.ResultPoint;
 import com.google.zxing.ResultPointCallback;
 import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.DecodeContext;
+import com.google.zxing.common.ParallelTasks;
+import com.google.zxing.qrcode.decoder.Version;
 
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -36,7 +39,8 @@ import java.util.Map;
  *
  * <p>
  * This class is thread-safe but not reentrant. Each thread must allocate its
- * own object.
+ * own object. With {@link DecodeHintType#QR_FINDER_THREADS}, it searches bands
+ * of rows on several threads itself, each with a worker finder of its own.
  *
  * @author Sean Owen
  */
@@ -45,7 +49,11 @@ public class FinderPatternFinder {
 	private static final int CENTER_QUORUM = 2;
 	private static final EstimatedModuleComparator moduleComparator = new EstimatedModuleComparator();
 	protected static final int MIN_SKIP = 3; // 1 pixel/module times 3 modules/center
-	protected static final int MAX_MODULES = 97; // support up to version 20 for mobile clients
+	protected static final int MAX_MODULES = 97; // support up to version 20 for mobile clients by default
+	// How far from where a finder pattern was to look for it again, in modules. A
+	// pattern reaches 3.5 modules from its center, so this allows it to have
+	// moved by about as much again
+	private static final float TRACKING_RADIUS = 7.0f;
 
 	private final BitMatrix image;
 	private final List<FinderPattern> possibleCenters;
@@ -72,12 +80,32 @@ public class FinderPatternFinder {
 	}
 
 	public FinderPatternFinder(BitMatrix image, ResultPointCallback resultPointCallback) {
+		this(image, resultPointCallback, null);
+	}
+
+	/**
+	 * Creates a finder that collects its candidates in the list the given
+	 * context keeps for them, if any, rather than a new one.
+	 */
+	FinderPatternFinder(BitMatrix image, ResultPointCallback resultPointCallback, DecodeContext context) {
 		this.image = image;
-		this.possibleCenters = new ArrayList<>();
+		this.possibleCenters = context == null ? new ArrayList<FinderPattern>() : context.<FinderPattern>getCandidates();
 		this.crossCheckStateCount = new int[5];
 		this.resultPointCallback = resultPointCallback;
 	}
 
+	/**
+	 * Creates a worker that searches part of the same image, adding the
+	 * candidates it finds to those of the given finder.
+	 */
+	private FinderPatternFinder(FinderPatternFinder parent) {
+		this.image = parent.image;
+		this.possibleCenters = parent.possibleCenters;
+		this.crossCheckStateCount = new int[5];
+		this.resultPointCallback = parent.resultPointCallback;
+		this.useCheckFullFinderPattern = parent.useCheckFullFinderPattern;
+	}
+
 	protected final BitMatrix getImage() {
 		return image;
 	}
@@ -103,7 +131,9 @@ public class FinderPatternFinder {
 					(double[]) hints.get(DecodeHintType.FINDER_PATTERN_DISTANCE_APPROX_RATIO) : 
 					null;
 			useCheckFullFinderPattern = hints.containsKey(DecodeHintType.QR_CODE_CHECK_FULL_FINDER_PATTERN);
-			Arrays.sort(distanceBetweenFinders);
+			if (distanceBetweenFinders != null) {
+				Arrays.sort(distanceBetweenFinders);
+			}
 		}
 				int maxI = image.getHeight();
 		int maxJ = image.getWidth();
@@ -114,69 +144,50 @@ public class FinderPatternFinder {
 		// image, and then account for the center being 3 modules in size. This gives the smallest
 		// number of pixels the center could be, so skip this often. When trying harder, look for all
 		// QR versions regardless of how dense they are.
-		int iSkip = (3 * maxI) / (4 * MAX_MODULES);
+		int iSkip = (3 * maxI) / (4 * getMaxModules(hints));
 		if (iSkip < MIN_SKIP || tryHarder) {
 			iSkip = MIN_SKIP;
 		}
 
+		int threads = getThreads(hints);
+		if (threads > 1) {
+			// Bands are searched at once, so there is no telling early on which rows can be skipped
+			scanRowsInParallel(iSkip, threads);
+			FinderPattern[] patternInfo = selectBestPatterns();
+			ResultPoint.orderBestPatterns(patternInfo);
+			return new FinderPatternInfo(patternInfo);
+		}
+
 		boolean done = false;
 		int[] stateCount = new int[5];
 		for (int i = iSkip - 1; i < maxI && !done; i += iSkip) {
-			// Get a row of black/white values
-			clearCounts(stateCount);
-			int currentState = 0;
-			for (int j = 0; j < maxJ; j++) {
-				if (image.get(j, i)) {
-					// Black pixel
-					if ((currentState & 1) == 1) { // Counting white pixels
-						currentState++;
-					}
-					stateCount[currentState]++;
-				} else { // White pixel
-					if ((currentState & 1) == 0) { // Counting black pixels
-						if (currentState == 4) { // A winner?
-							if (foundPatternCross(stateCount)) { // Yes
-								boolean confirmed = handlePossibleCenter(stateCount, i, j);
-								if (confirmed) {
-									// Start examining every other line. Checking each line turned out to be too
-									// expensive and didn't improve performance.
-									iSkip = 2;
-									if (hasSkipped) {
-										done = haveMultiplyConfirmedCenters();
-									} else {
-										int rowSkip = findRowSkip();
-										if (rowSkip > stateCount[2]) {
-											// Skip rows between row of lower confirmed center
-											// and top of presumed third confirmed center
-											// but back up a bit to get a full chance of detecting
-											// it, entire width of center of finder pattern
-
-											// Skip by rowSkip, but back off by stateCount[2] (size of last center
-											// of pattern we saw) to be conservative, and also back off by iSkip which
-											// is about to be re-added
-											i += rowSkip - stateCount[2] - iSkip;
-											j = maxJ - 1;
-										}
-									}
-								} else {
-									shiftCounts2(stateCount);
-									currentState = 3;
-									continue;
-								}
-								// Clear state to start looking again
-								currentState = 0;
-								clearCounts(stateCount);
-							} else { // No, shift counts back by two
-								shiftCounts2(stateCount);
-								currentState = 3;
-							}
-						} else {
-							stateCount[++currentState]++;
-						}
-					} else { // Counting white pixels
-						stateCount[currentState]++;
+			int j = scanRow(stateCount, i, 0, maxJ, true);
+			while (j < maxJ) { // Found a center
+				// Start examining every other line. Checking each line turned out to be too
+				// expensive and didn't improve performance.
+				iSkip = 2;
+				boolean skipRow = false;
+				if (hasSkipped) {
+					done = haveMultiplyConfirmedCenters();
+				} else {
+					int rowSkip = findRowSkip();
+					if (rowSkip > stateCount[2]) {
+						// Skip rows between row of lower confirmed center
+						// and top of presumed third confirmed center
+						// but back up a bit to get a full chance of detecting
+						// it, entire width of center of finder pattern
+
+						// Skip by rowSkip, but back off by stateCount[2] (size of last center
+						// of pattern we saw) to be conservative, and also back off by iSkip which
+						// is about to be re-added
+						i += rowSkip - stateCount[2] - iSkip;
+						// and leave the rest of this row
+						skipRow = true;
 					}
 				}
+				// Clear state to start looking again, past the first white pixel the center was decided on
+				clearCounts(stateCount);
+				j = skipRow || j + 1 >= maxJ ? maxJ : scanRow(stateCount, i, j + 1, maxJ, true);
 			}
 			if (foundPatternCross(stateCount)) {
 				boolean confirmed = handlePossibleCenter(stateCount, i, maxJ);
@@ -196,6 +207,173 @@ public class FinderPatternFinder {
 		return new FinderPatternInfo(patternInfo);
 	}
 
+	/**
+	 * Looks for finder patterns only in windows around the given ones, which
+	 * were found in an earlier image of the same scene, scanning every other row
+	 * of each window. Far less of the image is read than by {@link #find(Map)},
+	 * as long as the code has not moved much since.
+	 *
+	 * @param previous finder patterns found in the earlier image
+	 * @throws NotFoundException if three finder patterns are not found near them
+	 */
+	final FinderPatternInfo findNear(FinderPatternInfo previous, Map<DecodeHintType, ?> hints)
+			throws NotFoundException {
+		useCheckFullFinderPattern = hints != null
+				&& hints.containsKey(DecodeHintType.QR_CODE_CHECK_FULL_FINDER_PATTERN);
+		int maxI = image.getHeight();
+		int maxJ = image.getWidth();
+		FinderPattern[] patterns = {previous.getTopLeft(), previous.getTopRight(), previous.getBottomLeft()};
+		for (FinderPattern pattern : patterns) {
+			int radius = (int) (TRACKING_RADIUS * pattern.getEstimatedModuleSize()) + 1;
+			int centerI = (int) pattern.getY();
+			int centerJ = (int) pattern.getX();
+			int startI = Math.max(0, centerI - radius);
+			int endI = Math.min(maxI, centerI + radius);
+			int startJ = Math.max(0, centerJ - radius);
+			int endJ = Math.min(maxJ, centerJ + radius);
+			if (startI < endI && startJ < endJ) {
+				scanWindow(startI, endI, 2, startJ, endJ);
+			}
+		}
+
+		FinderPattern[] patternInfo = selectBestPatterns();
+		ResultPoint.orderBestPatterns(patternInfo);
+
+		return new FinderPatternInfo(patternInfo);
+	}
+
+	/**
+	 * @return number of modules across the largest QR Code searched for: that of
+	 * the version given by {@link DecodeHintType#QR_MAX_VERSION}, or else
+	 * {@link #MAX_MODULES}
+	 */
+	protected static int getMaxModules(Map<DecodeHintType, ?> hints) {
+		Object maxVersion = hints == null ? null : hints.get(DecodeHintType.QR_MAX_VERSION);
+		if (maxVersion instanceof Integer) {
+			int versionNumber = Math.max(1, Math.min(40, (Integer) maxVersion));
+			return Version.getVersionForNumber(versionNumber).getDimensionForVersion();
+		}
+		return MAX_MODULES;
+	}
+
+	/**
+	 * @return value of {@link DecodeHintType#QR_FINDER_THREADS}, or 1 if unset
+	 */
+	protected static int getThreads(Map<DecodeHintType, ?> hints) {
+		Object threads = hints == null ? null : hints.get(DecodeHintType.QR_FINDER_THREADS);
+		return threads instanceof Integer ? (Integer) threads : 1;
+	}
+
+	/**
+	 * Scans every iSkip-th row from startI up to, but not including, endI,
+	 * adding each finder pattern confirmed to the possible centers. Unlike
+	 * {@link #find(Map)}, rows are never skipped adaptively.
+	 *
+	 * @param startI first row to scan
+	 * @param endI row at which to stop
+	 * @param iSkip rows to advance between scans
+	 */
+	protected final void scanRows(int startI, int endI, int iSkip) {
+		scanWindow(startI, endI, iSkip, 0, image.getWidth());
+	}
+
+	/**
+	 * Like {@link #scanRows(int, int, int)}, but reads each row only from
+	 * startJ up to, but not including, endJ. Cross checks still reach outside.
+	 */
+	private void scanWindow(int startI, int endI, int iSkip, int startJ, int endJ) {
+		int[] stateCount = new int[5];
+		for (int i = startI; i < endI; i += iSkip) {
+			scanRow(stateCount, i, startJ, endJ, false);
+			if (foundPatternCross(stateCount)) {
+				handlePossibleCenter(stateCount, i, endJ);
+			}
+		}
+	}
+
+	/**
+	 * Reads row i from startJ up to, but not including, endJ as runs of black or
+	 * white pixels, each found a word at a time, and checks each possible center
+	 * that ends within the row. The counts left at the end of the row stay in
+	 * stateCount, for the caller to check against the edge of the image or window.
+	 *
+	 * @param stateCount counts of the last five runs, cleared first
+	 * @param stopAtCenter whether to stop at the first center confirmed, leaving
+	 * its counts in stateCount, rather than clear them and read on
+	 * @return position of the first white pixel after the center confirmed, or
+	 * endJ if none was, or the row was read to the end
+	 */
+	private int scanRow(int[] stateCount, int i, int startJ, int endJ, boolean stopAtCenter) {
+		BitMatrix image = this.image;
+		clearCounts(stateCount);
+		int currentState = 0;
+		boolean black = image.get(startJ, i);
+		for (int j = startJ; j < endJ; black = !black) {
+			int end = Math.min(endJ, black ? image.getNextUnset(j, i) : image.getNextSet(j, i));
+			if (black) {
+				if ((currentState & 1) == 1) { // Counting white pixels
+					currentState++;
+				}
+				stateCount[currentState] += end - j;
+			} else {
+				int whiteCount = end - j;
+				if (currentState == 4) { // A winner?
+					// Decided on the first white pixel
+					whiteCount--;
+					if (foundPatternCross(stateCount) && handlePossibleCenter(stateCount, i, j)) { // Yes
+						if (stopAtCenter) {
+							return j;
+						}
+						// Clear state to start looking again
+						currentState = 0;
+						clearCounts(stateCount);
+					} else { // No, shift counts back by two
+						shiftCounts2(stateCount);
+						currentState = 3;
+					}
+				}
+				if (whiteCount > 0) {
+					if ((currentState & 1) == 0) { // Counting black pixels
+						currentState++;
+					}
+					stateCount[currentState] += whiteCount;
+				}
+			}
+			j = end;
+		}
+		return endJ;
+	}
+
+	/**
+	 * Like {@link #scanRows(int, int, int)} over the whole image, but with the
+	 * rows split into bands that are scanned on several threads. Candidates from
+	 * all bands are merged into the possible centers as they are found, so when
+	 * two candidates are close, which one a third is merged into can vary from
+	 * run to run. A {@link ResultPointCallback} is called from these threads.
+	 *
+	 * @param iSkip rows to advance between scans
+	 * @param threads number of threads to use, including the calling one
+	 */
+	protected final void scanRowsInParallel(final int iSkip, int threads) {
+		int maxI = image.getHeight();
+		int rows = maxI / iSkip;
+		// A few bands per thread, so that one slow band does not hold up the rest
+		int bands = Math.max(1, Math.min(rows, threads * 4));
+		Runnable[] tasks = new Runnable[bands];
+		for (int band = 0; band < bands; band++) {
+			final FinderPatternFinder worker = new FinderPatternFinder(this);
+			final int startI = iSkip - 1 + (int) ((long) rows * band / bands) * iSkip;
+			final int endI = Math.min(maxI, iSkip - 1 + (int) ((long) rows * (band + 1) / bands) * iSkip);
+			tasks[band] = new Runnable() {
+				@Override
+				public void run() {
+					worker.scanRows(startI, endI, iSkip);
+				}
+			};
+		}
+		ParallelTasks.run(tasks, threads);
+	}
+
 	/**
 	 * Given a count of black/white/black/white/black pixels just seen and an
 	 * end position, figures the location of the center of this run.
@@ -535,29 +713,41 @@ public class FinderPatternFinder {
 						return false;
 					}
 				}
-				boolean found = false;
-				for (int index = 0; index < possibleCenters.size(); index++) {
-					FinderPattern center = possibleCenters.get(index);
-					// Look for about the same center and module size:
-					if (center.aboutEquals(estimatedModuleSize, centerI, centerJ)) {
-						possibleCenters.set(index, center.combineEstimate(centerI, centerJ, estimatedModuleSize));
-						found = true;
-						break;
-					}
-				}
-				if (!found) {
-					FinderPattern point = new FinderPattern(centerJ, centerI, estimatedModuleSize);
-					possibleCenters.add(point);
-					if (resultPointCallback != null) {
-						resultPointCallback.foundPossibleResultPoint(point);
-					}
-				}
+				addPossibleCenter(centerI, centerJ, estimatedModuleSize);
 				return true;
 			}
 		}
 		return false;
 	}
 
+	/**
+	 * Merges a confirmed finder pattern into the candidate it is about equal to,
+	 * or adds it as a new one. Workers scanning other bands of the image share
+	 * the same candidates, so this holds their lock.
+	 */
+	private void addPossibleCenter(float centerI, float centerJ, float estimatedModuleSize) {
+		FinderPattern point = null;
+		synchronized (possibleCenters) {
+			boolean found = false;
+			for (int index = 0; index < possibleCenters.size(); index++) {
+				FinderPattern center = possibleCenters.get(index);
+				// Look for about the same center and module size:
+				if (center.aboutEquals(estimatedModuleSize, centerI, centerJ)) {
+					possibleCenters.set(index, center.combineEstimate(centerI, centerJ, estimatedModuleSize));
+					found = true;
+					break;
+				}
+			}
+			if (!found) {
+				point = new FinderPattern(centerJ, centerI, estimatedModuleSize);
+				possibleCenters.add(point);
+			}
+		}
+		if (point != null && resultPointCallback != null) {
+			resultPointCallback.foundPossibleResultPoint(point);
+		}
+	}
+
 	/**
 	 * @return number of rows we could safely skip during scanning, based on the
 	 * first two finder patterns that have been located. In some cases their
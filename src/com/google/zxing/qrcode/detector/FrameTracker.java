@@ -0,0 +1,109 @@
+/*
+ * Copyright 2007 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.qrcode.detector;
+
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.FormatException;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.ResultPoint;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.DetectorResult;
+import com.google.zxing.common.PerspectiveTransform;
+
+import java.util.Map;
+
+/**
+ * <p>Remembers where a QR Code was last decoded, so that it can be looked for there first in the
+ * next frame of a continuous scan, for {@link DecodeHintType#QR_TRACKING}.</p>
+ *
+ * <p>A frame is first searched for finder patterns only around the last ones, with
+ * {@link #detectNear(Detector, Map)}. If that fails, for example because the frame is blurred by
+ * motion, {@link #sampleAsBefore(Detector, Map)} samples it with the last transform, in case the
+ * code has hardly moved. Only when neither decodes does the caller need to run a full detection.</p>
+ */
+public final class FrameTracker {
+
+  private FinderPatternInfo finderPatternInfo;
+  private PerspectiveTransform transform;
+  private int dimension;
+  private ResultPoint[] points;
+  private int width;
+  private int height;
+
+  /**
+   * @param detector detector for the current frame
+   * @return true if a code was decoded in an earlier frame of the same size
+   */
+  public boolean isTracking(Detector detector) {
+    BitMatrix image = detector.getImage();
+    return finderPatternInfo != null && image.getWidth() == width && image.getHeight() == height;
+  }
+
+  /**
+   * Detects the code near where it was last decoded.
+   *
+   * @param detector detector for the current frame
+   * @param hints optional hints to detector
+   * @return {@link DetectorResult} encapsulating results of detecting a QR Code
+   * @throws NotFoundException if it is no longer there
+   * @throws FormatException if a QR Code cannot be decoded
+   */
+  public DetectorResult detectNear(Detector detector, Map<DecodeHintType,?> hints)
+      throws NotFoundException, FormatException {
+    return detector.detectNear(finderPatternInfo, hints);
+  }
+
+  /**
+   * Samples the code exactly where it was last decoded.
+   *
+   * @param detector detector for the current frame
+   * @param hints optional hints to detector
+   * @return {@link DetectorResult} with the points where the code was last decoded
+   * @throws NotFoundException if the code would reach outside the image
+   */
+  public DetectorResult sampleAsBefore(Detector detector, Map<DecodeHintType,?> hints)
+      throws NotFoundException {
+    // The caller may reorder the points of a mirrored code in place
+    return detector.sample(transform, dimension, points.clone(), hints);
+  }
+
+  /**
+   * Remembers where the code last detected by a detector is, once it has been decoded.
+   *
+   * @param detector detector that detected the code
+   * @param result what it detected, before its points are corrected for mirroring
+   */
+  public void update(Detector detector, DetectorResult result) {
+    BitMatrix image = detector.getImage();
+    finderPatternInfo = detector.getFinderPatternInfo();
+    transform = detector.getTransform();
+    dimension = detector.getDimension();
+    points = result.getPoints().clone();
+    width = image.getWidth();
+    height = image.getHeight();
+  }
+
+  /**
+   * Forgets the code, so that the next frame is searched in full.
+   */
+  public void clear() {
+    finderPatternInfo = null;
+    transform = null;
+    points = null;
+  }
+
+}
@@ -8,32 +8,30 @@ public class IntegerMethods {
 	 * @return
 	 */
 	public static int numberOfTrailingZeros(int i) {
+		if (i == 0) {
+			return 32;
+		}
 		int n = 0;
 		if ((i & 0x0000FFFF) == 0) {
-			i >>= 16;
+			i >>>= 16;
 			n += 16;
 		}
 		if ((i & 0x000000FF) == 0) {
-			i >>= 8;
+			i >>>= 8;
 			n += 8;
 		}
 		if ((i & 0x0000000F) == 0) {
-			i >>= 4;
+			i >>>= 4;
 			n += 4;
 		}
-		if ((i & 0x0000000C) == 0) {
-			i >>= 2;
+		if ((i & 0x00000003) == 0) {
+			i >>>= 2;
 			n += 2;
 		}
-		if ((i & 0x00000003) == 0) {
-			i >>= 1;
+		if ((i & 0x00000001) == 0) {
 			n += 1;
 		}
-		if (i > 0) {
-			return n;
-		} else {
-			return n + 1;
-		}
+		return n;
 	}
 
 	/**